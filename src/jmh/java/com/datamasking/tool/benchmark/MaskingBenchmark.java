@@ -0,0 +1,116 @@
+package com.datamasking.tool.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.datamasking.tool.config.HmacProperties;
+import com.datamasking.tool.dto.MaskingRequest;
+import com.datamasking.tool.dto.MaskingResponse;
+import com.datamasking.tool.model.MaskingStrategy;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.service.FastRandomValueGenerator;
+import com.datamasking.tool.service.FormatPreservingEncryptor;
+import com.datamasking.tool.service.HmacHasher;
+import com.datamasking.tool.service.MaskingActivityLog;
+import com.datamasking.tool.service.MaskingMetrics;
+import com.datamasking.tool.service.MaskingPlan;
+import com.datamasking.tool.service.MaskingRuleCache;
+import com.datamasking.tool.service.MaskingService;
+import com.datamasking.tool.service.PseudonymDictionary;
+import com.datamasking.tool.service.SyntheticValueGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every masking strategy for every PII type
+ * plan measures a compiled MaskingPlan alone, maskData the full request path including the response.
+ * Run with: mvn -Pjmh compile exec:exec -Djmh.args="MaskingBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MaskingBenchmark {
+    
+    // Power of two, so the corpus index wraps with a mask
+    private static final int CORPUS_SIZE = 1024;
+    
+    @Param
+    public MaskingStrategy strategy;
+    
+    @Param
+    public PiiType piiType;
+    
+    private MaskingService maskingService;
+    private MaskingPlan plan;
+    private String[] corpus;
+    private MaskingRequest[] requests;
+    private int index;
+    
+    @Setup
+    public void setUp() {
+        // Console logging of every request would dominate the measurement
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        
+        // Throwaway keys per run, the benchmark never needs to reproduce an output
+        SecureRandom random = new SecureRandom();
+        byte[] hmacKey = new byte[32];
+        byte[] fpeKey = new byte[16];
+        random.nextBytes(hmacKey);
+        random.nextBytes(fpeKey);
+        HmacProperties hmacProperties = new HmacProperties();
+        hmacProperties.getKeys().put("bench", Base64.getEncoder().encodeToString(hmacKey));
+        hmacProperties.setActiveKeyId("bench");
+        
+        // Strategies are always given explicitly, so the rule cache never reaches its repository
+        maskingService = new MaskingService(
+            new MaskingRuleCache(null),
+            new HmacHasher(hmacProperties),
+            new FormatPreservingEncryptor(Base64.getEncoder().encodeToString(fpeKey)),
+            new FastRandomValueGenerator(),
+            PseudonymDictionary.disabled(),
+            new SyntheticValueGenerator(new HmacHasher(hmacProperties), "tr"),
+            new MaskingMetrics(new SimpleMeterRegistry()),
+            new MaskingActivityLog()
+        );
+        plan = maskingService.getPlan(piiType, strategy, null, true, true, null);
+        
+        corpus = MaskingCorpus.generate(piiType, CORPUS_SIZE, 42);
+        requests = new MaskingRequest[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            requests[i] = MaskingRequest.builder()
+                .data(corpus[i])
+                .piiType(piiType)
+                .strategy(strategy)
+                .preserveLength(true)
+                .preserveFormat(true)
+                .build();
+        }
+    }
+    
+    @Benchmark
+    public String plan() {
+        return plan.mask(corpus[index++ & (CORPUS_SIZE - 1)]);
+    }
+    
+    @Benchmark
+    public MaskingResponse maskData() {
+        return maskingService.maskData(requests[index++ & (CORPUS_SIZE - 1)]);
+    }
+}
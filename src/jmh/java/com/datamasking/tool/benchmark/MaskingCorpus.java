@@ -0,0 +1,145 @@
+package com.datamasking.tool.benchmark;
+
+import com.datamasking.tool.model.PiiType;
+
+import java.math.BigInteger;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Realistic benchmark inputs per PII type
+ * Turkish names and addresses, TC Kimlik numbers and IBANs with valid check digits, Luhn-valid cards
+ */
+final class MaskingCorpus {
+    
+    private static final String[] FIRST_NAMES = {
+        "Ahmet", "Mehmet", "Ayşe", "Fatma", "Emine", "Hüseyin", "Mustafa", "Zeynep", "Elif", "İbrahim",
+        "Özge", "Çağlar", "Gökhan", "Şule", "Ümit", "Burak", "Deniz", "Ebru", "Kübra", "Oğuz"
+    };
+    
+    private static final String[] LAST_NAMES = {
+        "Yılmaz", "Kaya", "Demir", "Şahin", "Çelik", "Yıldız", "Yıldırım", "Öztürk", "Aydın", "Özdemir",
+        "Arslan", "Doğan", "Kılıç", "Aslan", "Çetin", "Kara", "Koç", "Kurt", "Özkan", "Şimşek"
+    };
+    
+    private static final String[] STREETS = {
+        "Atatürk Cad.", "İstiklal Cad.", "Bağdat Cad.", "Cumhuriyet Mah. 1203. Sok.", "Gazi Osman Paşa Bulvarı",
+        "Fevzi Çakmak Mah. Güneş Sok."
+    };
+    
+    private static final String[] DISTRICTS = {
+        "Kadıköy/İstanbul", "Çankaya/Ankara", "Karşıyaka/İzmir", "Nilüfer/Bursa", "Muratpaşa/Antalya", "Şahinbey/Gaziantep"
+    };
+    
+    private static final String[] EMAIL_DOMAINS = {"gmail.com", "hotmail.com", "yandex.com.tr", "firma.com.tr"};
+    
+    private MaskingCorpus() {
+    }
+    
+    static String[] generate(PiiType piiType, int size, long seed) {
+        Random random = new Random(seed);
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = value(piiType, random);
+        }
+        return values;
+    }
+    
+    private static String value(PiiType piiType, Random random) {
+        return switch (piiType) {
+            case EMAIL -> ascii(pick(random, FIRST_NAMES)) + "." + ascii(pick(random, LAST_NAMES))
+                + random.nextInt(100) + "@" + pick(random, EMAIL_DOMAINS);
+            case PHONE -> String.format("+90 5%02d %03d %02d %02d",
+                random.nextInt(60), random.nextInt(1000), random.nextInt(100), random.nextInt(100));
+            case TC_KIMLIK_NO -> tcKimlikNo(random);
+            case CREDIT_CARD -> creditCard(random);
+            case SSN -> String.format("%03d-%02d-%04d", 1 + random.nextInt(899), 1 + random.nextInt(99), 1 + random.nextInt(9999));
+            case ADDRESS -> pick(random, STREETS) + " No:" + (1 + random.nextInt(200)) + " D:" + (1 + random.nextInt(40))
+                + " " + pick(random, DISTRICTS);
+            case FULL_NAME -> pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+            case FIRST_NAME -> pick(random, FIRST_NAMES);
+            case LAST_NAME -> pick(random, LAST_NAMES);
+            case DATE_OF_BIRTH -> String.format("%02d.%02d.%d", 1 + random.nextInt(28), 1 + random.nextInt(12), 1950 + random.nextInt(55));
+            case IP_ADDRESS -> (1 + random.nextInt(223)) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+            case BANK_ACCOUNT -> iban(random);
+            case PASSPORT -> "U" + digits(random, 8);
+            case DRIVERS_LICENSE -> digits(random, 6);
+            case TEXT -> "Müşteri " + pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES) + " (TC " + tcKimlikNo(random)
+                + ") " + value(PiiType.PHONE, random) + " numarasından aradı ve " + iban(random) + " hesabına iade istedi.";
+            case NUMERIC -> Integer.toString(random.nextInt(1_000_000));
+        };
+    }
+    
+    private static String tcKimlikNo(Random random) {
+        int[] d = new int[11];
+        d[0] = 1 + random.nextInt(9);
+        for (int i = 1; i < 9; i++) {
+            d[i] = random.nextInt(10);
+        }
+        d[9] = Math.floorMod((d[0] + d[2] + d[4] + d[6] + d[8]) * 7 - (d[1] + d[3] + d[5] + d[7]), 10);
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            sum += d[i];
+        }
+        d[10] = sum % 10;
+        
+        StringBuilder value = new StringBuilder(11);
+        for (int digit : d) {
+            value.append(digit);
+        }
+        return value.toString();
+    }
+    
+    private static String creditCard(Random random) {
+        String payload = (random.nextBoolean() ? "4" : "5" + (1 + random.nextInt(5))) + digits(random, 14);
+        payload = payload.substring(0, 15);
+        
+        int sum = 0;
+        for (int i = 0; i < 15; i++) {
+            int digit = payload.charAt(14 - i) - '0';
+            if (i % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        String card = payload + (10 - sum % 10) % 10;
+        return card.substring(0, 4) + " " + card.substring(4, 8) + " " + card.substring(8, 12) + " " + card.substring(12);
+    }
+    
+    private static String iban(Random random) {
+        String bban = String.format("%05d", random.nextInt(100_000)) + "0" + digits(random, 16);
+        // Country code TR as 2927 and check digits 00 moved to the end, per ISO 13616
+        int check = 98 - new BigInteger(bban + "292700").mod(BigInteger.valueOf(97)).intValue();
+        String iban = String.format("TR%02d", check) + bban;
+        
+        StringBuilder grouped = new StringBuilder(iban.length() + 6);
+        for (int i = 0; i < iban.length(); i += 4) {
+            if (i > 0) {
+                grouped.append(' ');
+            }
+            grouped.append(iban, i, Math.min(i + 4, iban.length()));
+        }
+        return grouped.toString();
+    }
+    
+    private static String digits(Random random, int length) {
+        char[] value = new char[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(value);
+    }
+    
+    private static String ascii(String name) {
+        return name.toLowerCase(new Locale("tr"))
+            .replace('ç', 'c').replace('ğ', 'g').replace('ı', 'i')
+            .replace('ö', 'o').replace('ş', 's').replace('ü', 'u');
+    }
+    
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -1,13 +1,91 @@
 package com.datamasking.tool;
 
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.service.ColumnarMaskingService;
+import com.datamasking.tool.service.CsvMaskingService;
+import com.datamasking.tool.service.FieldSpecs;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class DataMaskingToolApplication {
 
+	private static final String MASK_CSV_COMMAND = "mask-csv";
+	private static final String MASK_COLUMNAR_COMMAND = "mask-columnar";
+	private static final String DELIMITER_OPTION = "--delimiter=";
+
 	public static void main(String[] args) {
+		if (args.length > 0 && (MASK_CSV_COMMAND.equals(args[0]) || MASK_COLUMNAR_COMMAND.equals(args[0]))) {
+			System.exit(maskFile(args[0], Arrays.copyOfRange(args, 1, args.length)));
+		}
 		SpringApplication.run(DataMaskingToolApplication.class, args);
 	}
 
+	/**
+	 * Mask a file without starting the web server:
+	 * mask-csv [--delimiter=;] <input> <output> <column>=<PII type>...
+	 * mask-columnar <input> <output> <column>=<PII type>...
+	 * Other arguments starting with "--" are passed on to Spring, e.g. --spring.profiles.active=prod
+	 */
+	static int maskFile(String command, String[] args) {
+		char delimiter = ',';
+		List<String> operands = new ArrayList<>();
+		List<String> springArgs = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith(DELIMITER_OPTION) && arg.length() == DELIMITER_OPTION.length() + 1) {
+				delimiter = arg.charAt(DELIMITER_OPTION.length());
+			} else if (arg.startsWith("--")) {
+				springArgs.add(arg);
+			} else {
+				operands.add(arg);
+			}
+		}
+		if (operands.size() < 3) {
+			System.err.println("Usage: " + command + (MASK_CSV_COMMAND.equals(command) ? " [--delimiter=,]" : "")
+				+ " <input> <output> <column>=<PII type>...");
+			return 2;
+		}
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DataMaskingToolApplication.class)
+				.web(WebApplicationType.NONE)
+				.run(springArgs.toArray(String[]::new))) {
+			Path input = Path.of(operands.get(0));
+			Path output = Path.of(operands.get(1));
+			Map<String, PiiType> columns = FieldSpecs.parse(operands.subList(2, operands.size()));
+
+			long failed;
+			if (MASK_CSV_COMMAND.equals(command)) {
+				CsvMaskingService.Result result = context.getBean(CsvMaskingService.class)
+					.maskFile(input, output, columns, delimiter);
+				System.out.printf("Masked %d rows: %d values masked, %d failed%n",
+					result.rows(), result.maskedValues(), result.failedValues());
+				failed = result.failedValues();
+			} else {
+				ColumnarMaskingService.Result result = context.getBean(ColumnarMaskingService.class)
+					.maskFile(input, output, columns);
+				System.out.printf("Masked %d rows in %d row groups: %d values masked, %d failed, %d bytes copied unchanged%n",
+					result.rows(), result.rowGroups(), result.maskedValues(), result.failedValues(), result.copiedBytes());
+				failed = result.failedValues();
+			}
+			return failed > 0 ? 1 : 0;
+		} catch (IllegalArgumentException | IllegalStateException | IOException e) {
+			System.err.println(command + " failed: " + e.getMessage());
+			return 1;
+		}
+	}
+
 }
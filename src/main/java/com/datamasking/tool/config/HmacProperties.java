@@ -0,0 +1,22 @@
+package com.datamasking.tool.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Secret keys for the HMAC masking strategy
+ * Keys are Base64 encoded and addressed by ID, so rules can stay on an old key while a new one is rolled out
+ */
+@Data
+@ConfigurationProperties(prefix = "masking.hmac")
+public class HmacProperties {
+    
+    // Key ID -> Base64 encoded secret
+    private Map<String, String> keys = new LinkedHashMap<>();
+    
+    // Key used by rules and requests that do not name one
+    private String activeKeyId;
+}
@@ -0,0 +1,85 @@
+package com.datamasking.tool.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Thread pool configuration for masking jobs
+ * Jobs are coordinated on one bounded pool and their partitions are masked on a second, shared worker pool;
+ * schema discovery runs one at a time and samples tables on a pool of its own, and file masking runs its pipeline
+ * stages on another
+ */
+@Configuration
+public class MaskingJobConfig {
+    
+    @Bean
+    public ThreadPoolTaskExecutor maskingJobExecutor(
+            @Value("${masking.jobs.max-concurrent:2}") int maxConcurrent,
+            @Value("${masking.jobs.queue-capacity:100}") int queueCapacity) {
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("masking-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+    
+    @Bean
+    public ThreadPoolTaskExecutor maskingWorkerExecutor(
+            @Value("${masking.jobs.worker-threads:0}") int workerThreads) {
+        
+        // Shared by all jobs, so the total number of partitions in flight never exceeds the pool size
+        int threads = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("masking-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+    
+    @Bean
+    public ThreadPoolTaskExecutor discoveryExecutor(
+            @Value("${masking.discovery.threads:8}") int threads) {
+        
+        // Sampling waits on the database, so more threads than cores pay off
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("discovery-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+    
+    @Bean
+    public ThreadPoolTaskExecutor discoveryRunExecutor(
+            @Value("${masking.discovery.queue-capacity:10}") int queueCapacity) {
+        
+        // A single thread serializes the runs, so they never race to write the same mappings
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("discovery-run-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+    
+    @Bean
+    public ThreadPoolTaskExecutor fileMaskingExecutor(
+            @Value("${masking.files.max-concurrent:4}") int maxConcurrent) {
+        
+        // Each file runs two stages besides the caller; without a queue a busy pool rejects instead of stalling a pipeline
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2 * maxConcurrent);
+        executor.setMaxPoolSize(2 * maxConcurrent);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("file-masking-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -0,0 +1,54 @@
+package com.datamasking.tool.config;
+
+import com.datamasking.tool.service.FastRandomValueGenerator;
+import com.datamasking.tool.service.HmacHasher;
+import com.datamasking.tool.service.PseudonymDictionary;
+import com.datamasking.tool.service.RandomValueGenerator;
+import com.datamasking.tool.service.SecureRandomValueGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Random value source for the RANDOM masking strategy
+ * "fast" uses per-thread non-cryptographic generators, "secure" a striped SecureRandom pool.
+ * With consistent pseudonyms, emails keep the first random value drawn for them; names and addresses are
+ * substituted by SyntheticValueGenerator, which is deterministic without the dictionary
+ */
+@Configuration
+public class RandomValueConfig {
+    
+    @Bean
+    public RandomValueGenerator randomValueGenerator(
+            @Value("${masking.random.mode:fast}") String mode,
+            @Value("${masking.random.secure-stripes:0}") int secureStripes) {
+        
+        return switch (mode.trim().toLowerCase()) {
+            case "fast" -> new FastRandomValueGenerator();
+            case "secure" -> new SecureRandomValueGenerator(
+                secureStripes > 0 ? secureStripes : Runtime.getRuntime().availableProcessors());
+            default -> throw new IllegalStateException("Unknown masking.random.mode: " + mode);
+        };
+    }
+    
+    @Bean
+    public PseudonymDictionary pseudonymDictionary(
+            HmacHasher hmacHasher,
+            @Value("${masking.random.consistent:false}") boolean consistent,
+            @Value("${masking.random.dictionary.directory:}") String directory,
+            @Value("${masking.random.dictionary.stripes:64}") int stripes,
+            @Value("${masking.random.dictionary.initial-capacity:1000000}") long initialCapacity) throws IOException {
+        
+        if (!consistent) {
+            return PseudonymDictionary.disabled();
+        }
+        // Entries are keyed by HMAC fingerprints, so consistent pseudonyms cannot start without a key
+        hmacHasher.requireKey(null);
+        return directory.isBlank()
+            ? PseudonymDictionary.offHeap(hmacHasher, stripes, initialCapacity)
+            : PseudonymDictionary.mapped(hmacHasher, Path.of(directory.trim()), stripes, initialCapacity);
+    }
+}
@@ -1,5 +1,6 @@
 package com.datamasking.tool.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -9,8 +10,10 @@ import org.springframework.security.web.SecurityFilterChain;
 /**
  * Security configuration for the Data Masking Tool
  * Provides basic authentication and authorization
+ * Only applies to the web application, so command line runs start without the HTTP security chain
  */
 @Configuration
+@ConditionalOnWebApplication
 @EnableWebSecurity
 public class SecurityConfig {
     
@@ -0,0 +1,79 @@
+package com.datamasking.tool.controller;
+
+import com.datamasking.tool.dto.DiscoveryRequest;
+import com.datamasking.tool.model.ColumnMapping;
+import com.datamasking.tool.model.DiscoveryRun;
+import com.datamasking.tool.service.SchemaDiscoveryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * REST Controller for schema discovery
+ * Provides endpoints to find PII columns and review the resulting column mappings
+ */
+@RestController
+@RequestMapping("/api/v1/discovery")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Schema Discovery", description = "API for detecting PII columns by sampling database tables")
+public class DiscoveryController {
+    
+    private final SchemaDiscoveryService schemaDiscoveryService;
+    
+    /**
+     * Submit a schema discovery run
+     */
+    @PostMapping
+    @Operation(summary = "Discover PII columns", 
+               description = "Queue a run that samples a bounded number of rows of every matching table, classifies "
+                   + "each column and stores the detected column mappings. PII types without a rule get an inactive "
+                   + "proposed rule")
+    public ResponseEntity<DiscoveryRun> discover(
+            @Parameter(description = "Schema, table pattern and sample size")
+            @Valid @RequestBody DiscoveryRequest request,
+            Principal principal) {
+        
+        DiscoveryRun run = schemaDiscoveryService.submit(request, principal != null ? principal.getName() : null);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+    }
+    
+    /**
+     * Get discovery run status
+     */
+    @GetMapping("/runs/{id}")
+    @Operation(summary = "Get discovery run", 
+               description = "Returns status and counters of a schema discovery run")
+    public ResponseEntity<DiscoveryRun> getRun(
+            @Parameter(description = "Run ID")
+            @PathVariable Long id) {
+        
+        Optional<DiscoveryRun> run = schemaDiscoveryService.getRun(id);
+        
+        if (run.isPresent()) {
+            return ResponseEntity.ok(run.get());
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Get column mappings
+     */
+    @GetMapping("/mappings")
+    @Operation(summary = "Get column mappings", 
+               description = "Returns all column to masking rule mappings")
+    public ResponseEntity<List<ColumnMapping>> getMappings() {
+        return ResponseEntity.ok(schemaDiscoveryService.getMappings());
+    }
+}
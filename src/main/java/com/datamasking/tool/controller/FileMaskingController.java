@@ -0,0 +1,104 @@
+package com.datamasking.tool.controller;
+
+import com.datamasking.tool.service.CsvMaskingService;
+import com.datamasking.tool.service.FieldSpecs;
+import com.datamasking.tool.service.JsonDocumentMaskingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * REST Controller for masking files
+ * Request bodies are masked as they arrive and streamed back, so files of any size can be sent
+ */
+@RestController
+@RequestMapping("/api/v1/masking/files")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "File Masking", description = "API for masking CSV files and JSON documents as streams")
+public class FileMaskingController {
+    
+    private static final String CSV_VALUE = "text/csv";
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    
+    private final CsvMaskingService csvMaskingService;
+    private final JsonDocumentMaskingService jsonDocumentMaskingService;
+    
+    /**
+     * Mask a CSV file
+     */
+    @PostMapping(value = "/csv", consumes = CSV_VALUE)
+    @Operation(summary = "Mask a CSV file",
+               description = "Mask the named columns of a UTF-8 CSV file with a header row using the active rule "
+                   + "of each PII type. All other bytes are copied unchanged and the result is streamed back")
+    public void maskCsv(
+            @Parameter(description = "Columns to mask as <column>=<PII type>, e.g. email=EMAIL")
+            @RequestParam List<String> columns,
+            @Parameter(description = "Field delimiter")
+            @RequestParam(defaultValue = ",") char delimiter,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        response.setContentType(CSV_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try {
+            CsvMaskingService.Result result = csvMaskingService.mask(Channels.newChannel(request.getInputStream()),
+                Channels.newChannel(response.getOutputStream()), FieldSpecs.parse(columns), delimiter);
+            log.debug("Masked CSV stream: {} rows, {} values, {} failed",
+                result.rows(), result.maskedValues(), result.failedValues());
+        } catch (IllegalArgumentException e) {
+            reject(response, HttpStatus.BAD_REQUEST, e);
+        } catch (IllegalStateException e) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, e);
+        }
+    }
+    
+    /**
+     * Mask JSON documents
+     */
+    @PostMapping(value = "/json", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON_VALUE})
+    @Operation(summary = "Mask JSON documents",
+               description = "Mask the values at the given JSON paths of an NDJSON stream or a JSON array of documents "
+                   + "using the active rule of each PII type. Documents are copied token by token and streamed back")
+    public void maskJson(
+            @Parameter(description = "Paths to mask as <JSON path>=<PII type>, e.g. $.customer.email=EMAIL")
+            @RequestParam List<String> paths,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        String contentType = request.getContentType();
+        boolean ndjson = contentType != null && contentType.startsWith(NDJSON_VALUE);
+        response.setContentType(ndjson ? NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try {
+            JsonDocumentMaskingService.Result result = jsonDocumentMaskingService.maskDocuments(
+                request.getInputStream(), response.getOutputStream(), FieldSpecs.parse(paths));
+            log.debug("Masked JSON stream: {} documents, {} values, {} failed",
+                result.documents(), result.maskedValues(), result.failedValues());
+        } catch (IllegalArgumentException e) {
+            reject(response, HttpStatus.BAD_REQUEST, e);
+        }
+    }
+    
+    private static void reject(HttpServletResponse response, HttpStatus status, RuntimeException e) throws IOException {
+        // Once masked rows have been streamed the status can no longer change
+        if (response.isCommitted()) {
+            throw e;
+        }
+        log.warn("Rejected file masking request: {}", e.getMessage());
+        response.reset();
+        response.sendError(status.value(), e.getMessage());
+    }
+}
@@ -1,20 +1,36 @@
 package com.datamasking.tool.controller;
 
+import com.datamasking.tool.dto.ClassificationRequest;
+import com.datamasking.tool.dto.ClassificationResponse;
 import com.datamasking.tool.dto.MaskingRequest;
 import com.datamasking.tool.dto.MaskingResponse;
 import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.MaskingStrategy;
 import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.service.AuditLogger;
+import com.datamasking.tool.service.MaskingRuleCache;
 import com.datamasking.tool.service.MaskingService;
+import com.datamasking.tool.service.PiiClassifier;
+import com.datamasking.tool.service.StreamingMaskingService;
 import com.datamasking.tool.repository.MaskingRuleRepository;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,30 +46,110 @@ import java.util.Optional;
 @Tag(name = "Data Masking", description = "API for masking and anonymizing PII data")
 public class MaskingController {
     
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    
+    // Accept: application/json;profile=compact selects compact responses
+    private static final String PROFILE_PARAMETER = "profile";
+    private static final String COMPACT_PROFILE = "compact";
+    
     private final MaskingService maskingService;
+    private final StreamingMaskingService streamingMaskingService;
     private final MaskingRuleRepository maskingRuleRepository;
+    private final MaskingRuleCache maskingRuleCache;
+    private final AuditLogger auditLogger;
+    private final PiiClassifier piiClassifier;
     
     /**
      * Mask a single data value
      */
     @PostMapping("/mask")
     @Operation(summary = "Mask single data value", 
-               description = "Apply masking strategy to a single PII data value")
+               description = "Apply masking strategy to a single PII data value. "
+                   + "Without a strategy the active masking rule for the PII type is applied. "
+                   + "Set compact or send Accept: application/json;profile=compact to receive only the masked value")
     public ResponseEntity<MaskingResponse> maskData(
             @Parameter(description = "Masking request containing data and configuration")
-            @Valid @RequestBody MaskingRequest request) {
-        
-        log.info("Received masking request for PII type: {}", request.getPiiType());
+            @Valid @RequestBody MaskingRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         
+        if (isCompactProfile(accept)) {
+            request.setCompact(true);
+        }
         MaskingResponse response = maskingService.maskData(request);
         
-        if (response.getSuccess()) {
+        // Compact responses only carry the flag when masking failed
+        if (!Boolean.FALSE.equals(response.getSuccess())) {
             return ResponseEntity.ok(response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
     }
     
+    /**
+     * Mask a stream of values
+     */
+    @PostMapping(value = "/mask/stream", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON_VALUE})
+    @Operation(summary = "Mask a stream of values", 
+               description = "Mask an NDJSON stream or a JSON array of values with one configuration. "
+                   + "Masked values are streamed back in the same layout as they are produced")
+    public void maskStream(
+            @Parameter(description = "PII type of every value in the stream")
+            @RequestParam PiiType piiType,
+            @Parameter(description = "Masking strategy to apply; omit to use the active rule for the PII type")
+            @RequestParam(required = false) MaskingStrategy strategy,
+            @Parameter(description = "Replacement value for the PLACEHOLDER strategy")
+            @RequestParam(required = false) String replacementValue,
+            @Parameter(description = "HMAC key to use with the HMAC strategy; omit to use the active key")
+            @RequestParam(required = false) String keyId,
+            @RequestParam(defaultValue = "true") boolean preserveLength,
+            @RequestParam(defaultValue = "true") boolean preserveFormat,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        MaskingRequest config = MaskingRequest.builder()
+            .piiType(piiType)
+            .strategy(strategy)
+            .replacementValue(replacementValue)
+            .keyId(keyId)
+            .preserveLength(preserveLength)
+            .preserveFormat(preserveFormat)
+            .build();
+        
+        String contentType = request.getContentType();
+        boolean ndjson = contentType != null && contentType.startsWith(NDJSON_VALUE);
+        response.setContentType(ndjson ? NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        
+        try {
+            long count = streamingMaskingService.maskStream(request.getInputStream(), response.getOutputStream(), config);
+            log.debug("Streamed {} masked values of type: {}", count, piiType);
+        } catch (IllegalArgumentException e) {
+            // Once masked values have been sent the status can no longer change; the stream ends with an error
+            // element instead
+            if (response.isCommitted()) {
+                log.warn("Masked stream stopped part way: {}", e.getMessage());
+                return;
+            }
+            log.warn("Rejected stream masking request: {}", e.getMessage());
+            response.reset();
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Detect the PII type of sample values
+     */
+    @PostMapping("/classify")
+    @Operation(summary = "Classify values", 
+               description = "Detect the PII type shared by the given values, such as a sample of one column. "
+                   + "Candidates are confirmed with checksums (TC Kimlik, Luhn, IBAN) and address parsing")
+    public ResponseEntity<ClassificationResponse> classify(
+            @Parameter(description = "Values to classify")
+            @Valid @RequestBody ClassificationRequest request) {
+        
+        return ResponseEntity.ok(piiClassifier.classifySample(request.getValues()));
+    }
+    
     /**
      * Get available PII types
      */
@@ -124,9 +220,9 @@ public class MaskingController {
             @Parameter(description = "Masking rule configuration")
             @Valid @RequestBody MaskingRule rule) {
         
-        log.info("Creating masking rule for PII type: {}", rule.getPiiType());
-        
         MaskingRule savedRule = maskingRuleRepository.save(rule);
+        maskingRuleCache.refresh();
+        auditLogger.ruleCreated(savedRule);
         return ResponseEntity.ok(savedRule);
     }
     
@@ -148,8 +244,9 @@ public class MaskingController {
         
         rule.setId(id);
         MaskingRule updatedRule = maskingRuleRepository.save(rule);
+        maskingRuleCache.refresh();
+        auditLogger.ruleUpdated(updatedRule);
         
-        log.info("Updated masking rule with ID: {}", id);
         return ResponseEntity.ok(updatedRule);
     }
     
@@ -168,7 +265,8 @@ public class MaskingController {
         }
         
         maskingRuleRepository.deleteById(id);
-        log.info("Deleted masking rule with ID: {}", id);
+        maskingRuleCache.refresh();
+        auditLogger.ruleDeleted(id);
         return ResponseEntity.noContent().build();
     }
     
@@ -187,4 +285,21 @@ public class MaskingController {
         
         return ResponseEntity.ok(health);
     }
+    
+    private static boolean isCompactProfile(String accept) {
+        if (accept == null || !accept.contains(COMPACT_PROFILE)) {
+            return false;
+        }
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                String profile = mediaType.getParameter(PROFILE_PARAMETER);
+                if (profile != null && COMPACT_PROFILE.equals(StringUtils.unwrap(profile, '"'))) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            log.debug("Ignoring invalid Accept header: {}", accept);
+        }
+        return false;
+    }
 }
@@ -0,0 +1,151 @@
+package com.datamasking.tool.controller;
+
+import com.datamasking.tool.dto.MaskingJobRequest;
+import com.datamasking.tool.model.ColumnMapping;
+import com.datamasking.tool.model.MaskingJob;
+import com.datamasking.tool.model.MaskingJobPartition;
+import com.datamasking.tool.service.MaskingJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * REST Controller for table masking jobs
+ * Provides endpoints to submit, track, cancel and resume jobs
+ */
+@RestController
+@RequestMapping("/api/v1/masking/jobs")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Masking Jobs", description = "API for masking database tables asynchronously")
+public class MaskingJobController {
+    
+    private final MaskingJobService maskingJobService;
+    
+    /**
+     * Submit a masking job
+     */
+    @PostMapping
+    @Operation(summary = "Submit masking job", 
+               description = "Queue a job that copies the source table into the target table with the listed columns masked")
+    public ResponseEntity<MaskingJob> submitJob(
+            @Parameter(description = "Masking job configuration")
+            @Valid @RequestBody MaskingJobRequest request,
+            Principal principal) {
+        
+        try {
+            MaskingJob job = maskingJobService.submit(request, principal != null ? principal.getName() : null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected masking job {}: {}", request.getJobName(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Get job status
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get masking job", 
+               description = "Returns status and progress counters of a masking job")
+    public ResponseEntity<MaskingJob> getJob(
+            @Parameter(description = "Job ID")
+            @PathVariable Long id) {
+        
+        Optional<MaskingJob> job = maskingJobService.getJob(id);
+        
+        if (job.isPresent()) {
+            return ResponseEntity.ok(job.get());
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Cancel a job
+     */
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Cancel masking job", 
+               description = "Cancel a pending job or stop a running job after its current chunk")
+    public ResponseEntity<MaskingJob> cancelJob(
+            @Parameter(description = "Job ID")
+            @PathVariable Long id) {
+        
+        try {
+            Optional<MaskingJob> job = maskingJobService.cancel(id);
+            
+            if (job.isPresent()) {
+                return ResponseEntity.ok(job.get());
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    /**
+     * Resume a job
+     */
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Resume masking job", 
+               description = "Continue a failed, cancelled or interrupted job from its partition checkpoints")
+    public ResponseEntity<MaskingJob> resumeJob(
+            @Parameter(description = "Job ID")
+            @PathVariable Long id) {
+        
+        try {
+            Optional<MaskingJob> job = maskingJobService.resume(id);
+            
+            if (job.isPresent()) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.get());
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    /**
+     * Get job columns
+     */
+    @GetMapping("/{id}/columns")
+    @Operation(summary = "Get masking job columns", 
+               description = "Returns the column to masking rule mappings a job masks in one pass over the table")
+    public ResponseEntity<List<ColumnMapping>> getColumns(
+            @Parameter(description = "Job ID")
+            @PathVariable Long id) {
+        
+        if (maskingJobService.getJob(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(maskingJobService.getColumns(id));
+    }
+    
+    /**
+     * Get job partitions
+     */
+    @GetMapping("/{id}/partitions")
+    @Operation(summary = "Get masking job partitions", 
+               description = "Returns the key ranges of a job with their checkpoints")
+    public ResponseEntity<List<MaskingJobPartition>> getPartitions(
+            @Parameter(description = "Job ID")
+            @PathVariable Long id) {
+        
+        if (maskingJobService.getJob(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(maskingJobService.getPartitions(id));
+    }
+}
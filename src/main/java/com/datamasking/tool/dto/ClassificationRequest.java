@@ -0,0 +1,25 @@
+package com.datamasking.tool.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for classifying values of unknown type
+ * A single value or a sample of one column
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassificationRequest {
+    
+    @NotEmpty(message = "At least one value is required")
+    @Size(max = 10000, message = "At most 10000 values can be classified at once")
+    private List<String> values;
+}
@@ -0,0 +1,30 @@
+package com.datamasking.tool.dto;
+
+import com.datamasking.tool.model.PiiType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO for classification result
+ * Detected PII type of the sampled values, null when no type reaches the confidence threshold
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassificationResponse {
+    
+    private PiiType piiType;
+    
+    // Share of non-blank samples matching the detected or most frequent type
+    private double confidence;
+    
+    private int sampled;
+    
+    // Number of samples validated per PII type
+    private Map<PiiType, Integer> matches;
+}
@@ -0,0 +1,29 @@
+package com.datamasking.tool.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for running schema discovery
+ * Selects the tables to sample and how many rows to read from each
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscoveryRequest {
+    
+    // Schema to scan; empty scans every schema visible to the connection
+    private String schema;
+    
+    // SQL LIKE pattern of table names; defaults to all tables
+    private String tablePattern;
+    
+    @Positive(message = "Sample size must be positive")
+    @Max(value = 10000, message = "Sample size cannot exceed 10000 rows")
+    private Integer sampleSize;
+}
@@ -0,0 +1,30 @@
+package com.datamasking.tool.dto;
+
+import com.datamasking.tool.model.ColumnMapping;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for schema discovery result
+ * Contains the column mappings written by the run and its counters
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscoveryResponse {
+    
+    private int tablesSampled;
+    private int columnsSampled;
+    private int proposedRules;
+    private long durationMillis;
+    
+    // Tables that could not be sampled within the query or discovery timeout
+    private List<String> failedTables;
+    
+    private List<ColumnMapping> mappings;
+}
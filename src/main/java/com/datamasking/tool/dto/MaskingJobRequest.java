@@ -0,0 +1,51 @@
+package com.datamasking.tool.dto;
+
+import com.datamasking.tool.model.PiiType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO for submitting a table masking job
+ * Rows are copied from the source to the target table with the listed columns masked
+ * Columns are given by PII type, by rule ID, taken from the discovered mappings of the source table, or combined
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaskingJobRequest {
+    
+    @NotBlank(message = "Job name cannot be blank")
+    private String jobName;
+    
+    @NotBlank(message = "Source table is required")
+    private String sourceTable;
+    
+    @NotBlank(message = "Target table is required")
+    private String targetTable;
+    
+    // Numeric, unique column used to page through the source table; defaults to "id"
+    private String keyColumn;
+    
+    // Column name -> PII type, masked with the active rule for that type
+    private Map<String, PiiType> columns;
+    
+    // Column name -> masking rule ID, masked with that rule
+    private Map<String, Long> columnRules;
+    
+    // Also mask the columns that schema discovery mapped for the source table
+    private Boolean useDiscoveredMappings;
+    
+    @Positive(message = "Chunk size must be positive")
+    private Integer chunkSize;
+    
+    // Number of key ranges masked concurrently; defaults to 1
+    @Positive(message = "Parallelism must be positive")
+    private Integer parallelism;
+}
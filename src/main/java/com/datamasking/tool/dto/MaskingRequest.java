@@ -14,6 +14,7 @@ import java.util.Map;
 /**
  * DTO for masking request
  * Contains the data to be masked and configuration
+ * Requests without a strategy are masked with the stored rule for their PII type
  */
 @Data
 @Builder
@@ -27,7 +28,8 @@ public class MaskingRequest {
     @NotNull(message = "PII type is required")
     private PiiType piiType;
     
-    @NotNull(message = "Masking strategy is required")
+    // Leave empty to mask with the active masking rule for the PII type;
+    // the options below are then taken from the rule as well
     private MaskingStrategy strategy;
     
     private String customPattern;
@@ -35,6 +37,12 @@ public class MaskingRequest {
     private Boolean preserveLength = true;
     private Boolean preserveFormat = true;
     
+    // Secret used by the HMAC strategy; empty selects the active key
+    private String keyId;
+    
+    // Answer with the masked value only, without echoing the original data or metadata
+    private Boolean compact;
+    
     // For batch processing
     private Map<String, Object> batchData;
     private String sourceTable;
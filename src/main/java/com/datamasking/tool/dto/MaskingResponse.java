@@ -1,5 +1,6 @@
 package com.datamasking.tool.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,8 +11,9 @@ import java.util.Map;
 
 /**
  * DTO for masking response
- * Contains the masked data and metadata
+ * Contains the masked data and metadata; compact responses carry the masked data only
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,71 @@
+package com.datamasking.tool.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Entity mapping a table column to the masking rule applied to it
+ * Mappings without a job are proposed by schema discovery or maintained by hand; a job gets its own
+ * copy of the mappings it masks, so later discovery runs do not change it
+ */
+@Entity
+@Table(name = "column_mappings", indexes = {
+    @Index(name = "idx_mapping_table", columnList = "table_name"),
+    @Index(name = "idx_mapping_job", columnList = "job_id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_mapping_discovered_column", columnNames = "discovered_column")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnMapping {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Masking job the mapping belongs to; empty for discovered mappings
+    @Column(name = "job_id")
+    private Long jobId;
+    
+    // Table name, qualified with its schema when discovered in one
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+    
+    @Column(name = "column_name", nullable = false)
+    private String columnName;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "pii_type", nullable = false)
+    private PiiType piiType;
+    
+    // Rule to mask with; empty masks with the active rule of the PII type when the job runs
+    @Column(name = "rule_id")
+    private Long ruleId;
+    
+    // Share of sampled values that validated as the PII type; empty for mappings entered by hand
+    @Column(name = "confidence")
+    private Double confidence;
+    
+    @Column(name = "sampled_rows")
+    private Integer sampledRows;
+    
+    @Column(name = "discovered_at")
+    private LocalDateTime discoveredAt;
+    
+    // Lower-case table.column of mappings without a job, empty for job mappings; unique, so a column
+    // has one discovered mapping however many discoveries run at once
+    @Column(name = "discovered_column")
+    private String discoveredColumn;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        discoveredColumn = jobId == null ? (tableName + "." + columnName).toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.datamasking.tool.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entity representing a schema discovery run
+ * Runs are executed in the background; the mappings they find are stored as {@link ColumnMapping}s
+ */
+@Entity
+@Table(name = "discovery_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscoveryRun {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "schema_name")
+    private String schemaName;
+    
+    @Column(name = "table_pattern")
+    private String tablePattern;
+    
+    @Column(name = "sample_size")
+    private Integer sampleSize;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private RunStatus status = RunStatus.PENDING;
+    
+    @Column(name = "tables_sampled")
+    private Integer tablesSampled;
+    
+    @Column(name = "columns_sampled")
+    private Integer columnsSampled;
+    
+    @Column(name = "mappings_found")
+    private Integer mappingsFound;
+    
+    @Column(name = "proposed_rules")
+    private Integer proposedRules;
+    
+    // Tables that could not be sampled within the query or discovery timeout
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "discovery_run_failed_tables", joinColumns = @JoinColumn(name = "run_id"))
+    @Column(name = "table_name")
+    private List<String> failedTables = new ArrayList<>();
+    
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "created_by")
+    private String createdBy;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    public enum RunStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
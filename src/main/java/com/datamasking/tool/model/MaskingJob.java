@@ -44,6 +44,9 @@ public class MaskingJob {
     @Column(name = "failed_records")
     private Long failedRecords = 0L;
     
+    @Column(name = "parallelism")
+    private Integer parallelism = 1;
+    
     @Column(name = "configuration", columnDefinition = "TEXT")
     private String configuration; // JSON string of masking rules
     
@@ -62,6 +65,17 @@ public class MaskingJob {
     @Column(name = "created_by")
     private String createdBy;
     
+    @Column(name = "owner_node")
+    private String ownerNode; // node that queued or runs the job
+    
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+    
+    // Set by the node asked to cancel a job another node runs; only written by repository updates, so saving the
+    // job never clears a request the owner has not seen yet
+    @Column(name = "cancel_requested", nullable = false, updatable = false)
+    private boolean cancelRequested;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
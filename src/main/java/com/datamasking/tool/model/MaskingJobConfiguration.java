@@ -0,0 +1,27 @@
+package com.datamasking.tool.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Execution settings of a masking job
+ * Stored as JSON in {@link MaskingJob#getConfiguration()}; the masked columns are stored as {@link ColumnMapping}s
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaskingJobConfiguration {
+    
+    // Numeric, unique column used for keyset pagination
+    private String keyColumn;
+    
+    // Column name -> PII type of jobs submitted before columns were stored as mappings
+    private Map<String, PiiType> columns = new LinkedHashMap<>();
+    
+    // Rows read and written per round trip
+    private Integer chunkSize;
+}
@@ -0,0 +1,66 @@
+package com.datamasking.tool.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing one key range of a masking job
+ * Records the last masked key so an interrupted job can resume where it stopped
+ */
+@Entity
+@Table(name = "masking_job_partitions", indexes = @Index(name = "idx_partition_job", columnList = "job_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaskingJobPartition {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+    
+    @Column(name = "partition_index", nullable = false)
+    private Integer partitionIndex;
+    
+    // Exclusive lower bound of the key range
+    @Column(name = "lower_key", nullable = false)
+    private Long lowerKey;
+    
+    // Inclusive upper bound of the key range
+    @Column(name = "upper_key", nullable = false)
+    private Long upperKey;
+    
+    // Last key written to the target table; equals lowerKey until the first chunk is committed
+    @Column(name = "last_key", nullable = false)
+    private Long lastKey;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private PartitionStatus status = PartitionStatus.PENDING;
+    
+    @Column(name = "processed_records")
+    private Long processedRecords = 0L;
+    
+    @Column(name = "failed_records")
+    private Long failedRecords = 0L;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public enum PartitionStatus {
+        PENDING,
+        COMPLETED
+    }
+}
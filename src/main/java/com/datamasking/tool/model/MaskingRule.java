@@ -42,6 +42,10 @@ public class MaskingRule {
     @Column(name = "preserve_format")
     private Boolean preserveFormat = true;
     
+    // Secret used by the HMAC strategy; empty selects the active key
+    @Column(name = "key_id")
+    private String keyId;
+    
     @Column(name = "is_active")
     private Boolean isActive = true;
     
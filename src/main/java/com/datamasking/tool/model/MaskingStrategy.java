@@ -45,5 +45,12 @@ public enum MaskingStrategy {
      * Format-preserving encryption
      * Example: john.doe@email.com -> kpzq.efg@email.com
      */
-    FORMAT_PRESERVING
+    FORMAT_PRESERVING,
+    
+    /**
+     * Keyed hash (HMAC-SHA256) with a configured secret
+     * Deterministic per key, so masked values stay joinable, but not reversible by dictionary lookup
+     * Example: 12345678901 -> 5d41402abc4b2a76b9719d911017c592...
+     */
+    HMAC
 }
@@ -0,0 +1,25 @@
+package com.datamasking.tool.repository;
+
+import com.datamasking.tool.model.ColumnMapping;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for ColumnMapping entity
+ * Provides access to the column to masking rule mappings
+ */
+@Repository
+public interface ColumnMappingRepository extends JpaRepository<ColumnMapping, Long> {
+    
+    /**
+     * Find the mappings that do not belong to a job, ordered by table and column
+     */
+    List<ColumnMapping> findByJobIdIsNullOrderByTableNameAscColumnNameAsc();
+    
+    /**
+     * Find the mappings of a job in the order they were added
+     */
+    List<ColumnMapping> findByJobIdOrderById(Long jobId);
+}
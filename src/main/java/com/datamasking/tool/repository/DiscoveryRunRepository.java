@@ -0,0 +1,31 @@
+package com.datamasking.tool.repository;
+
+import com.datamasking.tool.model.DiscoveryRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for DiscoveryRun entity
+ * Provides data access methods for schema discovery run tracking
+ */
+@Repository
+public interface DiscoveryRunRepository extends JpaRepository<DiscoveryRun, Long> {
+    
+    /**
+     * Fail a run that has been running since before the given time, as its node stopped while running it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE DiscoveryRun r SET r.status = 'FAILED', r.errorMessage = :message, r.completedAt = :now "
+        + "WHERE r.id = :id AND r.status = 'RUNNING' AND r.startedAt < :startedBefore")
+    int failAbandoned(@Param("id") Long id,
+                      @Param("startedBefore") LocalDateTime startedBefore,
+                      @Param("message") String message,
+                      @Param("now") LocalDateTime now);
+}
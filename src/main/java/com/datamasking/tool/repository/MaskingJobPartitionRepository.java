@@ -0,0 +1,45 @@
+package com.datamasking.tool.repository;
+
+import com.datamasking.tool.model.MaskingJobPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository for MaskingJobPartition entity
+ * Provides access to the per-partition checkpoints of masking jobs
+ */
+@Repository
+public interface MaskingJobPartitionRepository extends JpaRepository<MaskingJobPartition, Long> {
+    
+    /**
+     * Find the partitions of a job in key order
+     */
+    List<MaskingJobPartition> findByJobIdOrderByPartitionIndex(Long jobId);
+    
+    /**
+     * Record the last key written for a partition together with its counters
+     * Runs in the caller's transaction, so the checkpoint commits atomically with the written chunk
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MaskingJobPartition p SET p.lastKey = :lastKey, p.processedRecords = :processed, "
+        + "p.failedRecords = :failed, p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int updateCheckpoint(@Param("id") Long id, 
+                         @Param("lastKey") Long lastKey, 
+                         @Param("processed") Long processed, 
+                         @Param("failed") Long failed);
+    
+    /**
+     * Mark a partition as fully masked
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MaskingJobPartition p SET p.status = 'COMPLETED', p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int markCompleted(@Param("id") Long id);
+}
@@ -2,11 +2,14 @@ package com.datamasking.tool.repository;
 
 import com.datamasking.tool.model.MaskingJob;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -54,4 +57,74 @@ public interface MaskingJobRepository extends JpaRepository<MaskingJob, Long> {
      */
     @Query("SELECT COUNT(j) FROM MaskingJob j WHERE j.status = :status")
     Long countByStatus(@Param("status") MaskingJob.JobStatus status);
+    
+    /**
+     * Update progress counters without touching the rest of the job
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MaskingJob j SET j.processedRecords = :processed, j.failedRecords = :failed WHERE j.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("processed") Long processed, @Param("failed") Long failed);
+    
+    /**
+     * Change the status of a job only if it is still in the expected status
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MaskingJob j SET j.status = :status WHERE j.id = :id AND j.status = :expected")
+    int updateStatus(@Param("id") Long id, 
+                     @Param("expected") MaskingJob.JobStatus expected, 
+                     @Param("status") MaskingJob.JobStatus status);
+    
+    /**
+     * Change the status of a job still in the expected status and make a node its owner, dropping any earlier
+     * cancel request
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MaskingJob j SET j.status = :status, j.ownerNode = :owner, j.heartbeatAt = :now, "
+        + "j.cancelRequested = false WHERE j.id = :id AND j.status = :expected")
+    int updateStatus(@Param("id") Long id,
+                     @Param("expected") MaskingJob.JobStatus expected,
+                     @Param("status") MaskingJob.JobStatus status,
+                     @Param("owner") String owner,
+                     @Param("now") LocalDateTime now);
+    
+    /**
+     * Refresh the heartbeat of jobs still owned by a node
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MaskingJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.ownerNode = :owner")
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("now") LocalDateTime now);
+    
+    /**
+     * Record a cancel request for the node running a job, unless the job has already finished
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MaskingJob j SET j.cancelRequested = true WHERE j.id = :id AND j.status IN ('PENDING', 'RUNNING')")
+    int requestCancel(@Param("id") Long id);
+    
+    /**
+     * Find which of the given jobs were asked to cancel
+     */
+    @Query("SELECT j.id FROM MaskingJob j WHERE j.id IN :ids AND j.cancelRequested = true")
+    List<Long> findCancelRequested(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Take over a job whose owner stopped sending heartbeats, or that this node owned before it restarted
+     * Only one node can claim a job, as the claim also refreshes the heartbeat
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MaskingJob j SET j.ownerNode = :owner, j.heartbeatAt = :now "
+        + "WHERE j.id = :id AND j.status = :status AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore "
+        + "OR (j.ownerNode = :owner AND j.heartbeatAt < :startedAt))")
+    int claim(@Param("id") Long id,
+              @Param("status") MaskingJob.JobStatus status,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore,
+              @Param("startedAt") LocalDateTime startedAt);
 }
@@ -0,0 +1,64 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.MaskingJob;
+import com.datamasking.tool.model.MaskingRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Audit trail of changes to masking rules and jobs
+ * Events go to the dedicated "audit" logger, which the production logging profile writes to its own buffered file
+ */
+@Service
+public class AuditLogger {
+    
+    private static final Logger AUDIT = LoggerFactory.getLogger("audit");
+    
+    // Actor of events raised outside a request, such as jobs finishing on a worker thread
+    private static final String SYSTEM_USER = "system";
+    
+    public void ruleCreated(MaskingRule rule) {
+        AUDIT.info("event=RULE_CREATED user={} ruleId={} piiType={} strategy={}",
+            currentUser(), rule.getId(), rule.getPiiType(), rule.getStrategy());
+    }
+    
+    public void ruleUpdated(MaskingRule rule) {
+        AUDIT.info("event=RULE_UPDATED user={} ruleId={} piiType={} strategy={} active={}",
+            currentUser(), rule.getId(), rule.getPiiType(), rule.getStrategy(), rule.getIsActive());
+    }
+    
+    public void ruleDeleted(Long id) {
+        AUDIT.info("event=RULE_DELETED user={} ruleId={}", currentUser(), id);
+    }
+    
+    public void jobSubmitted(MaskingJob job) {
+        AUDIT.info("event=JOB_SUBMITTED user={} jobId={} name={} source={} target={}",
+            currentUser(), job.getId(), job.getJobName(), job.getSourceTable(), job.getTargetTable());
+    }
+    
+    public void jobCancelled(Long id) {
+        AUDIT.info("event=JOB_CANCELLED user={} jobId={}", currentUser(), id);
+    }
+    
+    public void jobResumed(Long id) {
+        AUDIT.info("event=JOB_RESUMED user={} jobId={}", currentUser(), id);
+    }
+    
+    public void jobFinished(MaskingJob job) {
+        AUDIT.info("event=JOB_FINISHED user={} jobId={} status={} processed={} failed={}",
+            currentUser(), job.getId(), job.getStatus(), job.getProcessedRecords(), job.getFailedRecords());
+    }
+    
+    public void discoveryFinished(String schema, int tables, int mappings) {
+        AUDIT.info("event=DISCOVERY_FINISHED user={} schema={} tables={} mappings={}",
+            currentUser(), schema, tables, mappings);
+    }
+    
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : SYSTEM_USER;
+    }
+}
@@ -0,0 +1,231 @@
+package com.datamasking.tool.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Layout of the columnar extract files masked by {@link ColumnarMaskingService}
+ * Modelled on Parquet: the file holds row groups, each with one contiguous chunk per column, and a footer at the
+ * end locates every chunk, so a reader can jump to the columns it needs.
+ * <pre>
+ * "DMC1" | column chunks | footer | footer length (int) | "DMC1"
+ * footer:  column count (int), column names (UTF), row group count (int),
+ *          per row group: row count (int), then offset (long) and length (long) of each column chunk
+ * chunk:   per value, byte length (int, -1 for null) followed by the UTF-8 bytes
+ * </pre>
+ */
+public final class ColumnarFile {
+    
+    static final byte[] MAGIC = "DMC1".getBytes(StandardCharsets.US_ASCII);
+    
+    // Footer length and trailing magic
+    private static final int TAIL_LENGTH = Integer.BYTES + 4;
+    
+    // Offset and length of one column chunk in the footer
+    private static final int CHUNK_ENTRY_LENGTH = 2 * Long.BYTES;
+    
+    private ColumnarFile() {
+    }
+    
+    /**
+     * Column names and chunk locations of a file
+     */
+    public record Footer(List<String> columns, List<RowGroup> rowGroups) {
+        
+        public long rows() {
+            return rowGroups.stream().mapToLong(RowGroup::rows).sum();
+        }
+    }
+    
+    /**
+     * Rows of one group and the position of each of its column chunks, indexed like the columns
+     */
+    public record RowGroup(int rows, long[] offsets, long[] lengths) {
+    }
+    
+    /**
+     * Read the footer at the end of a file
+     *
+     * @throws IllegalArgumentException if the file is not a columnar extract or its footer is corrupt
+     */
+    public static Footer readFooter(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < MAGIC.length + TAIL_LENGTH) {
+            throw new IllegalArgumentException("File is too short to be a columnar extract");
+        }
+        ByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, size - TAIL_LENGTH, TAIL_LENGTH);
+        int footerLength = tail.getInt();
+        byte[] magic = new byte[4];
+        tail.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || footerLength < 0 || footerLength > size - MAGIC.length - TAIL_LENGTH) {
+            throw new IllegalArgumentException("File is not a columnar extract");
+        }
+        
+        ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - TAIL_LENGTH - footerLength, footerLength);
+        try {
+            return readFooter(footer, size);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Columnar footer is truncated");
+        }
+    }
+    
+    private static Footer readFooter(ByteBuffer footer, long size) {
+        // Counts are checked against the bytes left, so a corrupt footer cannot size a huge allocation
+        int columnCount = footer.getInt();
+        if (columnCount <= 0 || columnCount > footer.remaining() / Short.BYTES) {
+            throw new IllegalArgumentException("Corrupt columnar footer: " + columnCount + " columns");
+        }
+        List<String> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            byte[] name = new byte[Short.toUnsignedInt(footer.getShort())];
+            footer.get(name);
+            columns.add(new String(name, StandardCharsets.UTF_8));
+        }
+        int groupCount = footer.getInt();
+        long groupLength = Integer.BYTES + (long) columnCount * CHUNK_ENTRY_LENGTH;
+        if (groupCount < 0 || groupCount > footer.remaining() / groupLength) {
+            throw new IllegalArgumentException("Corrupt columnar footer: " + groupCount + " row groups");
+        }
+        List<RowGroup> groups = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            int rows = footer.getInt();
+            if (rows < 0) {
+                throw new IllegalArgumentException("Corrupt columnar footer: " + rows + " rows in a row group");
+            }
+            long[] offsets = new long[columnCount];
+            long[] lengths = new long[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                offsets[c] = footer.getLong();
+                lengths[c] = footer.getLong();
+                if (offsets[c] < MAGIC.length || lengths[c] < 0 || lengths[c] > size - offsets[c]) {
+                    throw new IllegalArgumentException("Column chunk out of bounds: " + columns.get(c));
+                }
+            }
+            groups.add(new RowGroup(rows, offsets, lengths));
+        }
+        return new Footer(columns, groups);
+    }
+    
+    /**
+     * Write the footer and the closing magic at the current position
+     */
+    public static void writeFooter(WritableByteChannel channel, Footer footer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(footer.columns().size());
+        for (String column : footer.columns()) {
+            byte[] name = column.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(name.length);
+            out.write(name);
+        }
+        out.writeInt(footer.rowGroups().size());
+        for (RowGroup group : footer.rowGroups()) {
+            out.writeInt(group.rows());
+            for (int c = 0; c < footer.columns().size(); c++) {
+                out.writeLong(group.offsets()[c]);
+                out.writeLong(group.lengths()[c]);
+            }
+        }
+        out.writeInt(bytes.size());
+        out.write(MAGIC);
+        writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()));
+    }
+    
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    /**
+     * Writer of columnar files, buffering one row group of values per column in memory
+     */
+    public static final class Writer implements Closeable {
+        
+        private final FileChannel channel;
+        private final List<String> columns;
+        private final int rowGroupSize;
+        private final ByteArrayOutputStream[] chunks;
+        private final List<RowGroup> groups = new ArrayList<>();
+        private int rows;
+        
+        public Writer(Path path, List<String> columns, int rowGroupSize) throws IOException {
+            if (columns.isEmpty() || rowGroupSize <= 0) {
+                throw new IllegalArgumentException("At least one column and a positive row group size are required");
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            this.columns = List.copyOf(columns);
+            this.rowGroupSize = rowGroupSize;
+            this.chunks = new ByteArrayOutputStream[columns.size()];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = new ByteArrayOutputStream();
+            }
+            writeFully(channel, ByteBuffer.wrap(MAGIC));
+        }
+        
+        public void writeRow(String... values) throws IOException {
+            if (values.length != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " values, got " + values.length);
+            }
+            for (int i = 0; i < values.length; i++) {
+                writeValue(chunks[i], values[i]);
+            }
+            if (++rows == rowGroupSize) {
+                flushRowGroup();
+            }
+        }
+        
+        private void flushRowGroup() throws IOException {
+            long[] offsets = new long[chunks.length];
+            long[] lengths = new long[chunks.length];
+            for (int i = 0; i < chunks.length; i++) {
+                offsets[i] = channel.position();
+                lengths[i] = chunks[i].size();
+                writeFully(channel, ByteBuffer.wrap(chunks[i].toByteArray()));
+                chunks[i].reset();
+            }
+            groups.add(new RowGroup(rows, offsets, lengths));
+            rows = 0;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                if (rows > 0) {
+                    flushRowGroup();
+                }
+                writeFooter(channel, new Footer(columns, groups));
+            }
+        }
+        
+        private static void writeValue(ByteArrayOutputStream chunk, String value) {
+            if (value == null) {
+                writeInt(chunk, -1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(chunk, bytes.length);
+            chunk.writeBytes(bytes);
+        }
+        
+        private static void writeInt(ByteArrayOutputStream chunk, int value) {
+            chunk.write(value >>> 24);
+            chunk.write(value >>> 16);
+            chunk.write(value >>> 8);
+            chunk.write(value);
+        }
+    }
+}
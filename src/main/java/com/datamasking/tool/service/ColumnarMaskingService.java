@@ -0,0 +1,208 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service for masking columnar extract files
+ * Works chunk by chunk from the footer: column chunks without a mapping are copied byte for byte with
+ * {@link FileChannel#transferTo}, and only the chunks of mapped columns are memory-mapped, decoded, masked and
+ * re-encoded. The work therefore grows with the size of the PII columns, not of the whole file
+ *
+ * @see ColumnarFile
+ */
+@Service
+@Slf4j
+public class ColumnarMaskingService {
+    
+    // Size of the buffer that re-encoded values are collected in before each write
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+    
+    private final MaskingService maskingService;
+    
+    public ColumnarMaskingService(MaskingService maskingService) {
+        this.maskingService = maskingService;
+    }
+    
+    /**
+     * Mask the named columns of a columnar file into a new file with the active rules of their PII types
+     *
+     * @throws IllegalArgumentException if the input is not a columnar extract or is corrupt, the output is the input
+     *                                  file, a column is missing or a type has no active rule
+     */
+    public Result maskFile(Path input, Path output, Map<String, PiiType> columns) throws IOException {
+        // Opening the output truncates it, which would destroy the input before it is read
+        if (Files.exists(output) && Files.isSameFile(input, output)) {
+            throw new IllegalArgumentException("Output must be a different file than the input: " + output);
+        }
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                 StandardOpenOption.TRUNCATE_EXISTING)) {
+            
+            ColumnarFile.Footer footer = ColumnarFile.readFooter(in);
+            MaskingPlan[] plans = resolvePlans(footer.columns(), columns);
+            ChunkEncoder encoder = new ChunkEncoder(out);
+            long copiedBytes = 0;
+            
+            ColumnarFile.writeFully(out, ByteBuffer.wrap(ColumnarFile.MAGIC));
+            List<ColumnarFile.RowGroup> groups = new ArrayList<>(footer.rowGroups().size());
+            for (ColumnarFile.RowGroup group : footer.rowGroups()) {
+                long[] offsets = new long[plans.length];
+                long[] lengths = new long[plans.length];
+                for (int c = 0; c < plans.length; c++) {
+                    offsets[c] = out.position();
+                    if (plans[c] == null) {
+                        transfer(in, group.offsets()[c], group.lengths()[c], out);
+                        copiedBytes += group.lengths()[c];
+                    } else {
+                        maskChunk(in, group.offsets()[c], group.lengths()[c], group.rows(), plans[c], encoder);
+                    }
+                    lengths[c] = out.position() - offsets[c];
+                }
+                groups.add(new ColumnarFile.RowGroup(group.rows(), offsets, lengths));
+            }
+            ColumnarFile.writeFooter(out, new ColumnarFile.Footer(footer.columns(), groups));
+            
+            return new Result(footer.rows(), groups.size(), columns.size(), copiedBytes,
+                encoder.maskedValues, encoder.failedValues);
+        }
+    }
+    
+    private MaskingPlan[] resolvePlans(List<String> fileColumns, Map<String, PiiType> columns) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < fileColumns.size(); i++) {
+            indexes.putIfAbsent(fileColumns.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        MaskingPlan[] plans = new MaskingPlan[fileColumns.size()];
+        columns.forEach((column, type) -> {
+            Integer index = indexes.get(column.toLowerCase(Locale.ROOT));
+            if (index == null) {
+                throw new IllegalArgumentException("Column not found in columnar file: " + column);
+            }
+            plans[index] = maskingService.getRulePlan(type);
+        });
+        return plans;
+    }
+    
+    private static void transfer(FileChannel in, long offset, long length, FileChannel out) throws IOException {
+        long done = 0;
+        while (done < length) {
+            long transferred = in.transferTo(offset + done, length - done, out);
+            if (transferred <= 0) {
+                throw new IOException("Columnar file ended inside a column chunk");
+            }
+            done += transferred;
+        }
+    }
+    
+    /**
+     * Decode the values of one mapped chunk, mask them and append the re-encoded chunk to the output
+     */
+    private static void maskChunk(FileChannel in, long offset, long length, int rows, MaskingPlan plan,
+                                  ChunkEncoder encoder) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Column chunk too large to map: " + length + " bytes");
+        }
+        MappedByteBuffer chunk = in.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        byte[] scratch = new byte[256];
+        for (int r = 0; r < rows; r++) {
+            if (chunk.remaining() < Integer.BYTES) {
+                throw new IllegalArgumentException("Corrupt column chunk at offset " + offset);
+            }
+            int valueLength = chunk.getInt();
+            if (valueLength < 0) {
+                encoder.writeNull();
+                continue;
+            }
+            if (valueLength > chunk.remaining()) {
+                throw new IllegalArgumentException("Corrupt column chunk at offset " + offset);
+            }
+            if (valueLength > scratch.length) {
+                scratch = new byte[Math.max(valueLength, scratch.length * 2)];
+            }
+            chunk.get(scratch, 0, valueLength);
+            encoder.writeMasked(new String(scratch, 0, valueLength, StandardCharsets.UTF_8), plan);
+        }
+        encoder.flush();
+    }
+    
+    /**
+     * Counters of a masked file
+     */
+    public record Result(long rows, int rowGroups, int maskedColumns, long copiedBytes,
+                         long maskedValues, long failedValues) {
+    }
+    
+    /**
+     * Buffered writer of length-prefixed values
+     */
+    private static final class ChunkEncoder {
+        
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        private long maskedValues;
+        private long failedValues;
+        
+        private ChunkEncoder(FileChannel out) {
+            this.out = out;
+        }
+        
+        private void writeMasked(String value, MaskingPlan plan) throws IOException {
+            String masked;
+            try {
+                masked = plan.mask(value);
+                maskedValues++;
+            } catch (RuntimeException e) {
+                log.debug("Error masking columnar value: {}", e.getMessage());
+                failedValues++;
+                masked = null;
+            }
+            if (masked == null) {
+                writeNull();
+                return;
+            }
+            byte[] bytes = masked.getBytes(StandardCharsets.UTF_8);
+            ensureRoom(Integer.BYTES);
+            buffer.putInt(bytes.length);
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ColumnarFile.writeFully(out, ByteBuffer.wrap(bytes));
+            } else {
+                ensureRoom(bytes.length);
+                buffer.put(bytes);
+            }
+        }
+        
+        private void writeNull() throws IOException {
+            ensureRoom(Integer.BYTES);
+            buffer.putInt(-1);
+        }
+        
+        private void ensureRoom(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+        
+        private void flush() throws IOException {
+            buffer.flip();
+            ColumnarFile.writeFully(out, buffer);
+            buffer.clear();
+        }
+    }
+}
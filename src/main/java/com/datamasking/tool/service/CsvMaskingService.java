@@ -0,0 +1,494 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+
+/**
+ * Service for masking CSV files with a header row
+ * Runs as three pipelined stages: a parser that reads the input channel in fixed-size chunks and finds field
+ * boundaries on the raw bytes, a masker that decodes and rewrites only the mapped columns, and a writer on the
+ * calling thread. Stages exchange whole chunks over bounded queues, so memory use does not depend on file size
+ * and unmasked fields are copied without ever being decoded
+ */
+@Service
+@Slf4j
+public class CsvMaskingService {
+    
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    
+    // A record must fit in one chunk; chunks grow up to this size for very long records
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    
+    private final MaskingService maskingService;
+    private final ThreadPoolTaskExecutor fileMaskingExecutor;
+    private final int chunkSize;
+    private final int queueDepth;
+    
+    public CsvMaskingService(MaskingService maskingService,
+                             @Qualifier("fileMaskingExecutor") ThreadPoolTaskExecutor fileMaskingExecutor,
+                             @Value("${masking.files.chunk-size:1MB}") DataSize chunkSize,
+                             @Value("${masking.files.queue-depth:4}") int queueDepth) {
+        this.maskingService = maskingService;
+        this.fileMaskingExecutor = fileMaskingExecutor;
+        this.chunkSize = (int) Math.min(MAX_RECORD_BYTES, Math.max(1, chunkSize.toBytes()));
+        this.queueDepth = Math.max(1, queueDepth);
+    }
+    
+    /**
+     * Mask a CSV file into a new file
+     *
+     * @throws IllegalArgumentException if the output is the input file
+     */
+    public Result maskFile(Path input, Path output, Map<String, PiiType> columns, char delimiter) throws IOException {
+        // Opening the output truncates it, which would destroy the input before it is read
+        if (Files.exists(output) && Files.isSameFile(input, output)) {
+            throw new IllegalArgumentException("Output must be a different file than the input: " + output);
+        }
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                 StandardOpenOption.TRUNCATE_EXISTING)) {
+            return mask(in, out, columns, delimiter);
+        }
+    }
+    
+    /**
+     * Mask the named columns of a UTF-8 CSV stream with the active rules of their PII types
+     * The header row and all other bytes are copied unchanged, including quoting and line endings
+     *
+     * @throws IllegalArgumentException if a column is not in the header, a type has no active rule or a record is too long
+     * @throws IllegalStateException if too many files are being masked at once
+     */
+    public Result mask(ReadableByteChannel input, WritableByteChannel output, Map<String, PiiType> columns,
+                       char delimiter) throws IOException {
+        if (delimiter == '"' || delimiter == '\r' || delimiter == '\n' || delimiter > 0x7F) {
+            throw new IllegalArgumentException("Delimiter must be a single ASCII character: " + delimiter);
+        }
+        byte separator = (byte) delimiter;
+        
+        // Resolve plans up front so a missing rule fails before any output is written
+        Map<String, MaskingPlan> plans = new HashMap<>();
+        columns.forEach((column, type) -> plans.put(column.toLowerCase(Locale.ROOT), maskingService.getRulePlan(type)));
+        
+        BlockingQueue<Chunk> parsed = new ArrayBlockingQueue<>(queueDepth);
+        BlockingQueue<Chunk> masked = new ArrayBlockingQueue<>(queueDepth);
+        MaskStage maskStage = new MaskStage(plans, separator);
+        
+        Future<?> parser = null;
+        Future<?> masker = null;
+        try {
+            parser = fileMaskingExecutor.submit(() -> runStage(parsed, () -> parse(input, separator, parsed)));
+            masker = fileMaskingExecutor.submit(() -> runStage(masked, () -> maskStage.run(parsed, masked)));
+            
+            while (true) {
+                Chunk chunk = masked.take();
+                if (chunk == Chunk.END) {
+                    break;
+                }
+                if (chunk.failure != null) {
+                    throw rethrow(chunk.failure);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(chunk.data, 0, chunk.length);
+                while (buffer.hasRemaining()) {
+                    output.write(buffer);
+                }
+            }
+            return new Result(maskStage.rows, maskStage.maskedValues, maskStage.failedValues);
+        
+        } catch (TaskRejectedException e) {
+            throw new IllegalStateException("Too many files are being masked, try again later", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("CSV masking was interrupted");
+        } finally {
+            // Stops upstream stages blocked on a full queue when the writer fails
+            if (parser != null) {
+                parser.cancel(true);
+            }
+            if (masker != null) {
+                masker.cancel(true);
+            }
+        }
+    }
+    
+    /**
+     * Run a stage, handing its failure to the next stage instead of losing it on the worker thread
+     */
+    private static void runStage(BlockingQueue<Chunk> output, Stage stage) {
+        try {
+            stage.run();
+            output.put(Chunk.END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            try {
+                output.put(Chunk.failed(t));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private static RuntimeException rethrow(Throwable failure) throws IOException {
+        if (failure instanceof IOException e) {
+            throw e;
+        }
+        if (failure instanceof RuntimeException e) {
+            return e;
+        }
+        if (failure instanceof Error e) {
+            throw e;
+        }
+        return new IllegalStateException("CSV masking failed: " + failure.getMessage(), failure);
+    }
+    
+    /**
+     * Parser stage: fill a chunk from the channel and hand over the complete records in it
+     * The incomplete record at the end is carried over into the next chunk
+     */
+    private void parse(ReadableByteChannel input, byte separator, BlockingQueue<Chunk> parsed)
+            throws IOException, InterruptedException {
+        byte[] buffer = new byte[chunkSize];
+        int limit = 0;
+        boolean eof = false;
+        
+        while (!eof) {
+            if (limit == buffer.length) {
+                if (buffer.length >= MAX_RECORD_BYTES) {
+                    throw new IllegalArgumentException("CSV record exceeds " + MAX_RECORD_BYTES + " bytes");
+                }
+                buffer = Arrays.copyOf(buffer, Math.min(MAX_RECORD_BYTES, buffer.length * 2));
+            }
+            while (limit < buffer.length) {
+                int read = input.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+                if (read < 0) {
+                    eof = true;
+                    break;
+                }
+                limit += read;
+            }
+            
+            Chunk chunk = scan(buffer, limit, eof, separator);
+            if (chunk.records == 0) {
+                // Nothing complete yet; the buffer is full and grows on the next round
+                continue;
+            }
+            parsed.put(chunk);
+            
+            int carry = limit - chunk.length;
+            byte[] next = new byte[carry < chunkSize ? chunkSize : buffer.length];
+            System.arraycopy(buffer, chunk.length, next, 0, carry);
+            buffer = next;
+            limit = carry;
+        }
+    }
+    
+    /**
+     * Find the fields of every complete record in the buffer
+     * Quotes toggle the quoted state, which also handles doubled quotes inside quoted fields
+     */
+    private static Chunk scan(byte[] buffer, int limit, boolean eof, byte separator) {
+        Chunk chunk = new Chunk(buffer);
+        int recordStart = 0;
+        while (recordStart < limit) {
+            int fieldsBefore = chunk.fields;
+            int fieldStart = recordStart;
+            int recordEnd = -1;
+            boolean quoted = false;
+            for (int pos = recordStart; pos < limit; pos++) {
+                byte b = buffer[pos];
+                if (b == QUOTE) {
+                    quoted = !quoted;
+                } else if (!quoted && b == separator) {
+                    chunk.addField(fieldStart, pos);
+                    fieldStart = pos + 1;
+                } else if (!quoted && b == LF) {
+                    chunk.addField(fieldStart, pos > fieldStart && buffer[pos - 1] == CR ? pos - 1 : pos);
+                    recordEnd = pos + 1;
+                    break;
+                }
+            }
+            if (recordEnd < 0) {
+                if (!eof) {
+                    chunk.fields = fieldsBefore;
+                    break;
+                }
+                // Last record without a line ending
+                chunk.addField(fieldStart, limit);
+                recordEnd = limit;
+            }
+            chunk.addRecord(recordEnd);
+            recordStart = recordEnd;
+        }
+        chunk.length = recordStart;
+        return chunk;
+    }
+    
+    /**
+     * Masker stage: copy each record byte for byte up to every masked field, and rewrite only that field
+     * Counters are written by this stage alone and read after it has handed over its last chunk
+     */
+    private static final class MaskStage {
+        
+        private final Map<String, MaskingPlan> plans;
+        private final byte separator;
+        
+        // Masked column indexes in ascending order and their plans, resolved from the header row
+        private int[] maskedColumns;
+        private MaskingPlan[] columnPlans;
+        
+        private long rows;
+        private long maskedValues;
+        private long failedValues;
+        
+        private MaskStage(Map<String, MaskingPlan> plans, byte separator) {
+            this.plans = plans;
+            this.separator = separator;
+        }
+        
+        private void run(BlockingQueue<Chunk> parsed, BlockingQueue<Chunk> masked) throws InterruptedException {
+            while (true) {
+                Chunk chunk = parsed.take();
+                if (chunk == Chunk.END) {
+                    return;
+                }
+                if (chunk.failure != null) {
+                    throw new StageFailure(chunk.failure);
+                }
+                masked.put(mask(chunk));
+            }
+        }
+        
+        private Chunk mask(Chunk chunk) {
+            ByteSink out = new ByteSink(chunk.length + chunk.length / 8 + 16);
+            byte[] data = chunk.data;
+            int recordStart = 0;
+            int firstField = 0;
+            for (int r = 0; r < chunk.records; r++) {
+                int recordEnd = chunk.recordEnds[r];
+                int fieldCount = chunk.recordFieldEnds[r] - firstField;
+                if (maskedColumns == null) {
+                    resolveHeader(chunk, firstField, fieldCount);
+                    out.write(data, recordStart, recordEnd - recordStart);
+                } else {
+                    int copied = recordStart;
+                    for (int i = 0; i < maskedColumns.length && maskedColumns[i] < fieldCount; i++) {
+                        int field = firstField + maskedColumns[i];
+                        int start = chunk.fieldStarts[field];
+                        int end = chunk.fieldEnds[field];
+                        out.write(data, copied, start - copied);
+                        writeMasked(out, data, start, end, columnPlans[i]);
+                        copied = end;
+                    }
+                    out.write(data, copied, recordEnd - copied);
+                    rows++;
+                }
+                recordStart = recordEnd;
+                firstField = chunk.recordFieldEnds[r];
+            }
+            return Chunk.bytes(out.bytes, out.size);
+        }
+        
+        private void resolveHeader(Chunk chunk, int firstField, int fieldCount) {
+            Map<String, MaskingPlan> remaining = new HashMap<>(plans);
+            int[] indexes = new int[plans.size()];
+            MaskingPlan[] resolved = new MaskingPlan[plans.size()];
+            int count = 0;
+            for (int i = 0; i < fieldCount; i++) {
+                int field = firstField + i;
+                String name = decode(chunk.data, chunk.fieldStarts[field], chunk.fieldEnds[field]).trim();
+                // Spreadsheet exports prefix the first header with a byte order mark
+                if (i == 0 && !name.isEmpty() && name.charAt(0) == '\uFEFF') {
+                    name = name.substring(1);
+                }
+                MaskingPlan plan = remaining.remove(name.toLowerCase(Locale.ROOT));
+                if (plan != null) {
+                    indexes[count] = i;
+                    resolved[count++] = plan;
+                }
+            }
+            if (!remaining.isEmpty()) {
+                throw new IllegalArgumentException("Columns not found in CSV header: " + remaining.keySet());
+            }
+            maskedColumns = indexes;
+            columnPlans = resolved;
+        }
+        
+        private void writeMasked(ByteSink out, byte[] data, int start, int end, MaskingPlan plan) {
+            if (start == end) {
+                return;
+            }
+            boolean quoted = end - start >= 2 && data[start] == QUOTE && data[end - 1] == QUOTE;
+            String masked;
+            try {
+                masked = plan.mask(decode(data, start, end));
+                maskedValues++;
+            } catch (RuntimeException e) {
+                log.debug("Error masking CSV field: {}", e.getMessage());
+                failedValues++;
+                return;
+            }
+            if (masked == null) {
+                return;
+            }
+            if (quoted || needsQuotes(masked)) {
+                out.write(QUOTE);
+                out.write(masked.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8));
+                out.write(QUOTE);
+            } else {
+                out.write(masked.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        
+        private boolean needsQuotes(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == separator || c == '"' || c == '\r' || c == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private static String decode(byte[] data, int start, int end) {
+            if (end - start >= 2 && data[start] == QUOTE && data[end - 1] == QUOTE) {
+                return new String(data, start + 1, end - start - 2, StandardCharsets.UTF_8).replace("\"\"", "\"");
+            }
+            return new String(data, start, end - start, StandardCharsets.UTF_8);
+        }
+    }
+    
+    /**
+     * Counters of a masked file
+     */
+    public record Result(long rows, long maskedValues, long failedValues) {
+    }
+    
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+    
+    /**
+     * Failure of an upstream stage, passed on unchanged by the masker
+     */
+    private static final class StageFailure extends RuntimeException {
+        
+        private StageFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+    
+    /**
+     * Bytes of complete records with the offsets of their fields, or masked output when no records are set
+     */
+    private static final class Chunk {
+        
+        private static final Chunk END = new Chunk(new byte[0]);
+        
+        private final byte[] data;
+        private int length;
+        private Throwable failure;
+        
+        private int records;
+        private int[] recordEnds = new int[0];
+        private int[] recordFieldEnds = new int[0];
+        
+        private int fields;
+        private int[] fieldStarts = new int[0];
+        private int[] fieldEnds = new int[0];
+        
+        private Chunk(byte[] data) {
+            this.data = data;
+        }
+        
+        private static Chunk bytes(byte[] data, int length) {
+            Chunk chunk = new Chunk(data);
+            chunk.length = length;
+            return chunk;
+        }
+        
+        private static Chunk failed(Throwable failure) {
+            Chunk chunk = new Chunk(new byte[0]);
+            chunk.failure = failure instanceof StageFailure ? failure.getCause() : failure;
+            return chunk;
+        }
+        
+        private void addField(int start, int end) {
+            if (fields == fieldStarts.length) {
+                fieldStarts = Arrays.copyOf(fieldStarts, Math.max(256, fields * 2));
+                fieldEnds = Arrays.copyOf(fieldEnds, Math.max(256, fields * 2));
+            }
+            fieldStarts[fields] = start;
+            fieldEnds[fields++] = end;
+        }
+        
+        private void addRecord(int end) {
+            if (records == recordEnds.length) {
+                recordEnds = Arrays.copyOf(recordEnds, Math.max(64, records * 2));
+                recordFieldEnds = Arrays.copyOf(recordFieldEnds, Math.max(64, records * 2));
+            }
+            recordEnds[records] = end;
+            recordFieldEnds[records++] = fields;
+        }
+    }
+    
+    /**
+     * Growable byte array without the synchronization of ByteArrayOutputStream
+     */
+    private static final class ByteSink {
+        
+        private byte[] bytes;
+        private int size;
+        
+        private ByteSink(int capacity) {
+            bytes = new byte[capacity];
+        }
+        
+        private void write(byte b) {
+            ensureCapacity(1);
+            bytes[size++] = b;
+        }
+        
+        private void write(byte[] source) {
+            write(source, 0, source.length);
+        }
+        
+        private void write(byte[] source, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+        
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.datamasking.tool.service;
+
+/**
+ * Reusable per-thread buffers for digest based maskers
+ * Encodes input as UTF-8 into a growable byte buffer and renders digests as lowercase hex
+ * through a lookup table, so hashing a value allocates nothing but the resulting String
+ * The retained input buffer is capped; larger values are encoded into a temporary buffer that
+ * {@link #release()} drops, so one huge value does not pin its buffer to the thread
+ */
+final class DigestWorkspace {
+    
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    
+    private byte[] retained = new byte[INITIAL_CAPACITY];
+    private byte[] input = retained;
+    private final byte[] digest = new byte[64];
+    private final char[] hex = new char[128];
+    
+    /**
+     * Encode a value as UTF-8 into the input buffer
+     * Unpaired surrogates are written as '?', like {@link String#getBytes(java.nio.charset.Charset)}
+     *
+     * @return number of bytes written to {@link #input()}
+     */
+    int encode(CharSequence value) {
+        int length = value.length();
+        int capacity = length * 3;
+        if (capacity > MAX_RETAINED_CAPACITY) {
+            input = new byte[capacity];
+        } else {
+            if (retained.length < capacity) {
+                retained = new byte[Math.min(Math.max(capacity, retained.length * 2), MAX_RETAINED_CAPACITY)];
+            }
+            input = retained;
+        }
+        
+        byte[] out = input;
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                out[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out[pos++] = '?';
+            } else {
+                out[pos++] = (byte) (0xE0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+    
+    byte[] input() {
+        return input;
+    }
+    
+    /**
+     * Drop the temporary buffer of an oversized value once its digest is computed
+     */
+    void release() {
+        input = retained;
+    }
+    
+    byte[] digest() {
+        return digest;
+    }
+    
+    /**
+     * Render the first bytes of the digest buffer as lowercase hex
+     */
+    String toHex(int length) {
+        char[] out = hex;
+        for (int i = 0; i < length; i++) {
+            int b = digest[i] & 0xFF;
+            out[i << 1] = HEX[b >>> 4];
+            out[(i << 1) + 1] = HEX[b & 0x0F];
+        }
+        return new String(out, 0, length << 1);
+    }
+}
@@ -0,0 +1,15 @@
+package com.datamasking.tool.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Non-cryptographic random values from the calling thread's own generator
+ * No state is shared between threads, so throughput grows with the number of cores
+ */
+public class FastRandomValueGenerator extends RandomValueGenerator {
+    
+    @Override
+    protected long nextLong() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+}
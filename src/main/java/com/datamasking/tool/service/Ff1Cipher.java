@@ -0,0 +1,362 @@
+package com.datamasking.tool.service;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * FF1 format-preserving encryption (NIST SP 800-38G) over an alphabet of 0-9 followed by a-z
+ * Each thread keeps an initialized AES cipher and the CBC-MAC state of the constant message prefix,
+ * so a round costs a single block encryption; halves that fit in a long skip BigInteger entirely
+ */
+final class Ff1Cipher {
+    
+    static final String ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyz";
+    
+    private static final int ROUNDS = 10;
+    private static final int BLOCK = 16;
+    private static final long MIN_DOMAIN = 1_000_000L;
+    
+    private final int radix;
+    private final int minLength;
+    private final int fastLength;
+    private final long[] powers;
+    private final ThreadLocal<State> state;
+    
+    Ff1Cipher(byte[] key, int radix) {
+        this(key, radix, maxFastLength(radix));
+    }
+    
+    /**
+     * @param fastLength longest half handled with long arithmetic, kept below radix^n * 256 overflowing
+     */
+    Ff1Cipher(byte[] key, int radix, int fastLength) {
+        if (radix < 2 || radix > ALPHABET.length()) {
+            throw new IllegalArgumentException("Unsupported radix: " + radix);
+        }
+        this.radix = radix;
+        this.fastLength = Math.min(fastLength, maxFastLength(radix));
+        
+        this.powers = new long[this.fastLength + 1];
+        powers[0] = 1;
+        for (int i = 1; i < powers.length; i++) {
+            powers[i] = powers[i - 1] * radix;
+        }
+        
+        int length = 2;
+        while (BigInteger.valueOf(radix).pow(length).compareTo(BigInteger.valueOf(MIN_DOMAIN)) < 0) {
+            length++;
+        }
+        this.minLength = length;
+        
+        SecretKeySpec secret = new SecretKeySpec(key.clone(), "AES");
+        this.state = ThreadLocal.withInitial(() -> new State(secret));
+    }
+    
+    int radix() {
+        return radix;
+    }
+    
+    /**
+     * Shortest input whose domain reaches the one million values required by the standard
+     */
+    int minLength() {
+        return minLength;
+    }
+    
+    /**
+     * Encrypt the first length numerals of x in place
+     */
+    void encrypt(char[] x, int length, byte[] tweak) {
+        transform(x, length, tweak, true);
+    }
+    
+    /**
+     * Decrypt the first length numerals of x in place
+     */
+    void decrypt(char[] x, int length, byte[] tweak) {
+        transform(x, length, tweak, false);
+    }
+    
+    private void transform(char[] x, int n, byte[] tweak, boolean encrypt) {
+        if (n < minLength) {
+            throw new IllegalArgumentException("FF1 input needs at least " + minLength + " numerals, got " + n);
+        }
+        State s = state.get();
+        s.prepare(n, tweak);
+        
+        if (s.v <= fastLength) {
+            transformFast(s, x, encrypt);
+        } else {
+            transformBig(s, x, encrypt);
+        }
+    }
+    
+    private void transformFast(State s, char[] x, boolean encrypt) {
+        int u = s.u;
+        int v = s.v;
+        long a = toLong(x, 0, u);
+        long b = toLong(x, u, v);
+        
+        if (encrypt) {
+            for (int i = 0; i < ROUNDS; i++) {
+                long modulus = powers[(i & 1) == 0 ? u : v];
+                long c = (a + s.round(i, b, modulus)) % modulus;
+                a = b;
+                b = c;
+            }
+        } else {
+            for (int i = ROUNDS - 1; i >= 0; i--) {
+                long modulus = powers[(i & 1) == 0 ? u : v];
+                long c = Math.floorMod(b - s.round(i, a, modulus), modulus);
+                b = a;
+                a = c;
+            }
+        }
+        
+        fromLong(a, x, 0, u);
+        fromLong(b, x, u, v);
+    }
+    
+    private void transformBig(State s, char[] x, boolean encrypt) {
+        int u = s.u;
+        int v = s.v;
+        BigInteger modulusU = BigInteger.valueOf(radix).pow(u);
+        BigInteger modulusV = u == v ? modulusU : modulusU.multiply(BigInteger.valueOf(radix));
+        BigInteger a = toBig(x, 0, u);
+        BigInteger b = toBig(x, u, v);
+        
+        if (encrypt) {
+            for (int i = 0; i < ROUNDS; i++) {
+                BigInteger c = a.add(s.round(i, b)).mod((i & 1) == 0 ? modulusU : modulusV);
+                a = b;
+                b = c;
+            }
+        } else {
+            for (int i = ROUNDS - 1; i >= 0; i--) {
+                BigInteger c = b.subtract(s.round(i, a)).mod((i & 1) == 0 ? modulusU : modulusV);
+                b = a;
+                a = c;
+            }
+        }
+        
+        fromBig(a, x, 0, u);
+        fromBig(b, x, u, v);
+    }
+    
+    private int digit(char c) {
+        int d = c >= '0' && c <= '9' ? c - '0' : c >= 'a' && c <= 'z' ? c - 'a' + 10 : radix;
+        if (d >= radix) {
+            throw new IllegalArgumentException("Character '" + c + "' is outside the radix " + radix + " alphabet");
+        }
+        return d;
+    }
+    
+    private long toLong(char[] x, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            value = value * radix + digit(x[i]);
+        }
+        return value;
+    }
+    
+    private void fromLong(long value, char[] x, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            x[i] = ALPHABET.charAt((int) (value % radix));
+            value /= radix;
+        }
+    }
+    
+    private BigInteger toBig(char[] x, int offset, int length) {
+        // Validate first, as BigInteger would also accept signs, uppercase and non-ASCII digits
+        for (int i = offset; i < offset + length; i++) {
+            digit(x[i]);
+        }
+        return new BigInteger(new String(x, offset, length), radix);
+    }
+    
+    private void fromBig(BigInteger value, char[] x, int offset, int length) {
+        String digits = value.toString(radix);
+        int pad = length - digits.length();
+        Arrays.fill(x, offset, offset + pad, '0');
+        digits.getChars(0, digits.length(), x, offset + pad);
+    }
+    
+    private static int maxFastLength(int radix) {
+        int length = 0;
+        long power = 1;
+        while (power <= (Long.MAX_VALUE >> 8) / radix) {
+            power *= radix;
+            length++;
+        }
+        return length;
+    }
+    
+    /**
+     * Per-thread cipher and buffers, prepared for the last used input length and tweak
+     */
+    private final class State {
+        
+        private final Cipher aes;
+        private final byte[] prefixMac = new byte[BLOCK];
+        private final byte[] r = new byte[BLOCK];
+        private byte[] q = new byte[2 * BLOCK];
+        private byte[] s = new byte[BLOCK];
+        
+        private int n = -1;
+        private byte[] tweak;
+        private int u;
+        private int v;
+        private int b;
+        private int d;
+        private int qLength;
+        private int roundOffset;
+        
+        private State(SecretKeySpec secret) {
+            try {
+                aes = Cipher.getInstance("AES/ECB/NoPadding");
+                aes.init(Cipher.ENCRYPT_MODE, secret);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES not available", e);
+            }
+        }
+        
+        /**
+         * Derive lengths and run the CBC-MAC over P and every block of Q that does not depend on the round
+         * The round number and numeral take the last b + 1 bytes of Q, which span two blocks once b exceeds 15
+         */
+        private void prepare(int length, byte[] t) {
+            if (length == n && t == tweak) {
+                return;
+            }
+            n = -1;
+            u = length / 2;
+            v = length - u;
+            b = (BigInteger.valueOf(radix).pow(v).subtract(BigInteger.ONE).bitLength() + 7) / 8;
+            d = 4 * ((b + 3) / 4) + 4;
+            
+            int pad = Math.floorMod(-t.length - b - 1, BLOCK);
+            qLength = t.length + pad + 1 + b;
+            roundOffset = (qLength - b - 1) / BLOCK * BLOCK;
+            if (q.length < qLength) {
+                q = new byte[qLength];
+            }
+            System.arraycopy(t, 0, q, 0, t.length);
+            Arrays.fill(q, t.length, qLength, (byte) 0);
+            
+            int sLength = (d + BLOCK - 1) / BLOCK * BLOCK;
+            if (s.length < sLength) {
+                s = new byte[sLength];
+            }
+            
+            byte[] p = prefixMac;
+            p[0] = 1;
+            p[1] = 2;
+            p[2] = 1;
+            p[3] = (byte) (radix >>> 16);
+            p[4] = (byte) (radix >>> 8);
+            p[5] = (byte) radix;
+            p[6] = ROUNDS;
+            p[7] = (byte) u;
+            writeInt(p, 8, length);
+            writeInt(p, 12, t.length);
+            encryptBlock(p, 0, p);
+            for (int offset = 0; offset < roundOffset; offset += BLOCK) {
+                xor(p, q, offset);
+                encryptBlock(p, 0, p);
+            }
+            
+            n = length;
+            tweak = t;
+        }
+        
+        /**
+         * Round function reduced modulo radix^m, for halves that fit in a long
+         */
+        private long round(int i, long numeral, long modulus) {
+            int end = qLength;
+            q[end - b - 1] = (byte) i;
+            for (int k = end - 1; k >= end - b; k--) {
+                q[k] = (byte) numeral;
+                numeral >>>= 8;
+            }
+            
+            byte[] y = mac();
+            long value = 0;
+            int k = 0;
+            // Leading bytes beyond 64 bits are reduced one at a time, the rest with one unsigned division
+            for (; k < d - Long.BYTES; k++) {
+                value = ((value << 8) | (y[k] & 0xFF)) % modulus;
+            }
+            long low = 0;
+            for (; k < d; k++) {
+                low = (low << 8) | (y[k] & 0xFF);
+            }
+            if (value == 0) {
+                return Long.remainderUnsigned(low, modulus);
+            }
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                value = ((value << 8) | ((low >>> shift) & 0xFF)) % modulus;
+            }
+            return value;
+        }
+        
+        private BigInteger round(int i, BigInteger numeral) {
+            int end = qLength;
+            q[end - b - 1] = (byte) i;
+            byte[] bytes = numeral.toByteArray();
+            int copy = Math.min(bytes.length, b);
+            Arrays.fill(q, end - b, end - copy, (byte) 0);
+            System.arraycopy(bytes, bytes.length - copy, q, end - copy, copy);
+            
+            return new BigInteger(1, mac(), 0, d);
+        }
+        
+        /**
+         * Finish the CBC-MAC with the round-dependent blocks of Q and expand it to d bytes
+         */
+        private byte[] mac() {
+            System.arraycopy(prefixMac, 0, r, 0, BLOCK);
+            for (int offset = roundOffset; offset < qLength - BLOCK; offset += BLOCK) {
+                xor(r, q, offset);
+                encryptBlock(r, 0, r);
+            }
+            xor(r, q, qLength - BLOCK);
+            encryptBlock(r, 0, s);
+            
+            for (int j = 1; j * BLOCK < d; j++) {
+                System.arraycopy(s, 0, r, 0, BLOCK);
+                r[BLOCK - 4] ^= (byte) (j >>> 24);
+                r[BLOCK - 3] ^= (byte) (j >>> 16);
+                r[BLOCK - 2] ^= (byte) (j >>> 8);
+                r[BLOCK - 1] ^= (byte) j;
+                encryptBlock(r, j * BLOCK, s);
+            }
+            return s;
+        }
+        
+        private void encryptBlock(byte[] in, int outOffset, byte[] out) {
+            try {
+                aes.update(in, 0, BLOCK, out, outOffset);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException("AES block encryption failed", e);
+            }
+        }
+    }
+    
+    private static void xor(byte[] target, byte[] source, int offset) {
+        for (int k = 0; k < BLOCK; k++) {
+            target[k] ^= source[offset + k];
+        }
+    }
+    
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
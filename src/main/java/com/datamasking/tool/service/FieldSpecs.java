@@ -0,0 +1,47 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parsing of field to PII type mappings given as "name=TYPE" strings
+ * Used by the file masking endpoints and the command line, where a JSON body is not available
+ */
+public final class FieldSpecs {
+    
+    private FieldSpecs() {
+    }
+    
+    /**
+     * Parse mappings such as "email=EMAIL", keeping their order
+     *
+     * @throws IllegalArgumentException if a mapping is malformed, names an unknown type or repeats a field
+     */
+    public static Map<String, PiiType> parse(List<String> specs) {
+        Map<String, PiiType> fields = new LinkedHashMap<>();
+        for (String spec : specs) {
+            int separator = spec.lastIndexOf('=');
+            if (separator <= 0 || separator == spec.length() - 1) {
+                throw new IllegalArgumentException("Expected <field>=<PII type>, found: " + spec);
+            }
+            String field = spec.substring(0, separator).trim();
+            PiiType type;
+            try {
+                type = PiiType.valueOf(spec.substring(separator + 1).trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown PII type in: " + spec, e);
+            }
+            if (fields.put(field, type) != null) {
+                throw new IllegalArgumentException("Field is listed more than once: " + field);
+            }
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field to mask is required");
+        }
+        return fields;
+    }
+}
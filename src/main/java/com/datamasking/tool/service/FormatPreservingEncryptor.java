@@ -0,0 +1,181 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Format-preserving encryption of structured identifiers with FF1
+ * Digits are encrypted in place and separators are kept, so masked values keep their layout
+ * and stay joinable and reversible with the key. The PII type is used as the tweak.
+ * Without masking.fpe.key the application starts, but every use of the strategy fails
+ */
+@Service
+public class FormatPreservingEncryptor {
+    
+    // Country code and check digits of an IBAN are kept as they are
+    private static final int IBAN_PREFIX_LENGTH = 4;
+    
+    private final Ff1Cipher decimal;
+    private final Ff1Cipher alphanumeric;
+    private final byte[][] tweaks;
+    
+    public FormatPreservingEncryptor(@Value("${masking.fpe.key:}") String key) {
+        PiiType[] types = PiiType.values();
+        this.tweaks = new byte[types.length][];
+        for (PiiType type : types) {
+            tweaks[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+        }
+        
+        if (StringUtils.isBlank(key)) {
+            this.decimal = null;
+            this.alphanumeric = null;
+            return;
+        }
+        byte[] secret;
+        try {
+            secret = Base64.getDecoder().decode(key.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("masking.fpe.key is not valid Base64", e);
+        }
+        if (secret.length != 16 && secret.length != 24 && secret.length != 32) {
+            throw new IllegalStateException("masking.fpe.key must be a 128, 192 or 256 bit AES key");
+        }
+        
+        this.decimal = new Ff1Cipher(secret, 10);
+        this.alphanumeric = new Ff1Cipher(secret, 36);
+    }
+    
+    /**
+     * Fail unless a key is configured
+     *
+     * @throws IllegalStateException if masking.fpe.key is not set
+     */
+    public void requireKey() {
+        if (decimal == null) {
+            throw new IllegalStateException("FORMAT_PRESERVING masking requires masking.fpe.key");
+        }
+    }
+    
+    /**
+     * Whether values of the PII type can be encrypted
+     */
+    public boolean supports(PiiType piiType) {
+        return switch (piiType) {
+            case CREDIT_CARD, TC_KIMLIK_NO, PHONE, BANK_ACCOUNT -> true;
+            default -> false;
+        };
+    }
+    
+    /**
+     * Get a masker encrypting values of the PII type
+     * Values with too few digits for FF1 are passed to the fallback masker instead
+     */
+    public Masker masker(PiiType piiType, Masker fallback) {
+        requireSupported(piiType);
+        requireKey();
+        return data -> {
+            String encrypted = transform(piiType, data, true);
+            return encrypted != null ? encrypted : fallback.mask(data);
+        };
+    }
+    
+    public String encrypt(PiiType piiType, String value) {
+        return requireTransformed(piiType, value, true);
+    }
+    
+    public String decrypt(PiiType piiType, String value) {
+        return requireTransformed(piiType, value, false);
+    }
+    
+    private String requireTransformed(PiiType piiType, String value, boolean encrypt) {
+        requireSupported(piiType);
+        requireKey();
+        String result = transform(piiType, value, encrypt);
+        if (result == null) {
+            throw new IllegalArgumentException("Value has too few characters for format-preserving encryption");
+        }
+        return result;
+    }
+    
+    private void requireSupported(PiiType piiType) {
+        if (!supports(piiType)) {
+            throw new IllegalArgumentException("Format-preserving encryption is not supported for " + piiType);
+        }
+    }
+    
+    /**
+     * Encrypt or decrypt the digits of a value, and for bank accounts with letters all alphanumerics
+     *
+     * @return the transformed value, or null if it has too few characters to encrypt
+     */
+    private String transform(PiiType piiType, String value, boolean encrypt) {
+        char[] out = value.toCharArray();
+        int start = piiType == PiiType.BANK_ACCOUNT && isIbanPrefix(out) ? IBAN_PREFIX_LENGTH : 0;
+        boolean letters = piiType == PiiType.BANK_ACCOUNT && hasLetter(out, start, out.length);
+        Ff1Cipher cipher = letters ? alphanumeric : decimal;
+        
+        char[] numerals = new char[out.length - start];
+        int n = 0;
+        boolean upperCase = true;
+        for (int i = start; i < out.length; i++) {
+            char c = out[i];
+            if (isDigit(c)) {
+                numerals[n++] = c;
+            } else if (letters && isLetter(c)) {
+                upperCase &= c <= 'Z';
+                numerals[n++] = Character.toLowerCase(c);
+            }
+        }
+        if (n < cipher.minLength()) {
+            return null;
+        }
+        
+        byte[] tweak = tweaks[piiType.ordinal()];
+        // Cycle-walk so an alphanumeric account never turns into digits only, which keeps it decryptable
+        do {
+            if (encrypt) {
+                cipher.encrypt(numerals, n, tweak);
+            } else {
+                cipher.decrypt(numerals, n, tweak);
+            }
+        } while (letters && !hasLetter(numerals, 0, n));
+        
+        int j = 0;
+        for (int i = start; i < out.length; i++) {
+            char c = out[i];
+            if (isDigit(c) || (letters && isLetter(c))) {
+                char replacement = numerals[j++];
+                out[i] = upperCase ? Character.toUpperCase(replacement) : replacement;
+            }
+        }
+        return new String(out);
+    }
+    
+    private static boolean isIbanPrefix(char[] value) {
+        return value.length > IBAN_PREFIX_LENGTH
+            && isLetter(value[0]) && isLetter(value[1])
+            && isDigit(value[2]) && isDigit(value[3]);
+    }
+    
+    private static boolean hasLetter(char[] value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (isLetter(value[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
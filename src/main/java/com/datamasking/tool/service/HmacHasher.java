@@ -0,0 +1,182 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.config.HmacProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keyed HMAC-SHA256 hashing for the HMAC strategy
+ * Output is deterministic per key, so masked values stay joinable across tables and runs,
+ * while guessing inputs requires the secret. Each key keeps one initialized Mac per thread
+ */
+@Service
+@Slf4j
+public class HmacHasher {
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    private static final int MIN_KEY_LENGTH = 16;
+    
+    private final Map<String, HmacKey> keys;
+    private final String activeKeyId;
+    
+    public HmacHasher(HmacProperties properties) {
+        Map<String, HmacKey> loaded = new LinkedHashMap<>();
+        properties.getKeys().forEach((id, secret) -> loaded.put(id, new HmacKey(id, decode(id, secret))));
+        this.keys = Collections.unmodifiableMap(loaded);
+        this.activeKeyId = StringUtils.trimToNull(properties.getActiveKeyId());
+        
+        if (activeKeyId == null) {
+            // Only HMAC rules, consistent pseudonyms and substitute names need a key, and they fail on first use
+            log.info("Loaded {} HMAC keys, no active key", keys.size());
+            return;
+        }
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Active HMAC key is not configured: " + activeKeyId);
+        }
+        log.info("Loaded {} HMAC keys, active key: {}", keys.size(), activeKeyId);
+    }
+    
+    /**
+     * Check that a key can be used; a blank key ID selects the active key
+     *
+     * @throws IllegalStateException if no active key is configured
+     * @throws IllegalArgumentException if the key is unknown
+     */
+    public void requireKey(String keyId) {
+        resolve(keyId);
+    }
+    
+    /**
+     * Get the masker for a key; a blank key ID selects the active key
+     */
+    public Masker masker(String keyId) {
+        return resolve(keyId)::hash;
+    }
+    
+    /**
+     * Hash a value with a key; a blank key ID selects the active key
+     */
+    public String hash(String keyId, CharSequence value) {
+        return resolve(keyId).hash(value);
+    }
+    
+    /**
+     * First 128 bits of the HMAC of a value under the active key, as two big-endian longs
+     * Identifies a value in lookup tables without the table holding the value itself
+     */
+    public long[] fingerprint(CharSequence value) {
+        return fingerprint(null, value);
+    }
+    
+    /**
+     * First 128 bits of the HMAC of a value under a key; a blank key ID selects the active key
+     */
+    public long[] fingerprint(String keyId, CharSequence value) {
+        return resolve(keyId).fingerprint(value);
+    }
+    
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+    
+    private HmacKey resolve(String keyId) {
+        String id = StringUtils.isBlank(keyId) ? activeKeyId : keyId;
+        if (id == null) {
+            throw new IllegalStateException(
+                "No HMAC key configured: set masking.hmac.active-key-id and masking.hmac.keys.<id>");
+        }
+        HmacKey key = keys.get(id);
+        if (key == null) {
+            throw new IllegalArgumentException("Unknown HMAC key: " + id);
+        }
+        return key;
+    }
+    
+    private static SecretKeySpec decode(String id, String secret) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("HMAC key " + id + " is not valid Base64", e);
+        }
+        if (bytes.length < MIN_KEY_LENGTH) {
+            throw new IllegalStateException("HMAC key " + id + " must be at least " + MIN_KEY_LENGTH + " bytes");
+        }
+        return new SecretKeySpec(bytes, ALGORITHM);
+    }
+    
+    /**
+     * One secret with its per-thread Mac instances
+     */
+    private static final class HmacKey {
+        
+        private final String id;
+        private final ThreadLocal<State> state;
+        
+        private HmacKey(String id, SecretKeySpec secret) {
+            this.id = id;
+            this.state = ThreadLocal.withInitial(() -> new State(secret));
+        }
+        
+        private String hash(CharSequence value) {
+            return digest(value).toHex(MAC_LENGTH);
+        }
+        
+        private long[] fingerprint(CharSequence value) {
+            byte[] digest = digest(value).digest();
+            long high = 0;
+            long low = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                high = (high << 8) | (digest[i] & 0xFF);
+                low = (low << 8) | (digest[Long.BYTES + i] & 0xFF);
+            }
+            return new long[] {high, low};
+        }
+        
+        /**
+         * HMAC a value into the digest buffer of the calling thread's workspace
+         */
+        private DigestWorkspace digest(CharSequence value) {
+            State current = state.get();
+            DigestWorkspace workspace = current.workspace;
+            int length = workspace.encode(value);
+            
+            try {
+                current.mac.update(workspace.input(), 0, length);
+                current.mac.doFinal(workspace.digest(), 0);
+            } catch (ShortBufferException e) {
+                current.mac.reset();
+                throw new IllegalStateException("HMAC with key " + id + " failed", e);
+            } finally {
+                workspace.release();
+            }
+            return workspace;
+        }
+    }
+    
+    private static final class State {
+        
+        private final Mac mac;
+        private final DigestWorkspace workspace = new DigestWorkspace();
+        
+        private State(SecretKeySpec secret) {
+            try {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(secret);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(ALGORITHM + " not available", e);
+            }
+        }
+    }
+}
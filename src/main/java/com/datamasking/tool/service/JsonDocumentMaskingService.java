@@ -0,0 +1,308 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for masking values at known paths inside JSON documents
+ * Documents are copied token by token from the parser to the generator, and only scalars at a matching path
+ * are masked, so no document is ever bound to a tree and heap use does not depend on document size.
+ * Paths use a JSONPath subset: {@code $.customer.email}, {@code $['first name']}, {@code $.phones[0]},
+ * {@code $.addresses[*].street} and {@code $.*.email}
+ */
+@Service
+@Slf4j
+public class JsonDocumentMaskingService {
+    
+    // Number of documents written between explicit flushes of the output stream
+    private static final int FLUSH_INTERVAL = 256;
+    
+    private final MaskingService maskingService;
+    private final JsonFactory jsonFactory;
+    
+    public JsonDocumentMaskingService(MaskingService maskingService, ObjectMapper objectMapper) {
+        this.maskingService = maskingService;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+    
+    /**
+     * Mask the values at the given paths with the active rules of their PII types
+     * A top-level JSON array is treated as an array of documents and answered with one, anything else as NDJSON.
+     * A path to an object or array masks every scalar inside it
+     *
+     * @throws IllegalArgumentException if a path is malformed or a type has no active rule
+     */
+    public Result maskDocuments(InputStream input, OutputStream output, Map<String, PiiType> paths) throws IOException {
+        PathNode root = compile(paths);
+        
+        try (JsonParser parser = jsonFactory.createParser(input);
+             JsonGenerator generator = jsonFactory.createGenerator(output)) {
+            
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Counters counters = new Counters();
+            
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return new Result(0, 0, 0);
+            }
+            
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                generator.writeStartArray();
+                token = parser.nextToken();
+            }
+            
+            long documents = 0;
+            while (token != null && token != JsonToken.END_ARRAY) {
+                copy(parser, generator, token, root, counters);
+                if (!array) {
+                    generator.writeRaw('\n');
+                }
+                if (++documents % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+                token = parser.nextToken();
+            }
+            
+            if (array) {
+                generator.writeEndArray();
+            }
+            generator.flush();
+            return new Result(documents, counters.masked, counters.failed);
+        }
+    }
+    
+    /**
+     * Copy the value at the current token, descending only while some path can still match
+     */
+    private void copy(JsonParser parser, JsonGenerator generator, JsonToken token, PathNode node,
+                      Counters counters) throws IOException {
+        if (node == null) {
+            generator.copyCurrentStructure(parser);
+            return;
+        }
+        if (node.plan != null) {
+            maskAll(parser, generator, token, node.plan, counters);
+            return;
+        }
+        switch (token) {
+            case START_OBJECT -> {
+                generator.writeStartObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    generator.writeFieldName(name);
+                    copy(parser, generator, parser.nextToken(), node.field(name), counters);
+                }
+                generator.writeEndObject();
+            }
+            case START_ARRAY -> {
+                generator.writeStartArray();
+                int index = 0;
+                for (JsonToken element = parser.nextToken(); element != JsonToken.END_ARRAY; element = parser.nextToken()) {
+                    copy(parser, generator, element, node.element(index++), counters);
+                }
+                generator.writeEndArray();
+            }
+            default -> generator.copyCurrentEvent(parser);
+        }
+    }
+    
+    /**
+     * Copy the value at the current token with every scalar in it masked
+     */
+    private void maskAll(JsonParser parser, JsonGenerator generator, JsonToken token, MaskingPlan plan,
+                         Counters counters) throws IOException {
+        switch (token) {
+            case START_OBJECT -> {
+                generator.writeStartObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    generator.writeFieldName(parser.currentName());
+                    maskAll(parser, generator, parser.nextToken(), plan, counters);
+                }
+                generator.writeEndObject();
+            }
+            case START_ARRAY -> {
+                generator.writeStartArray();
+                for (JsonToken element = parser.nextToken(); element != JsonToken.END_ARRAY; element = parser.nextToken()) {
+                    maskAll(parser, generator, element, plan, counters);
+                }
+                generator.writeEndArray();
+            }
+            case VALUE_NULL -> generator.writeNull();
+            default -> {
+                String masked;
+                try {
+                    masked = plan.mask(parser.getText());
+                    counters.masked++;
+                } catch (RuntimeException e) {
+                    log.debug("Error masking JSON value at {}: {}", parser.getParsingContext().pathAsPointer(), e.getMessage());
+                    counters.failed++;
+                    masked = null;
+                }
+                if (masked == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeString(masked);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Build a trie of path segments whose matching nodes carry the masking plan
+     */
+    private PathNode compile(Map<String, PiiType> paths) {
+        PathNode root = new PathNode();
+        paths.forEach((path, type) -> {
+            PathNode node = root;
+            for (Segment segment : parsePath(path)) {
+                node = node.child(segment);
+            }
+            node.plan = maskingService.getRulePlan(type);
+        });
+        return root;
+    }
+    
+    private static Segment[] parsePath(String path) {
+        if (path == null || !path.startsWith("$")) {
+            throw new IllegalArgumentException("JSON path must start with $: " + path);
+        }
+        List<Segment> segments = new ArrayList<>();
+        int pos = 1;
+        while (pos < path.length()) {
+            char c = path.charAt(pos);
+            if (c == '.') {
+                int end = pos + 1;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                String name = path.substring(pos + 1, end);
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Empty or recursive segment in JSON path: " + path);
+                }
+                segments.add("*".equals(name) ? Segment.ANY_FIELD : Segment.field(name));
+                pos = end;
+            } else if (c == '[') {
+                int end = path.indexOf(']', pos);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed bracket in JSON path: " + path);
+                }
+                String inner = path.substring(pos + 1, end).trim();
+                if ("*".equals(inner)) {
+                    segments.add(Segment.ANY_ELEMENT);
+                } else if (inner.length() >= 2 && (inner.charAt(0) == '\'' || inner.charAt(0) == '"')
+                        && inner.charAt(inner.length() - 1) == inner.charAt(0)) {
+                    segments.add(Segment.field(inner.substring(1, inner.length() - 1)));
+                } else {
+                    try {
+                        segments.add(Segment.element(Integer.parseInt(inner)));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Unsupported segment [" + inner + "] in JSON path: " + path, e);
+                    }
+                }
+                pos = end + 1;
+            } else {
+                throw new IllegalArgumentException("Unexpected '" + c + "' in JSON path: " + path);
+            }
+        }
+        return segments.toArray(Segment[]::new);
+    }
+    
+    /**
+     * Counters of a masking run
+     */
+    public record Result(long documents, long maskedValues, long failedValues) {
+    }
+    
+    /**
+     * One step of a path: a field name, an array index, or a wildcard over either
+     */
+    private record Segment(String name, int index) {
+        
+        static final Segment ANY_FIELD = new Segment(null, -1);
+        static final Segment ANY_ELEMENT = new Segment(null, -2);
+        
+        static Segment field(String name) {
+            return new Segment(name, -1);
+        }
+        
+        static Segment element(int index) {
+            if (index < 0) {
+                throw new IllegalArgumentException("Negative array index in JSON path: " + index);
+            }
+            return new Segment(null, index);
+        }
+    }
+    
+    /**
+     * Node of the path trie; wildcard children are merged with exact ones when both match
+     */
+    private static final class PathNode {
+        
+        private final Map<String, PathNode> fields = new HashMap<>();
+        private final Map<Integer, PathNode> elements = new HashMap<>();
+        private PathNode anyField;
+        private PathNode anyElement;
+        private MaskingPlan plan;
+        
+        private PathNode child(Segment segment) {
+            if (segment == Segment.ANY_FIELD) {
+                return anyField != null ? anyField : (anyField = new PathNode());
+            }
+            if (segment == Segment.ANY_ELEMENT) {
+                return anyElement != null ? anyElement : (anyElement = new PathNode());
+            }
+            if (segment.name() != null) {
+                return fields.computeIfAbsent(segment.name(), name -> new PathNode());
+            }
+            return elements.computeIfAbsent(segment.index(), index -> new PathNode());
+        }
+        
+        private PathNode field(String name) {
+            return merge(fields.get(name), anyField);
+        }
+        
+        private PathNode element(int index) {
+            return merge(elements.isEmpty() ? null : elements.get(index), anyElement);
+        }
+        
+        private static PathNode merge(PathNode exact, PathNode wildcard) {
+            if (exact == null) {
+                return wildcard;
+            }
+            if (wildcard == null) {
+                return exact;
+            }
+            // Rare: an exact and a wildcard path overlap, so build the union; the exact path's plan wins
+            PathNode union = new PathNode();
+            union.plan = exact.plan != null ? exact.plan : wildcard.plan;
+            union.anyField = merge(exact.anyField, wildcard.anyField);
+            union.anyElement = merge(exact.anyElement, wildcard.anyElement);
+            union.fields.putAll(wildcard.fields);
+            exact.fields.forEach((name, node) -> union.fields.merge(name, node, (other, own) -> merge(own, other)));
+            union.elements.putAll(wildcard.elements);
+            exact.elements.forEach((index, node) -> union.elements.merge(index, node, (other, own) -> merge(own, other)));
+            return union;
+        }
+    }
+    
+    private static final class Counters {
+        private long masked;
+        private long failed;
+    }
+}
@@ -0,0 +1,11 @@
+package com.datamasking.tool.service;
+
+/**
+ * Compiled masking function for one PII type, strategy and option set
+ * Implementations receive non-blank input; blank handling is done by {@link MaskingPlan}
+ */
+@FunctionalInterface
+public interface Masker {
+    
+    String mask(String value);
+}
@@ -0,0 +1,90 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates per-request masking events into a periodic log summary
+ * Requests only bump counters, so nothing is formatted or written on the hot path
+ */
+@Service
+@Slf4j
+public class MaskingActivityLog {
+    
+    private final LongAdder[] succeeded = adders();
+    private final LongAdder[] failed = adders();
+    
+    // Sample of the most recent failure in the current interval
+    private volatile String lastFailure;
+    
+    public void recordSuccess(PiiType piiType) {
+        if (piiType != null) {
+            succeeded[piiType.ordinal()].increment();
+        }
+    }
+    
+    public void recordFailure(PiiType piiType, String message) {
+        if (piiType != null) {
+            failed[piiType.ordinal()].increment();
+        }
+        lastFailure = message;
+    }
+    
+    @Scheduled(fixedDelayString = "${masking.logging.summary-interval:60s}",
+               initialDelayString = "${masking.logging.summary-interval:60s}")
+    public void logSummary() {
+        String failure = lastFailure;
+        String summary = summarize();
+        if (summary == null) {
+            return;
+        }
+        if (failure != null) {
+            log.warn("{}, last failure: {}", summary, failure);
+        } else {
+            log.info(summary);
+        }
+    }
+    
+    /**
+     * Summarize and reset the counters of the current interval
+     *
+     * @return the summary, or null if nothing was masked
+     */
+    String summarize() {
+        long totalSucceeded = 0;
+        long totalFailed = 0;
+        StringBuilder perType = new StringBuilder();
+        
+        for (PiiType type : PiiType.values()) {
+            long ok = succeeded[type.ordinal()].sumThenReset();
+            long errors = failed[type.ordinal()].sumThenReset();
+            if (ok + errors == 0) {
+                continue;
+            }
+            totalSucceeded += ok;
+            totalFailed += errors;
+            perType.append(perType.isEmpty() ? "" : ", ").append(type).append('=').append(ok);
+            if (errors > 0) {
+                perType.append('/').append(errors).append(" failed");
+            }
+        }
+        lastFailure = null;
+        
+        if (totalSucceeded + totalFailed == 0) {
+            return null;
+        }
+        return "Masked " + totalSucceeded + " values, " + totalFailed + " failed [" + perType + "]";
+    }
+    
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[PiiType.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
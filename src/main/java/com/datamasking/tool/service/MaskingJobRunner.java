@@ -0,0 +1,469 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.ColumnMapping;
+import com.datamasking.tool.model.MaskingJob;
+import com.datamasking.tool.model.MaskingJobConfiguration;
+import com.datamasking.tool.model.MaskingJobPartition;
+import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.ColumnMappingRepository;
+import com.datamasking.tool.repository.MaskingJobPartitionRepository;
+import com.datamasking.tool.repository.MaskingJobRepository;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executes table masking jobs over JDBC
+ * Splits the source table into key ranges that are masked concurrently on the shared worker pool.
+ * Each range is paged through by key, masked and batch-inserted into the target table, and every
+ * chunk commits together with its partition checkpoint so interrupted jobs resume without duplicates.
+ * Every row is read once and all mapped columns are masked in the same pass, each with its own rule
+ */
+@Service
+@Slf4j
+public class MaskingJobRunner {
+    
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+    
+    // Ranges per worker, so a skewed key distribution still keeps every worker busy
+    private static final int PARTITIONS_PER_WORKER = 4;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final MaskingJobRepository maskingJobRepository;
+    private final MaskingJobPartitionRepository maskingJobPartitionRepository;
+    private final ColumnMappingRepository columnMappingRepository;
+    private final MaskingRuleRepository maskingRuleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MaskingService maskingService;
+    private final ObjectMapper objectMapper;
+    private final AuditLogger auditLogger;
+    private final ThreadPoolTaskExecutor maskingWorkerExecutor;
+    private final Duration progressFlushInterval;
+    
+    public MaskingJobRunner(JdbcTemplate jdbcTemplate,
+                            MaskingJobRepository maskingJobRepository,
+                            MaskingJobPartitionRepository maskingJobPartitionRepository,
+                            ColumnMappingRepository columnMappingRepository,
+                            MaskingRuleRepository maskingRuleRepository,
+                            TransactionTemplate transactionTemplate,
+                            MaskingService maskingService,
+                            ObjectMapper objectMapper,
+                            AuditLogger auditLogger,
+                            @Qualifier("maskingWorkerExecutor") ThreadPoolTaskExecutor maskingWorkerExecutor,
+                            @Value("${masking.jobs.progress-flush-interval:5s}") Duration progressFlushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maskingJobRepository = maskingJobRepository;
+        this.maskingJobPartitionRepository = maskingJobPartitionRepository;
+        this.columnMappingRepository = columnMappingRepository;
+        this.maskingRuleRepository = maskingRuleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maskingService = maskingService;
+        this.objectMapper = objectMapper;
+        this.auditLogger = auditLogger;
+        this.maskingWorkerExecutor = maskingWorkerExecutor;
+        this.progressFlushInterval = progressFlushInterval;
+    }
+    
+    /**
+     * Run a pending job to completion, failure or cancellation
+     * Jobs that already have partitions continue from their checkpoints
+     */
+    public void run(Long jobId, AtomicBoolean cancelled) {
+        MaskingJob job = maskingJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != MaskingJob.JobStatus.PENDING || cancelled.get()) {
+            log.info("Skipping masking job {} that is no longer pending", jobId);
+            return;
+        }
+        
+        JobProgress progress = new JobProgress(cancelled);
+        try {
+            MaskingJobConfiguration config = objectMapper.readValue(job.getConfiguration(), MaskingJobConfiguration.class);
+            TableCopy copy = prepare(job, config);
+            
+            job.setStatus(MaskingJob.JobStatus.RUNNING);
+            job.setErrorMessage(null);
+            job.setCompletedAt(null);
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(LocalDateTime.now());
+            }
+            job.setTotalRecords(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + copy.sourceTable(), Long.class));
+            job = maskingJobRepository.save(job);
+            
+            int parallelism = job.getParallelism() != null ? Math.max(1, job.getParallelism()) : 1;
+            List<MaskingJobPartition> partitions = maskingJobPartitionRepository.findByJobIdOrderByPartitionIndex(jobId);
+            boolean resumed = !partitions.isEmpty();
+            if (!resumed) {
+                partitions = maskingJobPartitionRepository.saveAll(
+                    createPartitions(jobId, copy, parallelism * PARTITIONS_PER_WORKER));
+            }
+            
+            List<MaskingJobPartition> remaining = new ArrayList<>();
+            for (MaskingJobPartition partition : partitions) {
+                progress.processed.add(partition.getProcessedRecords());
+                progress.failed.add(partition.getFailedRecords());
+                if (partition.getStatus() != MaskingJobPartition.PartitionStatus.COMPLETED) {
+                    remaining.add(partition);
+                }
+            }
+            log.info("{} masking job {}: {} -> {} ({} rows, {} of {} partitions left, parallelism {})",
+                resumed ? "Resumed" : "Started", jobId, copy.sourceTable(), copy.targetTable(),
+                job.getTotalRecords(), remaining.size(), partitions.size(), parallelism);
+            
+            execute(jobId, copy, remaining, Math.min(parallelism, Math.max(1, remaining.size())), progress);
+            if (progress.halted.get()) {
+                // Never report a partially copied target table as completed
+                throw new IllegalStateException("Masking workers stopped before all partitions were copied");
+            }
+            
+            job.setStatus(cancelled.get() ? MaskingJob.JobStatus.CANCELLED : MaskingJob.JobStatus.COMPLETED);
+            log.info("Masking job {} {}: {} processed, {} failed", jobId, job.getStatus(),
+                progress.processed.sum(), progress.failed.sum());
+        
+        } catch (Exception e) {
+            log.error("Masking job {} failed: {}", jobId, e.getMessage(), e);
+            job.setStatus(MaskingJob.JobStatus.FAILED);
+            job.setErrorMessage(e.getMessage());
+        }
+        
+        job.setProcessedRecords(progress.processed.sum());
+        job.setFailedRecords(progress.failed.sum());
+        job.setCompletedAt(LocalDateTime.now());
+        maskingJobRepository.save(job);
+        auditLogger.jobFinished(job);
+    }
+    
+    /**
+     * Mask all partitions with the given number of workers, flushing progress while waiting
+     */
+    private void execute(Long jobId, TableCopy copy, List<MaskingJobPartition> partitions, int workers,
+                         JobProgress progress) throws Exception {
+        
+        Queue<MaskingJobPartition> pending = new ConcurrentLinkedQueue<>(partitions);
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(maskingWorkerExecutor.submit(() -> {
+                MaskingJobPartition partition;
+                while (!progress.isStopped() && (partition = pending.poll()) != null) {
+                    copyPartition(copy, partition, progress);
+                }
+            }));
+        }
+        
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get(progressFlushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    flushProgress(jobId, progress);
+                } catch (ExecutionException e) {
+                    // Stop the remaining workers, but still wait for them to release their connections
+                    progress.halted.set(true);
+                    if (failure == null) {
+                        failure = e.getCause() != null ? e.getCause() : e;
+                    }
+                    break;
+                }
+            }
+        }
+        if (failure instanceof Exception exception) {
+            throw exception;
+        }
+        if (failure != null) {
+            // Errors such as OutOfMemoryError fail the job instead of escaping the job thread
+            throw new IllegalStateException("Masking worker failed: " + failure, failure);
+        }
+    }
+    
+    /**
+     * Copy one partition chunk by chunk, starting after its last checkpoint
+     */
+    private void copyPartition(TableCopy copy, MaskingJobPartition partition, JobProgress progress) {
+        long lastKey = partition.getLastKey();
+        long upperKey = partition.getUpperKey();
+        long processed = partition.getProcessedRecords();
+        long failed = partition.getFailedRecords();
+        // Ranges exclude their lower key, which no key can be below Long.MIN_VALUE; such a range includes it until
+        // its first chunk is copied
+        boolean fromLowest = lastKey == Long.MIN_VALUE && processed + failed == 0;
+        
+        while (!progress.isStopped()) {
+            List<Object[]> rows = readChunk(copy, fromLowest ? copy.selectLowestSql() : copy.selectSql(),
+                lastKey, upperKey);
+            if (rows.isEmpty()) {
+                maskingJobPartitionRepository.markCompleted(partition.getId());
+                return;
+            }
+            lastKey = ((Number) rows.get(rows.size() - 1)[copy.keyIndex()]).longValue();
+            fromLowest = false;
+            
+            List<Object[]> maskedRows = new ArrayList<>(rows.size());
+            int chunkFailed = 0;
+            for (Object[] row : rows) {
+                if (maskRow(row, copy.plans())) {
+                    maskedRows.add(row);
+                } else {
+                    chunkFailed++;
+                }
+            }
+            processed += maskedRows.size();
+            failed += chunkFailed;
+            
+            long checkpointKey = lastKey;
+            long checkpointProcessed = processed;
+            long checkpointFailed = failed;
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(copy.insertSql(), maskedRows);
+                maskingJobPartitionRepository.updateCheckpoint(
+                    partition.getId(), checkpointKey, checkpointProcessed, checkpointFailed);
+            });
+            
+            progress.processed.add(maskedRows.size());
+            progress.failed.add(chunkFailed);
+        }
+    }
+    
+    private void flushProgress(Long jobId, JobProgress progress) {
+        maskingJobRepository.updateProgress(jobId, progress.processed.sum(), progress.failed.sum());
+    }
+    
+    private TableCopy prepare(MaskingJob job, MaskingJobConfiguration config) {
+        String sourceTable = SqlIdentifiers.requireTable(job.getSourceTable());
+        String targetTable = SqlIdentifiers.requireTable(job.getTargetTable());
+        int chunkSize = config.getChunkSize() != null ? config.getChunkSize() : DEFAULT_CHUNK_SIZE;
+        
+        List<String> columns = readColumns(sourceTable);
+        int keyIndex = indexOf(columns, SqlIdentifiers.requireColumn(config.getKeyColumn()));
+        MaskingPlan[] plans = resolvePlans(columns, readMappings(job, config), keyIndex);
+        
+        // Column names come from the table itself, so they are quoted as stored; reserved words such as ORDER or
+        // USER are valid column names
+        String quote = identifierQuote();
+        List<String> quoted = columns.stream().map(column -> quote + column + quote).toList();
+        String keyColumn = quoted.get(keyIndex);
+        String select = "SELECT " + String.join(", ", quoted) + " FROM " + sourceTable + " WHERE " + keyColumn;
+        String upTo = " ? AND " + keyColumn + " <= ? ORDER BY " + keyColumn;
+        String selectSql = select + " >" + upTo;
+        String selectLowestSql = select + " >=" + upTo;
+        String insertSql = "INSERT INTO " + targetTable + " (" + String.join(", ", quoted) + ") VALUES ("
+            + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        
+        return new TableCopy(sourceTable, targetTable, keyColumn, keyIndex, columns.size(), chunkSize,
+            plans, selectSql, selectLowestSql, insertSql);
+    }
+    
+    private String identifierQuote() {
+        String quote = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getIdentifierQuoteString());
+        // A space means the database does not support quoted identifiers
+        return quote != null ? quote.trim() : "";
+    }
+    
+    /**
+     * Split the key space of the source table into contiguous ranges of similar width
+     */
+    private List<MaskingJobPartition> createPartitions(Long jobId, TableCopy copy, int count) {
+        List<MaskingJobPartition> partitions = new ArrayList<>(count);
+        for (KeyRange range : splitKeySpace(copy, count)) {
+            MaskingJobPartition partition = new MaskingJobPartition();
+            partition.setJobId(jobId);
+            partition.setPartitionIndex(partitions.size());
+            partition.setLowerKey(range.lower());
+            partition.setUpperKey(range.upper());
+            partition.setLastKey(range.lower());
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+    
+    private List<KeyRange> splitKeySpace(TableCopy copy, int count) {
+        Object[] bounds = jdbcTemplate.queryForObject(
+            "SELECT MIN(" + copy.keyColumn() + "), MAX(" + copy.keyColumn() + ") FROM " + copy.sourceTable(),
+            (rs, rowNum) -> new Object[] {rs.getObject(1), rs.getObject(2)});
+        if (bounds == null || bounds[0] == null) {
+            return List.of();
+        }
+        
+        long min = ((Number) bounds[0]).longValue();
+        long max = ((Number) bounds[1]).longValue();
+        List<KeyRange> ranges = new ArrayList<>(count);
+        if (min == Long.MIN_VALUE || max - min < 0) {
+            // Key space too wide to split without overflow
+            ranges.add(new KeyRange(Long.MIN_VALUE, max));
+            return ranges;
+        }
+        
+        long width = Math.max(1, (max - min) / count + 1);
+        long lower = min - 1;
+        while (lower < max) {
+            long upper = max - lower <= width ? max : lower + width;
+            ranges.add(new KeyRange(lower, upper));
+            lower = upper;
+        }
+        return ranges;
+    }
+    
+    private List<String> readColumns(String table) {
+        return jdbcTemplate.query("SELECT * FROM " + table + " WHERE 1 = 0", rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            List<String> columns = new ArrayList<>(metaData.getColumnCount());
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columns.add(SqlIdentifiers.requireColumn(metaData.getColumnName(i)));
+            }
+            return columns;
+        });
+    }
+    
+    private int indexOf(List<String> columns, String column) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Column not found in source table: " + column);
+    }
+    
+    /**
+     * Column mappings of the job, or of its stored configuration for jobs submitted before mappings existed
+     */
+    private List<ColumnMapping> readMappings(MaskingJob job, MaskingJobConfiguration config) {
+        List<ColumnMapping> mappings = columnMappingRepository.findByJobIdOrderById(job.getId());
+        if (!mappings.isEmpty() || config.getColumns() == null) {
+            return mappings;
+        }
+        List<ColumnMapping> legacy = new ArrayList<>(config.getColumns().size());
+        for (Map.Entry<String, PiiType> entry : config.getColumns().entrySet()) {
+            ColumnMapping mapping = new ColumnMapping();
+            mapping.setColumnName(entry.getKey());
+            mapping.setPiiType(entry.getValue());
+            legacy.add(mapping);
+        }
+        return legacy;
+    }
+    
+    /**
+     * Resolve one plan per masked column, positioned like the selected columns
+     * Mappings with a rule use that rule, others the active rule of their PII type
+     */
+    private MaskingPlan[] resolvePlans(List<String> columns, List<ColumnMapping> mappings, int keyIndex) {
+        if (mappings.isEmpty()) {
+            throw new IllegalArgumentException("Job has no columns to mask");
+        }
+        MaskingPlan[] plans = new MaskingPlan[columns.size()];
+        for (ColumnMapping mapping : mappings) {
+            int index = indexOf(columns, SqlIdentifiers.requireColumn(mapping.getColumnName()));
+            if (index == keyIndex) {
+                throw new IllegalArgumentException("Key column cannot be masked: " + mapping.getColumnName());
+            }
+            if (mapping.getRuleId() == null) {
+                plans[index] = maskingService.getRulePlan(mapping.getPiiType());
+            } else {
+                MaskingRule rule = maskingRuleRepository.findById(mapping.getRuleId())
+                    .orElseThrow(() -> new IllegalArgumentException("Masking rule not found: " + mapping.getRuleId()));
+                plans[index] = maskingService.getPlan(rule);
+            }
+        }
+        return plans;
+    }
+    
+    private List<Object[]> readChunk(TableCopy copy, String selectSql, long lastKey, long upperKey) {
+        int chunkSize = copy.chunkSize();
+        int columnCount = copy.columnCount();
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(selectSql);
+            statement.setLong(1, lastKey);
+            statement.setLong(2, upperKey);
+            statement.setMaxRows(chunkSize);
+            statement.setFetchSize(chunkSize);
+            return statement;
+        }, rs -> {
+            List<Object[]> rows = new ArrayList<>(chunkSize);
+            while (rs.next()) {
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                rows.add(row);
+            }
+            return rows;
+        });
+    }
+    
+    /**
+     * Mask the configured columns of a row in place
+     *
+     * @return false if the row could not be masked and must be skipped
+     */
+    private boolean maskRow(Object[] row, MaskingPlan[] plans) {
+        try {
+            for (int i = 0; i < plans.length; i++) {
+                if (plans[i] != null && row[i] != null) {
+                    row[i] = plans[i].mask(row[i].toString());
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Skipping row that could not be masked: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Statements and compiled plans shared by all partitions of a job
+     */
+    private record TableCopy(String sourceTable, String targetTable, String keyColumn, int keyIndex,
+                             int columnCount, int chunkSize, MaskingPlan[] plans,
+                             String selectSql, String selectLowestSql, String insertSql) {
+    }
+    
+    /**
+     * Key range with an exclusive lower and inclusive upper bound
+     */
+    private record KeyRange(long lower, long upper) {
+    }
+    
+    /**
+     * Counters updated by all workers of a job without contending on a single field
+     */
+    private static final class JobProgress {
+        
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicBoolean cancelled;
+        private final AtomicBoolean halted = new AtomicBoolean();
+        
+        private JobProgress(AtomicBoolean cancelled) {
+            this.cancelled = cancelled;
+        }
+        
+        private boolean isStopped() {
+            return cancelled.get() || halted.get();
+        }
+    }
+}
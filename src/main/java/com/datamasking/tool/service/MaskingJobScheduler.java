@@ -0,0 +1,32 @@
+package com.datamasking.tool.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Triggers job recovery and heartbeats on nodes that serve the API
+ * The mask-csv and mask-columnar commands start without a web server and must not touch the jobs of the
+ * nodes sharing their database
+ */
+@Component
+@ConditionalOnWebApplication
+@RequiredArgsConstructor
+public class MaskingJobScheduler {
+    
+    private final MaskingJobService maskingJobService;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maskingJobService.recoverInterruptedJobs();
+    }
+    
+    @Scheduled(fixedDelayString = "${masking.jobs.heartbeat-interval:15s}",
+               initialDelayString = "${masking.jobs.heartbeat-interval:15s}")
+    public void heartbeat() {
+        maskingJobService.heartbeat();
+    }
+}
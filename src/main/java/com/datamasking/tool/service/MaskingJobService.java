@@ -0,0 +1,382 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.dto.MaskingJobRequest;
+import com.datamasking.tool.model.ColumnMapping;
+import com.datamasking.tool.model.MaskingJob;
+import com.datamasking.tool.model.MaskingJobConfiguration;
+import com.datamasking.tool.model.MaskingJobPartition;
+import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.ColumnMappingRepository;
+import com.datamasking.tool.repository.MaskingJobPartitionRepository;
+import com.datamasking.tool.repository.MaskingJobRepository;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.sql.Connection;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service for submitting, tracking, cancelling and resuming table masking jobs
+ * The masked columns of a job are stored as {@link ColumnMapping}s; jobs are executed asynchronously by
+ * {@link MaskingJobRunner}
+ */
+@Service
+@Slf4j
+public class MaskingJobService {
+    
+    private static final String DEFAULT_KEY_COLUMN = "id";
+    
+    private final MaskingJobRepository maskingJobRepository;
+    private final MaskingJobPartitionRepository maskingJobPartitionRepository;
+    private final ColumnMappingRepository columnMappingRepository;
+    private final MaskingRuleRepository maskingRuleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MaskingJobRunner maskingJobRunner;
+    private final ThreadPoolTaskExecutor maskingJobExecutor;
+    private final ObjectMapper objectMapper;
+    private final AuditLogger auditLogger;
+    private final boolean resumeInterrupted;
+    private final String nodeId;
+    private final Duration heartbeatTimeout;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    
+    // Cancellation flags of jobs queued or running on this node
+    private final Map<Long, AtomicBoolean> activeJobs = new ConcurrentHashMap<>();
+    
+    public MaskingJobService(MaskingJobRepository maskingJobRepository,
+                             MaskingJobPartitionRepository maskingJobPartitionRepository,
+                             ColumnMappingRepository columnMappingRepository,
+                             MaskingRuleRepository maskingRuleRepository,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             MaskingJobRunner maskingJobRunner,
+                             @Qualifier("maskingJobExecutor") ThreadPoolTaskExecutor maskingJobExecutor,
+                             ObjectMapper objectMapper,
+                             AuditLogger auditLogger,
+                             @Value("${masking.jobs.resume-interrupted:false}") boolean resumeInterrupted,
+                             @Value("${masking.jobs.node-id:}") String nodeId,
+                             @Value("${masking.jobs.heartbeat-timeout:60s}") Duration heartbeatTimeout) {
+        this.maskingJobRepository = maskingJobRepository;
+        this.maskingJobPartitionRepository = maskingJobPartitionRepository;
+        this.columnMappingRepository = columnMappingRepository;
+        this.maskingRuleRepository = maskingRuleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maskingJobRunner = maskingJobRunner;
+        this.maskingJobExecutor = maskingJobExecutor;
+        this.objectMapper = objectMapper;
+        this.auditLogger = auditLogger;
+        this.resumeInterrupted = resumeInterrupted;
+        this.nodeId = StringUtils.isNotBlank(nodeId) ? nodeId.trim() : defaultNodeId();
+        this.heartbeatTimeout = heartbeatTimeout;
+        log.info("Masking jobs run as node {}", this.nodeId);
+    }
+    
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+    
+    /**
+     * Handle jobs left pending or running by a stopped node, including a previous instance of this one
+     * A job is taken over only when its owner stopped sending heartbeats, so jobs of other live nodes sharing the
+     * database are left alone. Taken over jobs are resumed from their checkpoints, or marked as failed so they can be
+     * resumed on request
+     */
+    public void recoverInterruptedJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(heartbeatTimeout);
+        for (MaskingJob.JobStatus status : List.of(MaskingJob.JobStatus.RUNNING, MaskingJob.JobStatus.PENDING)) {
+            for (MaskingJob job : maskingJobRepository.findByStatus(status)) {
+                if (activeJobs.containsKey(job.getId())
+                        || maskingJobRepository.claim(job.getId(), status, nodeId, now, staleBefore, startedAt) == 0) {
+                    continue;
+                }
+                if (job.isCancelRequested()) {
+                    log.info("Cancelling interrupted masking job {} of node {}", job.getId(), job.getOwnerNode());
+                    job.setStatus(MaskingJob.JobStatus.CANCELLED);
+                    job.setOwnerNode(nodeId);
+                    job.setHeartbeatAt(now);
+                    maskingJobRepository.save(job);
+                } else if (resumeInterrupted) {
+                    log.info("Resuming interrupted masking job {} of node {}", job.getId(), job.getOwnerNode());
+                    maskingJobRepository.updateStatus(job.getId(), status, MaskingJob.JobStatus.PENDING);
+                    enqueue(job);
+                } else {
+                    log.warn("Masking job {} of node {} was interrupted and can be resumed", job.getId(), job.getOwnerNode());
+                    job.setStatus(MaskingJob.JobStatus.FAILED);
+                    job.setErrorMessage("Interrupted: node " + job.getOwnerNode() + " stopped");
+                    job.setOwnerNode(nodeId);
+                    job.setHeartbeatAt(now);
+                    maskingJobRepository.save(job);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Refresh the heartbeats of the jobs queued or running on this node and stop those another node was asked to
+     * cancel, then take over jobs of stopped nodes
+     */
+    public void heartbeat() {
+        if (!activeJobs.isEmpty()) {
+            maskingJobRepository.heartbeat(activeJobs.keySet(), nodeId, LocalDateTime.now());
+            for (Long id : maskingJobRepository.findCancelRequested(activeJobs.keySet())) {
+                AtomicBoolean cancelled = activeJobs.get(id);
+                if (cancelled != null) {
+                    cancelled.set(true);
+                }
+            }
+        }
+        recoverInterruptedJobs();
+    }
+    
+    /**
+     * Create a job with its column mappings and queue it for execution
+     */
+    public MaskingJob submit(MaskingJobRequest request, String createdBy) {
+        SqlIdentifiers.requireTable(request.getSourceTable());
+        SqlIdentifiers.requireTable(request.getTargetTable());
+        List<ColumnMapping> mappings = resolveMappings(request);
+        if (mappings.isEmpty()) {
+            throw new IllegalArgumentException("At least one column to mask is required");
+        }
+        
+        MaskingJobConfiguration config = new MaskingJobConfiguration(
+            SqlIdentifiers.requireColumn(StringUtils.defaultIfBlank(request.getKeyColumn(), DEFAULT_KEY_COLUMN)),
+            new LinkedHashMap<>(),
+            request.getChunkSize()
+        );
+        
+        MaskingJob job = new MaskingJob();
+        job.setJobName(request.getJobName());
+        job.setSourceTable(request.getSourceTable());
+        job.setTargetTable(request.getTargetTable());
+        job.setParallelism(request.getParallelism() != null ? request.getParallelism() : 1);
+        job.setCreatedBy(createdBy);
+        job.setConfiguration(toJson(config));
+        job.setOwnerNode(nodeId);
+        job.setHeartbeatAt(LocalDateTime.now());
+        MaskingJob saved = transactionTemplate.execute(status -> {
+            MaskingJob created = maskingJobRepository.save(job);
+            mappings.forEach(mapping -> mapping.setJobId(created.getId()));
+            columnMappingRepository.saveAll(mappings);
+            return created;
+        });
+        
+        auditLogger.jobSubmitted(saved);
+        return enqueue(saved);
+    }
+    
+    /**
+     * Collect the columns to mask; columns listed in the request replace discovered mappings of the same column
+     */
+    private List<ColumnMapping> resolveMappings(MaskingJobRequest request) {
+        String table = request.getSourceTable();
+        Map<String, ColumnMapping> mappings = new LinkedHashMap<>();
+        
+        if (Boolean.TRUE.equals(request.getUseDiscoveredMappings())) {
+            Set<Long> activeRules = new HashSet<>();
+            maskingRuleRepository.findAllActive().forEach(rule -> activeRules.add(rule.getId()));
+            String qualifiedTable = qualifyWithDefaultSchema(table);
+            for (ColumnMapping discovered : columnMappingRepository.findByJobIdIsNullOrderByTableNameAscColumnNameAsc()) {
+                if (discovered.getTableName().equalsIgnoreCase(qualifiedTable)) {
+                    // Proposed rules are inactive until reviewed, so those columns use the active rule of their type
+                    Long ruleId = activeRules.contains(discovered.getRuleId()) ? discovered.getRuleId() : null;
+                    mappings.put(columnKey(discovered.getColumnName()),
+                        mapping(table, discovered.getColumnName(), discovered.getPiiType(), ruleId));
+                }
+            }
+        }
+        
+        Set<String> listed = new HashSet<>();
+        if (request.getColumns() != null) {
+            for (Map.Entry<String, PiiType> entry : request.getColumns().entrySet()) {
+                addListed(mappings, listed, mapping(table, entry.getKey(), entry.getValue(), null));
+            }
+        }
+        if (request.getColumnRules() != null) {
+            for (Map.Entry<String, Long> entry : request.getColumnRules().entrySet()) {
+                MaskingRule rule = maskingRuleRepository.findById(entry.getValue())
+                    .orElseThrow(() -> new IllegalArgumentException("Masking rule not found: " + entry.getValue()));
+                addListed(mappings, listed, mapping(table, entry.getKey(), rule.getPiiType(), rule.getId()));
+            }
+        }
+        return new ArrayList<>(mappings.values());
+    }
+    
+    private static void addListed(Map<String, ColumnMapping> mappings, Set<String> listed, ColumnMapping mapping) {
+        String key = columnKey(mapping.getColumnName());
+        if (!listed.add(key)) {
+            throw new IllegalArgumentException("Column is listed more than once: " + mapping.getColumnName());
+        }
+        mappings.put(key, mapping);
+    }
+    
+    private static ColumnMapping mapping(String table, String column, PiiType piiType, Long ruleId) {
+        if (piiType == null) {
+            throw new IllegalArgumentException("PII type is required for column: " + column);
+        }
+        ColumnMapping mapping = new ColumnMapping();
+        mapping.setTableName(table);
+        mapping.setColumnName(SqlIdentifiers.requireColumn(column));
+        mapping.setPiiType(piiType);
+        mapping.setRuleId(ruleId);
+        return mapping;
+    }
+    
+    private static String columnKey(String column) {
+        return column.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Discovered tables are qualified with their schema, job tables may be given without it
+     * An unqualified job table is the one in the default schema of the connection, never a namesake in another schema
+     */
+    private String qualifyWithDefaultSchema(String table) {
+        if (table.indexOf('.') >= 0) {
+            return table;
+        }
+        String schema = jdbcTemplate.execute((ConnectionCallback<String>) Connection::getSchema);
+        return schema != null ? schema + "." + table : table;
+    }
+    
+    /**
+     * Resume a failed or cancelled job from its partition checkpoints
+     *
+     * @return the job, or empty if it does not exist
+     * @throws IllegalStateException if the job is not failed or cancelled
+     */
+    public Optional<MaskingJob> resume(Long id) {
+        Optional<MaskingJob> job = maskingJobRepository.findById(id);
+        if (job.isEmpty()) {
+            return job;
+        }
+        
+        MaskingJob.JobStatus status = job.get().getStatus();
+        if ((status != MaskingJob.JobStatus.FAILED && status != MaskingJob.JobStatus.CANCELLED)
+                || activeJobs.containsKey(id)
+                || maskingJobRepository.updateStatus(id, status, MaskingJob.JobStatus.PENDING,
+                       nodeId, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Job " + id + " cannot be resumed while " + status);
+        }
+        
+        auditLogger.jobResumed(id);
+        MaskingJob pending = maskingJobRepository.findById(id).orElseThrow();
+        return Optional.of(enqueue(pending));
+    }
+    
+    /**
+     * Get the column mappings a job masks
+     */
+    public List<ColumnMapping> getColumns(Long id) {
+        return columnMappingRepository.findByJobIdOrderById(id);
+    }
+    
+    /**
+     * Get the partitions of a job with their checkpoints
+     */
+    public List<MaskingJobPartition> getPartitions(Long id) {
+        return maskingJobPartitionRepository.findByJobIdOrderByPartitionIndex(id);
+    }
+    
+    private MaskingJob enqueue(MaskingJob job) {
+        Long jobId = job.getId();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        activeJobs.put(jobId, cancelled);
+        maskingJobRepository.heartbeat(List.of(jobId), nodeId, LocalDateTime.now());
+        try {
+            maskingJobExecutor.execute(() -> {
+                try {
+                    maskingJobRunner.run(jobId, cancelled);
+                } finally {
+                    activeJobs.remove(jobId);
+                }
+            });
+            return job;
+        } catch (RuntimeException e) {
+            activeJobs.remove(jobId);
+            job.setStatus(MaskingJob.JobStatus.FAILED);
+            job.setErrorMessage("Job queue is full");
+            return maskingJobRepository.save(job);
+        }
+    }
+    
+    /**
+     * Get a job with its current progress
+     */
+    public Optional<MaskingJob> getJob(Long id) {
+        return maskingJobRepository.findById(id);
+    }
+    
+    /**
+     * Request cancellation of a pending or running job
+     * A job running on another node stops after its current chunk once that node sees the request at its next
+     * heartbeat
+     *
+     * @return the job, or empty if it does not exist
+     * @throws IllegalStateException if the job has already finished
+     */
+    public Optional<MaskingJob> cancel(Long id) {
+        Optional<MaskingJob> job = maskingJobRepository.findById(id);
+        if (job.isEmpty()) {
+            return job;
+        }
+        
+        MaskingJob.JobStatus status = job.get().getStatus();
+        if ((status != MaskingJob.JobStatus.PENDING && status != MaskingJob.JobStatus.RUNNING)
+                || maskingJobRepository.requestCancel(id) == 0) {
+            throw new IllegalStateException("Job " + id + " is already "
+                + maskingJobRepository.findById(id).map(MaskingJob::getStatus).orElse(status));
+        }
+        
+        AtomicBoolean cancelled = activeJobs.get(id);
+        if (cancelled != null) {
+            cancelled.set(true);
+        }
+        // Queued jobs never report back, so mark them here; running jobs stop after the current chunk
+        maskingJobRepository.updateStatus(id, MaskingJob.JobStatus.PENDING, MaskingJob.JobStatus.CANCELLED);
+        
+        auditLogger.jobCancelled(id);
+        return maskingJobRepository.findById(id);
+    }
+    
+    private String toJson(MaskingJobConfiguration config) {
+        try {
+            return objectMapper.writeValueAsString(config);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid job configuration: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.MaskingStrategy;
+import com.datamasking.tool.model.PiiType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for masking operations, tagged by PII type, strategy and outcome
+ * Every combination is registered up front and each plan holds its own meters,
+ * so recording a value allocates nothing and never looks up tags
+ */
+@Service
+public class MaskingMetrics {
+    
+    // Strategy tag for requests that failed before a strategy was resolved
+    private static final String NO_STRATEGY = "none";
+    
+    private final PlanMeters[][] planMeters;
+    private final Counter[][] failedRequests;
+    
+    public MaskingMetrics(MeterRegistry registry) {
+        PiiType[] types = PiiType.values();
+        MaskingStrategy[] strategies = MaskingStrategy.values();
+        this.planMeters = new PlanMeters[types.length][strategies.length];
+        this.failedRequests = new Counter[types.length][strategies.length + 1];
+        
+        for (PiiType type : types) {
+            for (MaskingStrategy strategy : strategies) {
+                planMeters[type.ordinal()][strategy.ordinal()] = new PlanMeters(registry, type.name(), strategy.name());
+                failedRequests[type.ordinal()][strategy.ordinal() + 1] = failedRequestCounter(registry, type.name(), strategy.name());
+            }
+            failedRequests[type.ordinal()][0] = failedRequestCounter(registry, type.name(), NO_STRATEGY);
+        }
+    }
+    
+    /**
+     * Meters a plan records into on every masked value
+     */
+    public PlanMeters forPlan(PiiType piiType, MaskingStrategy strategy) {
+        return planMeters[piiType.ordinal()][strategy.ordinal()];
+    }
+    
+    /**
+     * Count a masking request answered with success=false
+     */
+    public void recordFailedRequest(PiiType piiType, MaskingStrategy strategy) {
+        if (piiType != null) {
+            failedRequests[piiType.ordinal()][strategy == null ? 0 : strategy.ordinal() + 1].increment();
+        }
+    }
+    
+    private static Counter failedRequestCounter(MeterRegistry registry, String piiType, String strategy) {
+        return Counter.builder("masking.requests.failed")
+            .description("Masking requests answered with success=false")
+            .tag("piiType", piiType)
+            .tag("strategy", strategy)
+            .register(registry);
+    }
+    
+    /**
+     * Timers and input size distribution of one PII type and strategy
+     */
+    public static final class PlanMeters {
+        
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary inputSize;
+        
+        private PlanMeters(MeterRegistry registry, String piiType, String strategy) {
+            this.success = timer(registry, piiType, strategy, "success");
+            this.error = timer(registry, piiType, strategy, "error");
+            this.inputSize = DistributionSummary.builder("masking.input.size")
+                .description("Length of masked values in characters")
+                .baseUnit("characters")
+                .tag("piiType", piiType)
+                .tag("strategy", strategy)
+                .register(registry);
+        }
+        
+        void recordSuccess(long startNanos, int length) {
+            success.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            inputSize.record(length);
+        }
+        
+        void recordError(long startNanos, int length) {
+            error.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            inputSize.record(length);
+        }
+        
+        private static Timer timer(MeterRegistry registry, String piiType, String strategy, String outcome) {
+            return Timer.builder("masking.operations")
+                .description("Time spent masking single values")
+                .tag("piiType", piiType)
+                .tag("strategy", strategy)
+                .tag("outcome", outcome)
+                .register(registry);
+        }
+    }
+}
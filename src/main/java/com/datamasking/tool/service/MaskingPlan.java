@@ -0,0 +1,102 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.MaskingStrategy;
+import com.datamasking.tool.model.PiiType;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Masking configuration compiled into a single masker
+ * Strategy dispatch and option flags are resolved once when the plan is built,
+ * so hot loops only pay for {@link #mask(CharSequence)}
+ */
+public final class MaskingPlan {
+    
+    private final Key key;
+    private final Masker masker;
+    private final MaskingMetrics.PlanMeters meters;
+    
+    MaskingPlan(Key key, Masker masker, MaskingMetrics.PlanMeters meters) {
+        this.key = key;
+        this.masker = masker;
+        this.meters = meters;
+    }
+    
+    /**
+     * Mask a single value; null and blank values are returned unchanged
+     * The bulk maskers (stream, CSV, JSON document and columnar) catch the exception of a value that cannot be
+     * masked, count it as failed and write null (an empty CSV field) in its place, so an original value never
+     * reaches their output
+     *
+     * @throws RuntimeException if the masker fails, for example on a value it cannot parse
+     */
+    public String mask(CharSequence value) {
+        if (value == null) {
+            return null;
+        }
+        String data = value.toString();
+        if (StringUtils.isBlank(data)) {
+            return data;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            String masked = masker.mask(data);
+            meters.recordSuccess(start, data.length());
+            return masked;
+        } catch (RuntimeException e) {
+            meters.recordError(start, data.length());
+            throw e;
+        }
+    }
+    
+    public Key getKey() {
+        return key;
+    }
+    
+    public PiiType getPiiType() {
+        return key.piiType();
+    }
+    
+    public MaskingStrategy getStrategy() {
+        return key.strategy();
+    }
+    
+    /**
+     * Normalized plan configuration, used as the plan cache key
+     */
+    public record Key(PiiType piiType, MaskingStrategy strategy,
+                      boolean preserveLength, boolean preserveFormat, String replacementValue, String keyId) {
+        
+        public Key {
+            if (piiType == null) {
+                throw new IllegalArgumentException("PII type is required");
+            }
+            if (strategy == null) {
+                throw new IllegalArgumentException("Masking strategy is required");
+            }
+        }
+        
+        /**
+         * Build a key from request style options
+         * Missing flags default to true like on {@link MaskingRule}, and the replacement value and
+         * key ID only take part in the key for the strategies that use them
+         */
+        public static Key of(PiiType piiType, MaskingStrategy strategy, String replacementValue,
+                             Boolean preserveLength, Boolean preserveFormat, String keyId) {
+            return new Key(
+                piiType,
+                strategy,
+                !Boolean.FALSE.equals(preserveLength),
+                !Boolean.FALSE.equals(preserveFormat),
+                strategy == MaskingStrategy.PLACEHOLDER ? replacementValue : null,
+                strategy == MaskingStrategy.HMAC && StringUtils.isNotBlank(keyId) ? keyId : null
+            );
+        }
+        
+        public static Key of(MaskingRule rule) {
+            return of(rule.getPiiType(), rule.getStrategy(), rule.getReplacementValue(),
+                rule.getPreserveLength(), rule.getPreserveFormat(), rule.getKeyId());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory snapshot of active masking rules keyed by PII type
+ * Loaded at startup and replaced as a whole whenever rules change, so lookups never hit the database
+ */
+@Service
+@Slf4j
+public class MaskingRuleCache implements MeterBinder {
+    
+    private final MaskingRuleRepository maskingRuleRepository;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    // Immutable once published; refresh swaps in a new map
+    private volatile Map<PiiType, MaskingRule> rules;
+    
+    public MaskingRuleCache(MaskingRuleRepository maskingRuleRepository) {
+        this.maskingRuleRepository = maskingRuleRepository;
+    }
+    
+    /**
+     * Load the snapshot once the application, including the data seeder, has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+    
+    /**
+     * Reload all active rules and swap the snapshot atomically
+     */
+    public synchronized void refresh() {
+        Map<PiiType, MaskingRule> snapshot = new EnumMap<>(PiiType.class);
+        for (MaskingRule rule : maskingRuleRepository.findAllActive()) {
+            snapshot.putIfAbsent(rule.getPiiType(), rule);
+        }
+        rules = Collections.unmodifiableMap(snapshot);
+        log.debug("Loaded {} active masking rules", snapshot.size());
+    }
+    
+    /**
+     * Get the active masking rule for a PII type
+     */
+    public Optional<MaskingRule> get(PiiType piiType) {
+        Map<PiiType, MaskingRule> snapshot = rules;
+        if (snapshot == null) {
+            refresh();
+            snapshot = rules;
+        }
+        
+        MaskingRule rule = snapshot.get(piiType);
+        if (rule != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return Optional.ofNullable(rule);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("masking.rule.cache.requests", hits, LongAdder::sum)
+            .description("Active masking rule lookups")
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("masking.rule.cache.requests", misses, LongAdder::sum)
+            .description("Active masking rule lookups")
+            .tag("result", "miss")
+            .register(registry);
+        Gauge.builder("masking.rule.cache.size", this, cache -> cache.rules == null ? 0 : cache.rules.size())
+            .description("Active masking rules held in memory")
+            .register(registry);
+    }
+}
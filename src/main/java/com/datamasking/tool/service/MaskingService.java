@@ -3,19 +3,21 @@ package com.datamasking.tool.service;
 import com.datamasking.tool.dto.MaskingRequest;
 import com.datamasking.tool.dto.MaskingResponse;
 import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.MaskingStrategy;
 import com.datamasking.tool.model.PiiType;
-import com.datamasking.tool.repository.MaskingRuleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Service for data masking operations
@@ -26,44 +28,92 @@ import java.util.regex.Pattern;
 @Slf4j
 public class MaskingService {
     
-    private final MaskingRuleRepository maskingRuleRepository;
+    private final MaskingRuleCache maskingRuleCache;
+    private final HmacHasher hmacHasher;
+    private final FormatPreservingEncryptor formatPreservingEncryptor;
+    private final RandomValueGenerator randomValueGenerator;
+    private final PseudonymDictionary pseudonymDictionary;
+    private final SyntheticValueGenerator syntheticValueGenerator;
+    private final MaskingMetrics maskingMetrics;
+    private final MaskingActivityLog maskingActivityLog;
     
-    // Regex patterns for different PII types
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$");
+    // Compiled plans keyed by normalized configuration
+    private final Map<MaskingPlan.Key, MaskingPlan> plans = new ConcurrentHashMap<>();
+    
+    // Plan of the active rule per PII type, indexed by ordinal
+    private final AtomicReferenceArray<RulePlan> rulePlans = new AtomicReferenceArray<>(PiiType.values().length);
+    
+    private static final int MAX_CACHED_PLANS = 1024;
+    private static final int FIXED_MASK_LENGTH = 8;
+    private static final String FIXED_ASTERISKS = StringUtils.repeat("*", FIXED_MASK_LENGTH);
+    
+    /**
+     * Refuse to start when an active rule needs a key that is not configured: an FPE key for format-preserving
+     * encryption, or an HMAC key for HMAC rules and the substitute names and addresses of RANDOM rules
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyRuleKeys() {
+        for (PiiType piiType : PiiType.values()) {
+            maskingRuleCache.get(piiType).ifPresent(rule -> {
+                MaskingStrategy strategy = rule.getStrategy();
+                if (strategy == MaskingStrategy.FORMAT_PRESERVING) {
+                    formatPreservingEncryptor.requireKey();
+                } else if (strategy == MaskingStrategy.HMAC) {
+                    hmacHasher.requireKey(rule.getKeyId());
+                } else if (strategy == MaskingStrategy.RANDOM && isSubstituted(piiType)) {
+                    hmacHasher.requireKey(null);
+                }
+            });
+        }
+    }
+    
+    private static boolean isSubstituted(PiiType piiType) {
+        return switch (piiType) {
+            case FULL_NAME, FIRST_NAME, LAST_NAME, ADDRESS -> true;
+            default -> false;
+        };
+    }
     
     /**
      * Mask a single data value
      */
     public MaskingResponse maskData(MaskingRequest request) {
         try {
-            log.info("Masking data of type: {} with strategy: {}", request.getPiiType(), request.getStrategy());
-            
-            String maskedData = applyMaskingStrategy(
-                request.getData(), 
-                request.getPiiType(), 
-                request.getStrategy(),
-                request.getCustomPattern(),
-                request.getReplacementValue(),
-                request.getPreserveLength(),
-                request.getPreserveFormat()
-            );
+            MaskingPlan plan = getPlan(request);
+            String maskedData = plan.mask(request.getData());
+            maskingActivityLog.recordSuccess(request.getPiiType());
             
+            if (Boolean.TRUE.equals(request.getCompact())) {
+                return MaskingResponse.builder()
+                    .maskedData(maskedData)
+                    .build();
+            }
             return MaskingResponse.builder()
                 .originalData(request.getData())
                 .maskedData(maskedData)
                 .piiType(request.getPiiType().name())
-                .strategy(request.getStrategy().name())
+                .strategy(plan.getStrategy().name())
                 .processedAt(LocalDateTime.now())
                 .success(true)
                 .build();
-                
+        
         } catch (Exception e) {
-            log.error("Error masking data: {}", e.getMessage(), e);
+            // Failures are summarized periodically; the stack trace is only worth it while debugging
+            log.debug("Error masking data: {}", e.getMessage(), e);
+            maskingMetrics.recordFailedRequest(request.getPiiType(), request.getStrategy());
+            maskingActivityLog.recordFailure(request.getPiiType(), e.getMessage());
+            
+            if (Boolean.TRUE.equals(request.getCompact())) {
+                return MaskingResponse.builder()
+                    .success(false)
+                    .errorMessage(e.getMessage())
+                    .build();
+            }
             return MaskingResponse.builder()
                 .originalData(request.getData())
                 .maskedData(null)
                 .piiType(request.getPiiType().name())
-                .strategy(request.getStrategy().name())
+                .strategy(request.getStrategy() != null ? request.getStrategy().name() : null)
                 .processedAt(LocalDateTime.now())
                 .success(false)
                 .errorMessage(e.getMessage())
@@ -73,93 +123,186 @@ public class MaskingService {
     
     /**
      * Apply masking strategy to data
+     * Shared by single-value and bulk masking paths
      */
-    private String applyMaskingStrategy(String data, PiiType piiType, 
+    public String applyMaskingStrategy(String data, PiiType piiType, 
                                         com.datamasking.tool.model.MaskingStrategy strategy,
                                         String customPattern, String replacementValue,
                                         Boolean preserveLength, Boolean preserveFormat) {
         
-        if (StringUtils.isBlank(data)) {
-            return data;
+        return getPlan(piiType, strategy, replacementValue, preserveLength, preserveFormat, null).mask(data);
+    }
+    
+    /**
+     * Get the compiled masking plan for a request
+     * Requests without a strategy use the active masking rule for their PII type
+     */
+    public MaskingPlan getPlan(MaskingRequest request) {
+        if (request.getStrategy() == null) {
+            return getRulePlan(request.getPiiType());
         }
+        return getPlan(
+            request.getPiiType(),
+            request.getStrategy(),
+            request.getReplacementValue(),
+            request.getPreserveLength(),
+            request.getPreserveFormat(),
+            request.getKeyId()
+        );
+    }
+    
+    /**
+     * Get the compiled masking plan of the active masking rule for a PII type
+     */
+    public MaskingPlan getRulePlan(PiiType piiType) {
+        MaskingRule rule = maskingRuleCache.get(piiType)
+            .orElseThrow(() -> new IllegalArgumentException("No active masking rule for PII type: " + piiType));
         
-        return switch (strategy) {
-            case ASTERISK -> maskWithAsterisks(data, piiType, preserveLength, preserveFormat);
-            case RANDOM -> maskWithRandom(data, piiType, preserveLength, preserveFormat);
-            case PLACEHOLDER -> maskWithPlaceholder(data, piiType, replacementValue);
-            case HASH -> maskWithHash(data);
-            case NULLIFY -> null;
-            case PARTIAL -> maskPartially(data, piiType, preserveLength);
-            case FORMAT_PRESERVING -> maskFormatPreserving(data, piiType, preserveFormat);
+        // Rule snapshots are replaced on change, so identity tells whether the plan is still current
+        RulePlan rulePlan = rulePlans.get(piiType.ordinal());
+        if (rulePlan == null || rulePlan.rule() != rule) {
+            rulePlan = new RulePlan(rule, getPlan(rule));
+            rulePlans.set(piiType.ordinal(), rulePlan);
+        }
+        return rulePlan.plan();
+    }
+    
+    /**
+     * Get the compiled masking plan for a configuration
+     * Plans are cached, so callers masking many values should resolve the plan once and reuse it
+     */
+    public MaskingPlan getPlan(PiiType piiType, com.datamasking.tool.model.MaskingStrategy strategy,
+                               String replacementValue, Boolean preserveLength, Boolean preserveFormat,
+                               String keyId) {
+        return getPlan(MaskingPlan.Key.of(piiType, strategy, replacementValue, preserveLength, preserveFormat, keyId));
+    }
+    
+    /**
+     * Get the compiled masking plan for a masking rule
+     */
+    public MaskingPlan getPlan(MaskingRule rule) {
+        return getPlan(MaskingPlan.Key.of(rule));
+    }
+    
+    private MaskingPlan getPlan(MaskingPlan.Key key) {
+        MaskingPlan plan = plans.get(key);
+        if (plan != null) {
+            return plan;
+        }
+        // Placeholder values come from callers, so stop caching once the cache is full
+        if (plans.size() >= MAX_CACHED_PLANS) {
+            return compile(key);
+        }
+        return plans.computeIfAbsent(key, this::compile);
+    }
+    
+    private MaskingPlan compile(MaskingPlan.Key key) {
+        Masker masker = isSpanMasked(key) ? textMasker(key) : masker(key);
+        return new MaskingPlan(key, masker, maskingMetrics.forPlan(key.piiType(), key.strategy()));
+    }
+    
+    private Masker masker(MaskingPlan.Key key) {
+        PiiType piiType = key.piiType();
+        boolean preserveLength = key.preserveLength();
+        boolean preserveFormat = key.preserveFormat();
+        
+        return switch (key.strategy()) {
+            case ASTERISK -> asteriskMasker(piiType, preserveLength, preserveFormat);
+            case RANDOM -> randomMasker(piiType, preserveLength, preserveFormat);
+            case PLACEHOLDER -> placeholderMasker(piiType, key.replacementValue());
+            case HASH -> Sha256Hasher::hash;
+            case NULLIFY -> data -> null;
+            case PARTIAL -> this::maskPartially;
+            case FORMAT_PRESERVING -> formatPreservingMasker(piiType, preserveFormat);
+            case HMAC -> hmacHasher.masker(key.keyId());
+        };
+    }
+    
+    /**
+     * Free text keeps its wording for strategies with per-type maskers; only detected PII spans are replaced
+     */
+    private static boolean isSpanMasked(MaskingPlan.Key key) {
+        return key.piiType() == PiiType.TEXT && switch (key.strategy()) {
+            case ASTERISK, RANDOM, FORMAT_PRESERVING -> true;
+            default -> false;
         };
     }
     
+    /**
+     * Mask the PII spans found in free text, each with the plan of its detected type
+     * Values after secret labels have no type of their own and get the plain TEXT masker
+     */
+    private Masker textMasker(MaskingPlan.Key key) {
+        Masker[] maskers = new Masker[PiiType.values().length];
+        for (PiiType type : TextPiiScanner.DETECTED_TYPES) {
+            if (type == PiiType.TEXT) {
+                maskers[type.ordinal()] = masker(key);
+            } else {
+                // Compiled outside the plan cache, as this already runs inside its computeIfAbsent
+                MaskingPlan spanPlan = compile(new MaskingPlan.Key(type, key.strategy(), key.preserveLength(),
+                    key.preserveFormat(), key.replacementValue(), key.keyId()));
+                maskers[type.ordinal()] = spanPlan::mask;
+            }
+        }
+        return text -> TextPiiScanner.mask(text, maskers);
+    }
+    
     /**
      * Mask with asterisks (*)
      */
-    private String maskWithAsterisks(String data, PiiType piiType, Boolean preserveLength, Boolean preserveFormat) {
+    private Masker asteriskMasker(PiiType piiType, boolean preserveLength, boolean preserveFormat) {
         return switch (piiType) {
-            case EMAIL -> maskEmailWithAsterisks(data, preserveFormat);
-            case PHONE -> maskPhoneWithAsterisks(data, preserveFormat);
-            case TC_KIMLIK_NO -> maskTcWithAsterisks(data);
-            case CREDIT_CARD -> maskCreditCardWithAsterisks(data);
-            case FULL_NAME, FIRST_NAME, LAST_NAME -> maskNameWithAsterisks(data);
-            case ADDRESS -> maskAddressWithAsterisks(data);
-            default -> StringUtils.repeat("*", preserveLength ? data.length() : 8);
+            case EMAIL -> data -> maskEmailWithAsterisks(data, preserveFormat);
+            case PHONE -> data -> maskPhoneWithAsterisks(data, preserveFormat);
+            case TC_KIMLIK_NO -> this::maskTcWithAsterisks;
+            case CREDIT_CARD -> this::maskCreditCardWithAsterisks;
+            case FULL_NAME, FIRST_NAME, LAST_NAME -> this::maskNameWithAsterisks;
+            case ADDRESS -> this::maskAddressWithAsterisks;
+            default -> preserveLength
+                ? data -> StringUtils.repeat("*", data.length())
+                : data -> FIXED_ASTERISKS;
         };
     }
     
     /**
      * Mask with random characters
      */
-    private String maskWithRandom(String data, PiiType piiType, Boolean preserveLength, Boolean preserveFormat) {
+    private Masker randomMasker(PiiType piiType, boolean preserveLength, boolean preserveFormat) {
         return switch (piiType) {
-            case EMAIL -> maskEmailWithRandom(data, preserveFormat);
-            case PHONE -> maskPhoneWithRandom(data, preserveFormat);
-            case TC_KIMLIK_NO -> maskTcWithRandom(data);
-            case CREDIT_CARD -> maskCreditCardWithRandom(data);
-            case FULL_NAME, FIRST_NAME, LAST_NAME -> maskNameWithRandom(data);
-            case ADDRESS -> maskAddressWithRandom(data);
-            default -> generateRandomString(preserveLength ? data.length() : 8);
+            case EMAIL -> consistent(piiType, preserveFormat, data -> maskEmailWithRandom(data, preserveFormat));
+            case PHONE -> data -> maskPhoneWithRandom(data, preserveFormat);
+            case TC_KIMLIK_NO -> this::maskTcWithRandom;
+            case CREDIT_CARD -> this::maskCreditCardWithRandom;
+            // Substitute names are already a deterministic function of the value, the dictionary adds nothing
+            case FULL_NAME, FIRST_NAME, LAST_NAME -> data -> maskNameWithRandom(data, piiType);
+            case ADDRESS -> this::maskAddressWithRandom;
+            default -> preserveLength
+                ? data -> generateRandomString(data.length())
+                : data -> generateRandomString(FIXED_MASK_LENGTH);
         };
     }
     
     /**
-     * Mask with placeholder
+     * Keep the first pseudonym of every value when consistent random masking is enabled
      */
-    private String maskWithPlaceholder(String data, PiiType piiType, String replacementValue) {
-        if (StringUtils.isNotBlank(replacementValue)) {
-            return replacementValue;
-        }
-        return "[" + piiType.name() + "_MASKED]";
+    private Masker consistent(PiiType piiType, boolean preserveFormat, Masker masker) {
+        return pseudonymDictionary.isEnabled() ? pseudonymDictionary.masker(piiType, preserveFormat, masker) : masker;
     }
     
     /**
-     * Mask with hash
+     * Mask with placeholder
      */
-    private String maskWithHash(String data) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(data.getBytes());
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            log.error("SHA-256 algorithm not available", e);
-            return "HASH_ERROR";
-        }
+    private Masker placeholderMasker(PiiType piiType, String replacementValue) {
+        String placeholder = StringUtils.isNotBlank(replacementValue)
+            ? replacementValue
+            : "[" + piiType.name() + "_MASKED]";
+        return data -> placeholder;
     }
     
     /**
      * Partial masking
      */
-    private String maskPartially(String data, PiiType piiType, Boolean preserveLength) {
+    private String maskPartially(String data) {
         if (data.length() <= 2) {
             return StringUtils.repeat("*", data.length());
         }
@@ -174,61 +317,62 @@ public class MaskingService {
     
     /**
      * Format preserving masking
+     * Structured identifiers are encrypted with FF1, other types and too short values are randomized
      */
-    private String maskFormatPreserving(String data, PiiType piiType, Boolean preserveFormat) {
-        // This is a simplified version - in production, you'd use proper format-preserving encryption
-        return maskWithRandom(data, piiType, true, preserveFormat);
+    private Masker formatPreservingMasker(PiiType piiType, boolean preserveFormat) {
+        Masker fallback = randomMasker(piiType, true, preserveFormat);
+        return formatPreservingEncryptor.supports(piiType)
+            ? formatPreservingEncryptor.masker(piiType, fallback)
+            : fallback;
     }
     
     // Specific masking methods for different PII types
     
-    private String maskEmailWithAsterisks(String email, Boolean preserveFormat) {
-        if (!EMAIL_PATTERN.matcher(email).matches()) {
-            return StringUtils.repeat("*", email.length());
+    private String maskEmailWithAsterisks(String email, boolean preserveFormat) {
+        int at = PiiValidators.emailDomainIndex(email);
+        if (at < 0) {
+            return StringUtils.repeat('*', email.length());
         }
         
-        String[] parts = email.split("@");
-        String localPart = parts[0];
-        String domain = parts[1];
-        
         if (preserveFormat) {
-            String maskedLocal = localPart.length() > 2 ? 
-                localPart.charAt(0) + StringUtils.repeat("*", localPart.length() - 2) + localPart.charAt(localPart.length() - 1) :
-                StringUtils.repeat("*", localPart.length());
-            return maskedLocal + "@" + domain;
+            char[] masked = email.toCharArray();
+            if (at > 2) {
+                Arrays.fill(masked, 1, at - 1, '*');
+            } else {
+                Arrays.fill(masked, 0, at, '*');
+            }
+            return new String(masked);
         } else {
-            return "***@" + domain;
+            return withLocalPart(email, at, "***");
         }
     }
     
-    private String maskEmailWithRandom(String email, Boolean preserveFormat) {
-        if (!EMAIL_PATTERN.matcher(email).matches()) {
+    private String maskEmailWithRandom(String email, boolean preserveFormat) {
+        int at = PiiValidators.emailDomainIndex(email);
+        if (at < 0) {
             return generateRandomString(email.length());
         }
         
-        String[] parts = email.split("@");
-        String localPart = parts[0];
-        String domain = parts[1];
-        
         if (preserveFormat) {
-            String randomLocal = generateRandomString(localPart.length());
-            return randomLocal + "@" + domain;
+            char[] masked = email.toCharArray();
+            randomValueGenerator.fillAlphanumeric(masked, 0, at);
+            return new String(masked);
         } else {
-            return generateRandomString(8) + "@" + domain;
+            return withLocalPart(email, at, generateRandomString(8));
         }
     }
     
-    private String maskPhoneWithAsterisks(String phone, Boolean preserveFormat) {
+    private String maskPhoneWithAsterisks(String phone, boolean preserveFormat) {
         if (preserveFormat) {
-            return phone.replaceAll("[0-9]", "*");
+            return replaceDigits(phone, '*');
         } else {
-            return StringUtils.repeat("*", phone.length());
+            return StringUtils.repeat('*', phone.length());
         }
     }
     
-    private String maskPhoneWithRandom(String phone, Boolean preserveFormat) {
+    private String maskPhoneWithRandom(String phone, boolean preserveFormat) {
         if (preserveFormat) {
-            return phone.replaceAll("[0-9]", "X");
+            return replaceDigits(phone, 'X');
         } else {
             return generateRandomString(phone.length());
         }
@@ -243,23 +387,29 @@ public class MaskingService {
     
     private String maskTcWithRandom(String tc) {
         if (tc.length() == 11) {
-            return tc.substring(0, 3) + generateRandomNumeric(4) + tc.substring(7);
+            char[] masked = tc.toCharArray();
+            randomValueGenerator.fillNumeric(masked, 3, 4);
+            return new String(masked);
         }
         return generateRandomNumeric(tc.length());
     }
     
     private String maskCreditCardWithAsterisks(String card) {
-        String cleaned = card.replaceAll("[^0-9]", "");
-        if (cleaned.length() >= 4) {
-            return StringUtils.repeat("*", cleaned.length() - 4) + cleaned.substring(cleaned.length() - 4);
+        char[] digits = new char[card.length()];
+        int count = collectDigits(card, digits);
+        if (count >= 4) {
+            Arrays.fill(digits, 0, count - 4, '*');
+            return new String(digits, 0, count);
         }
-        return StringUtils.repeat("*", card.length());
+        return StringUtils.repeat('*', card.length());
     }
     
     private String maskCreditCardWithRandom(String card) {
-        String cleaned = card.replaceAll("[^0-9]", "");
-        if (cleaned.length() >= 4) {
-            return generateRandomNumeric(cleaned.length() - 4) + cleaned.substring(cleaned.length() - 4);
+        char[] digits = new char[card.length()];
+        int count = collectDigits(card, digits);
+        if (count >= 4) {
+            randomValueGenerator.fillNumeric(digits, 0, count - 4);
+            return new String(digits, 0, count);
         }
         return generateRandomNumeric(card.length());
     }
@@ -271,8 +421,8 @@ public class MaskingService {
         return name.charAt(0) + StringUtils.repeat("*", name.length() - 1);
     }
     
-    private String maskNameWithRandom(String name) {
-        return generateRandomString(name.length());
+    private String maskNameWithRandom(String name, PiiType piiType) {
+        return syntheticValueGenerator.name(name, piiType);
     }
     
     private String maskAddressWithAsterisks(String address) {
@@ -280,23 +430,64 @@ public class MaskingService {
     }
     
     private String maskAddressWithRandom(String address) {
-        return generateRandomString(address.length());
+        return syntheticValueGenerator.address(address);
     }
     
     // Utility methods
     
+    private static String withLocalPart(String email, int at, String localPart) {
+        char[] masked = new char[localPart.length() + email.length() - at];
+        localPart.getChars(0, localPart.length(), masked, 0);
+        email.getChars(at, email.length(), masked, localPart.length());
+        return new String(masked);
+    }
+    
+    private static String replaceDigits(String value, char replacement) {
+        char[] masked = value.toCharArray();
+        for (int i = 0; i < masked.length; i++) {
+            if (isAsciiDigit(masked[i])) {
+                masked[i] = replacement;
+            }
+        }
+        return new String(masked);
+    }
+    
+    /**
+     * Copy the ASCII digits of a value to the start of the target
+     *
+     * @return number of digits copied
+     */
+    private static int collectDigits(String value, char[] target) {
+        int count = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isAsciiDigit(c)) {
+                target[count++] = c;
+            }
+        }
+        return count;
+    }
+    
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    
     private String generateRandomString(int length) {
-        return RandomStringUtils.randomAlphanumeric(length);
+        return randomValueGenerator.alphanumeric(length);
     }
     
     private String generateRandomNumeric(int length) {
-        return RandomStringUtils.randomNumeric(length);
+        return randomValueGenerator.numeric(length);
     }
     
     /**
      * Get default masking rule for PII type
      */
     public Optional<MaskingRule> getDefaultRule(PiiType piiType) {
-        return maskingRuleRepository.findActiveByPiiType(piiType);
+        return maskingRuleCache.get(piiType);
+    }
+    
+    private record RulePlan(MaskingRule rule, MaskingPlan plan) {
     }
 }
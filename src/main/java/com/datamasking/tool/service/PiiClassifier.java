@@ -0,0 +1,166 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.dto.ClassificationResponse;
+import com.datamasking.tool.model.PiiType;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service for detecting the PII type of values
+ * Checks run cheapest first: a length bound, one pass counting character classes, dispatch on that shape,
+ * and only then the checksum of the single candidate type (TC Kimlik, Luhn, IBAN mod-97, IP parsing)
+ */
+@Service
+public class PiiClassifier {
+    
+    // Shortest value is the IPv6 "::", longest an email address
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 254;
+    private static final int MAX_DIGITS = 19;
+    
+    private final double minConfidence;
+    
+    public PiiClassifier(@Value("${masking.classification.min-confidence:0.8}") double minConfidence) {
+        if (minConfidence <= 0 || minConfidence > 1) {
+            throw new IllegalStateException("masking.classification.min-confidence must be in (0, 1]");
+        }
+        this.minConfidence = minConfidence;
+    }
+    
+    /**
+     * Detect the PII type of a single value
+     *
+     * @return the validated type, or empty if the value is not recognized
+     */
+    public Optional<PiiType> classify(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        String v = value.strip();
+        int length = v.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return Optional.empty();
+        }
+        
+        char[] digits = new char[MAX_DIGITS];
+        int digitCount = 0;
+        int letters = 0;
+        int hexLetters = 0;
+        int at = 0;
+        int dots = 0;
+        int colons = 0;
+        int separators = 0;
+        int other = 0;
+        boolean plus = false;
+        
+        for (int i = 0; i < length; i++) {
+            char c = v.charAt(i);
+            if (PiiValidators.isDigit(c)) {
+                if (digitCount < MAX_DIGITS) {
+                    digits[digitCount] = c;
+                }
+                digitCount++;
+            } else if (PiiValidators.isLetter(c)) {
+                letters++;
+                if (PiiValidators.isHex(c)) {
+                    hexLetters++;
+                }
+            } else {
+                switch (c) {
+                    case '@' -> at++;
+                    case '.' -> dots++;
+                    case ':' -> colons++;
+                    case ' ', '-', '(', ')' -> separators++;
+                    case '+' -> {
+                        if (i == 0) {
+                            plus = true;
+                        } else {
+                            other++;
+                        }
+                    }
+                    default -> other++;
+                }
+            }
+        }
+        
+        PiiType type;
+        if (at > 0) {
+            type = at == 1 && PiiValidators.emailDomainIndex(v) > 0 ? PiiType.EMAIL : null;
+        } else if (colons >= 2) {
+            type = letters == hexLetters && separators == 0 && other == 0 && !plus
+                && PiiValidators.isIpv6(v, 0, length) ? PiiType.IP_ADDRESS : null;
+        } else if (other > 0 || colons > 0) {
+            type = null;
+        } else if (letters == 0) {
+            type = classifyNumber(v, digits, digitCount, dots, separators, plus);
+        } else {
+            type = !plus && dots == 0 && PiiValidators.isUpper(v.charAt(0))
+                && PiiValidators.isIban(v, 0, length) ? PiiType.BANK_ACCOUNT : null;
+        }
+        return Optional.ofNullable(type);
+    }
+    
+    /**
+     * Detect the PII type shared by a sample of values, such as the rows of one column
+     * Blank values are skipped; the most frequent type is reported if it reaches the confidence threshold
+     */
+    public ClassificationResponse classifySample(Collection<String> samples) {
+        int[] counts = new int[PiiType.values().length];
+        int sampled = 0;
+        for (String sample : samples) {
+            if (StringUtils.isBlank(sample)) {
+                continue;
+            }
+            sampled++;
+            Optional<PiiType> type = classify(sample);
+            if (type.isPresent()) {
+                counts[type.get().ordinal()]++;
+            }
+        }
+        
+        PiiType best = null;
+        Map<PiiType, Integer> matches = new EnumMap<>(PiiType.class);
+        for (PiiType type : PiiType.values()) {
+            int count = counts[type.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            matches.put(type, count);
+            if (best == null || count > counts[best.ordinal()]) {
+                best = type;
+            }
+        }
+        
+        double confidence = best == null ? 0 : (double) counts[best.ordinal()] / sampled;
+        return ClassificationResponse.builder()
+            .piiType(confidence >= minConfidence ? best : null)
+            .confidence(confidence)
+            .sampled(sampled)
+            .matches(matches)
+            .build();
+    }
+    
+    private static PiiType classifyNumber(String value, char[] digits, int digitCount,
+                                          int dots, int separators, boolean plus) {
+        if (dots == 3 && separators == 0 && !plus && PiiValidators.isIpv4(value, 0, value.length())) {
+            return PiiType.IP_ADDRESS;
+        }
+        if (digitCount > MAX_DIGITS) {
+            return null;
+        }
+        boolean grouped = dots + separators > 0;
+        if (!plus && !grouped && digitCount == 11 && PiiValidators.isTcKimlikNo(digits, digitCount)) {
+            return PiiType.TC_KIMLIK_NO;
+        }
+        if (!plus && dots == 0 && digitCount >= 13 && PiiValidators.isLuhn(digits, digitCount)) {
+            return PiiType.CREDIT_CARD;
+        }
+        return PiiValidators.isPhoneNumber(digits, digitCount, plus, grouped) ? PiiType.PHONE : null;
+    }
+}
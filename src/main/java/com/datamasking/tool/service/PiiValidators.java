@@ -0,0 +1,304 @@
+package com.datamasking.tool.service;
+
+import java.util.Map;
+
+/**
+ * Checksum and syntax validators for structured PII
+ * Work on char ranges without allocating, so they can run inside scanners and on every sampled value
+ */
+public final class PiiValidators {
+    
+    private static final int IBAN_MIN_LENGTH = 15;
+    private static final int IBAN_MAX_LENGTH = 34;
+    
+    // IBAN lengths from the SWIFT registry for Turkey, its neighbours and the SEPA area
+    private static final Map<String, Integer> IBAN_LENGTHS = Map.ofEntries(
+        Map.entry("TR", 26), Map.entry("AT", 20), Map.entry("AZ", 28), Map.entry("BE", 16), Map.entry("BG", 22),
+        Map.entry("CH", 21), Map.entry("CY", 28), Map.entry("CZ", 24), Map.entry("DE", 22), Map.entry("DK", 18),
+        Map.entry("EE", 20), Map.entry("ES", 24), Map.entry("FI", 18), Map.entry("FR", 27), Map.entry("GB", 22),
+        Map.entry("GE", 22), Map.entry("GR", 27), Map.entry("HR", 21), Map.entry("HU", 28), Map.entry("IE", 22),
+        Map.entry("IT", 27), Map.entry("LT", 20), Map.entry("LU", 20), Map.entry("LV", 21), Map.entry("MT", 31),
+        Map.entry("NL", 18), Map.entry("NO", 15), Map.entry("PL", 28), Map.entry("PT", 25), Map.entry("RO", 24),
+        Map.entry("SE", 24), Map.entry("SI", 19), Map.entry("SK", 24), Map.entry("UA", 29));
+    
+    private PiiValidators() {
+    }
+    
+    /**
+     * TC Kimlik No: 11 digits, no leading zero, 10th digit from the odd/even weighted sums mod 10,
+     * 11th digit the sum of the first ten mod 10
+     */
+    public static boolean isTcKimlikNo(char[] digits, int length) {
+        if (length != 11 || digits[0] == '0') {
+            return false;
+        }
+        int odd = 0;
+        int even = 0;
+        for (int i = 0; i < 9; i++) {
+            int d = digits[i] - '0';
+            if (d < 0 || d > 9) {
+                return false;
+            }
+            if ((i & 1) == 0) {
+                odd += d;
+            } else {
+                even += d;
+            }
+        }
+        int tenth = digits[9] - '0';
+        if (Math.floorMod(odd * 7 - even, 10) != tenth) {
+            return false;
+        }
+        return (odd + even + tenth) % 10 == digits[10] - '0';
+    }
+    
+    /**
+     * Luhn mod-10 check over a run of digits
+     */
+    public static boolean isLuhn(char[] digits, int length) {
+        if (length < 2) {
+            return false;
+        }
+        int sum = 0;
+        boolean doubled = false;
+        for (int i = length - 1; i >= 0; i--) {
+            int d = digits[i] - '0';
+            if (d < 0 || d > 9) {
+                return false;
+            }
+            if (doubled) {
+                d *= 2;
+                if (d > 9) {
+                    d -= 9;
+                }
+            }
+            sum += d;
+            doubled = !doubled;
+        }
+        return sum % 10 == 0;
+    }
+    
+    /**
+     * IBAN (ISO 13616): country code, two check digits and an alphanumeric BBAN, mod 97 == 1
+     * Spaces between groups are ignored; letters must be uppercase
+     */
+    public static boolean isIban(CharSequence value, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+            boolean valid = length < 2 ? isUpper(c) : length < 4 ? isDigit(c) : isDigit(c) || isUpper(c);
+            if (!valid) {
+                return false;
+            }
+            length++;
+        }
+        if (length < IBAN_MIN_LENGTH || length > IBAN_MAX_LENGTH) {
+            return false;
+        }
+        int expected = ibanLength(value.charAt(start), value.charAt(start + 1));
+        if (expected > 0 && length != expected) {
+            return false;
+        }
+        
+        // Rearranged as BBAN + country + check digits, letters expanded to 10..35, reduced digit by digit
+        int remainder = 0;
+        int position = 0;
+        int skipped = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = start; i < end; i++) {
+                char c = value.charAt(i);
+                if (c == ' ') {
+                    continue;
+                }
+                boolean head = position++ < 4;
+                if (head == (pass == 0)) {
+                    continue;
+                }
+                if (isDigit(c)) {
+                    remainder = (remainder * 10 + (c - '0')) % 97;
+                } else {
+                    remainder = (remainder * 100 + (c - 'A' + 10)) % 97;
+                }
+            }
+            skipped = position;
+            position = 0;
+        }
+        return skipped == length && remainder == 1;
+    }
+    
+    /**
+     * Registered IBAN length of a country, or 0 if the country is not in the table
+     */
+    public static int ibanLength(char first, char second) {
+        return IBAN_LENGTHS.getOrDefault(new String(new char[] {first, second}), 0);
+    }
+    
+    /**
+     * Find the '@' of a well-formed address, local part of [A-Za-z0-9+_.-] and a domain of [A-Za-z0-9.-]
+     * whose last label has at least two letters
+     *
+     * @return index of the '@', or -1 if the value is not an email address
+     */
+    public static int emailDomainIndex(CharSequence email) {
+        int length = email.length();
+        int at = -1;
+        int lastDot = -1;
+        
+        for (int i = 0; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                if (at >= 0) {
+                    return -1;
+                }
+                at = i;
+            } else if (c == '.') {
+                lastDot = i;
+            } else if (!isLetterOrDigit(c) && c != '-' && (at >= 0 || (c != '+' && c != '_'))) {
+                return -1;
+            }
+        }
+        
+        if (at <= 0 || lastDot <= at + 1 || length - lastDot <= 2) {
+            return -1;
+        }
+        for (int i = lastDot + 1; i < length; i++) {
+            if (!isLetter(email.charAt(i))) {
+                return -1;
+            }
+        }
+        return at;
+    }
+    
+    /**
+     * Turkish numbers with a trunk (0) or country (90) prefix, mobile numbers without one,
+     * grouped ten-digit subscriber numbers and international numbers written after a '+'
+     */
+    public static boolean isPhoneNumber(char[] digits, int length, boolean international, boolean grouped) {
+        if (international) {
+            return length >= 10 && length <= 15;
+        }
+        return switch (length) {
+            case 10 -> digits[0] == '5' || (grouped && isAreaCodeStart(digits[0]));
+            case 11 -> digits[0] == '0' && isAreaCodeStart(digits[1]);
+            case 12 -> digits[0] == '9' && digits[1] == '0' && isAreaCodeStart(digits[2]);
+            default -> false;
+        };
+    }
+    
+    /**
+     * Dotted-quad IPv4 address without leading zeros
+     */
+    public static boolean isIpv4(CharSequence value, int start, int end) {
+        int octets = 0;
+        int i = start;
+        while (i < end) {
+            int octetStart = i;
+            int octet = 0;
+            while (i < end && isDigit(value.charAt(i)) && i - octetStart < 3) {
+                octet = octet * 10 + (value.charAt(i) - '0');
+                i++;
+            }
+            int digits = i - octetStart;
+            if (digits == 0 || octet > 255 || (digits > 1 && value.charAt(octetStart) == '0')) {
+                return false;
+            }
+            octets++;
+            if (i == end) {
+                break;
+            }
+            if (value.charAt(i) != '.' || octets == 4) {
+                return false;
+            }
+            i++;
+            if (i == end) {
+                return false;
+            }
+        }
+        return octets == 4;
+    }
+    
+    /**
+     * IPv6 address in full, compressed (::) or IPv4-suffixed form, without zone or prefix length
+     */
+    public static boolean isIpv6(CharSequence value, int start, int end) {
+        if (end - start < 2) {
+            return false;
+        }
+        int groups = 0;
+        boolean compressed = false;
+        int i = start;
+        
+        if (value.charAt(i) == ':') {
+            if (value.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+            if (i == end) {
+                return true;
+            }
+        }
+        
+        while (i < end) {
+            int groupStart = i;
+            while (i < end && i - groupStart < 4 && isHex(value.charAt(i))) {
+                i++;
+            }
+            if (i < end && value.charAt(i) == '.') {
+                // Trailing IPv4 takes the place of two groups
+                return groups <= (compressed ? 5 : 6) && isIpv4(value, groupStart, end);
+            }
+            if (i == groupStart) {
+                return false;
+            }
+            groups++;
+            if (i == end) {
+                break;
+            }
+            if (value.charAt(i) != ':') {
+                return false;
+            }
+            i++;
+            if (i < end && value.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+                if (i == end) {
+                    break;
+                }
+            } else if (i == end) {
+                return false;
+            }
+        }
+        return compressed ? groups < 8 : groups == 8;
+    }
+    
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+    
+    static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+    
+    static boolean isLetterOrDigit(char c) {
+        return isDigit(c) || isLetter(c);
+    }
+    
+    static boolean isHex(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+    
+    private static boolean isAreaCodeStart(char c) {
+        return c >= '2' && c <= '5';
+    }
+}
@@ -0,0 +1,571 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dictionary of consistent pseudonyms for the RANDOM strategy
+ * The first pseudonym generated for a value is kept and returned for every later occurrence, so masked values
+ * stay joinable across rows, tables and jobs. Entries are keyed by the first 128 bits of the value's HMAC under
+ * the key the dictionary was built with, so the dictionary never holds an original value, and live outside the
+ * Java heap: in direct
+ * buffers, or in memory-mapped segment files that survive restarts. The table is split into lock-striped segments
+ * of open-addressing slots, each with its own read-write lock, and every segment doubles on its own when it fills up.
+ * Every stored pseudonym is also reserved under the fingerprint of the pseudonym itself, and a new value redraws
+ * until it gets a pseudonym no other value of its namespace holds, so two values never share one.
+ * Segment files record the ID of their HMAC key and keep using it after the active key is rotated
+ */
+@Slf4j
+public final class PseudonymDictionary implements Closeable {
+    
+    // Slot: fingerprint (two longs), pseudonym length in bytes (0 marks a free slot), pseudonym as UTF-8
+    static final int SLOT_SIZE = 96;
+    private static final int LENGTH_OFFSET = 2 * Long.BYTES;
+    static final int MAX_PSEUDONYM_BYTES = SLOT_SIZE - LENGTH_OFFSET - 1;
+    
+    // Largest power-of-two slot count that one buffer can address next to the header slot
+    private static final int MAX_SEGMENT_SLOTS = 1 << 24;
+    private static final int MIN_SEGMENT_SLOTS = 16;
+    
+    // Header in the first slot of each segment: magic ("DMPSEUD1"), entry count, reservation count and
+    // HMAC key ID (length in bytes, 0 until first opened, then UTF-8)
+    private static final long MAGIC = 0x444D505345554431L;
+    private static final int COUNT_OFFSET = Long.BYTES;
+    private static final int RESERVED_OFFSET = 2 * Long.BYTES;
+    private static final int KEY_ID_OFFSET = 3 * Long.BYTES;
+    private static final int MAX_KEY_ID_BYTES = SLOT_SIZE - KEY_ID_OFFSET - 1;
+    private static final byte[] FREE_SLOT = new byte[SLOT_SIZE];
+    
+    // Spreads namespaces over the fingerprint, so equal values of different types get their own pseudonyms
+    private static final long NAMESPACE_SPREAD = 0x9E3779B97F4A7C15L;
+    
+    // Separates reservations of pseudonyms from entries of values in the same namespace
+    private static final long RESERVATION_SPREAD = 0xC2B2AE3D27D4EB4FL;
+    private static final byte[] RESERVATION = {1};
+    
+    // Draws before giving up on a generator whose outputs are all taken
+    static final int MAX_DRAWS = 32;
+    
+    private static final String SEGMENT_GLOB = "segment-*.dat";
+    
+    private final HmacHasher hmacHasher;
+    private final Storage storage;
+    private final Segment[] segments;
+    private String keyId;
+    
+    private PseudonymDictionary(HmacHasher hmacHasher, Storage storage, int stripes) {
+        this.hmacHasher = hmacHasher;
+        this.storage = storage;
+        this.segments = new Segment[stripes];
+    }
+    
+    /**
+     * Dictionary for runs without consistent pseudonyms; {@link #isEnabled()} is false
+     */
+    public static PseudonymDictionary disabled() {
+        return new PseudonymDictionary(null, null, 0);
+    }
+    
+    /**
+     * Dictionary in direct buffers, kept for the lifetime of the process
+     */
+    public static PseudonymDictionary offHeap(HmacHasher hmacHasher, int stripes, long initialCapacity) {
+        try {
+            return open(hmacHasher, new OffHeapStorage(), stripes, initialCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Dictionary in memory-mapped segment files of a directory, reopened with its entries after a restart
+     *
+     * @throws IllegalStateException if the directory holds a dictionary with a different number of stripes, or one
+     *                               built with an HMAC key that is no longer configured
+     */
+    public static PseudonymDictionary mapped(HmacHasher hmacHasher, Path directory, int stripes,
+                                             long initialCapacity) throws IOException {
+        Files.createDirectories(directory);
+        int existing = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_GLOB)) {
+            for (Path ignored : files) {
+                existing++;
+            }
+        }
+        if (existing > 0 && existing != stripes) {
+            throw new IllegalStateException("Pseudonym dictionary in " + directory + " has " + existing
+                + " segments, but " + stripes + " stripes are configured");
+        }
+        return open(hmacHasher, new MappedStorage(directory), stripes, initialCapacity);
+    }
+    
+    private static PseudonymDictionary open(HmacHasher hmacHasher, Storage storage, int stripes,
+                                            long initialCapacity) throws IOException {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalStateException("Pseudonym dictionary stripes must be a power of two: " + stripes);
+        }
+        int slots = MIN_SEGMENT_SLOTS;
+        long needed = initialCapacity / stripes * 4 / 3 + 1;
+        while (slots < needed && slots < MAX_SEGMENT_SLOTS) {
+            slots <<= 1;
+        }
+        PseudonymDictionary dictionary = new PseudonymDictionary(hmacHasher, storage, stripes);
+        for (int i = 0; i < stripes; i++) {
+            dictionary.segments[i] = dictionary.new Segment(i, storage.open(i, slots));
+        }
+        dictionary.keyId = dictionary.recordKeyId();
+        log.info("Opened pseudonym dictionary with {} entries in {} segments, HMAC key {}",
+            dictionary.size(), stripes, dictionary.keyId);
+        return dictionary;
+    }
+    
+    /**
+     * Key ID the segments were built with, recording the active key in new segments
+     * Fingerprints under another key would miss every stored entry, so a rotated dictionary keeps its own key
+     */
+    private String recordKeyId() {
+        String recorded = null;
+        for (Segment segment : segments) {
+            String id = segment.keyId();
+            if (id != null && recorded != null && !id.equals(recorded)) {
+                throw new IllegalStateException("Pseudonym dictionary segments were built with HMAC keys "
+                    + recorded + " and " + id);
+            }
+            recorded = id != null ? id : recorded;
+        }
+        if (recorded == null) {
+            recorded = hmacHasher.getActiveKeyId();
+            hmacHasher.requireKey(recorded);
+        } else {
+            try {
+                hmacHasher.requireKey(recorded);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Pseudonym dictionary was built with HMAC key " + recorded
+                    + ", which is no longer configured; keep it configured or start a new dictionary", e);
+            }
+            if (!recorded.equals(hmacHasher.getActiveKeyId())) {
+                log.info("Pseudonym dictionary keeps HMAC key {}, active key is {}", recorded,
+                    hmacHasher.getActiveKeyId());
+            }
+        }
+        byte[] bytes = recorded.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_KEY_ID_BYTES) {
+            throw new IllegalStateException("HMAC key ID of the pseudonym dictionary is longer than "
+                + MAX_KEY_ID_BYTES + " bytes: " + recorded);
+        }
+        for (Segment segment : segments) {
+            segment.recordKeyId(bytes);
+        }
+        return recorded;
+    }
+    
+    public boolean isEnabled() {
+        return storage != null;
+    }
+    
+    /**
+     * Wrap a masker so that every value keeps the first pseudonym generated for it
+     * Pseudonyms are kept apart per PII type and format option, since those produce different shapes
+     */
+    public Masker masker(PiiType piiType, boolean preserveFormat, Masker generator) {
+        long namespace = (piiType.ordinal() * 2L + (preserveFormat ? 2 : 1)) * NAMESPACE_SPREAD;
+        return value -> pseudonym(namespace, value, generator);
+    }
+    
+    private String pseudonym(long namespace, String value, Masker generator) {
+        long[] fingerprint = hmacHasher.fingerprint(keyId, value);
+        long high = fingerprint[0] ^ namespace;
+        long low = fingerprint[1];
+        Segment segment = segments[(int) low & (segments.length - 1)];
+        
+        String pseudonym = segment.get(high, low);
+        if (pseudonym != null) {
+            return pseudonym;
+        }
+        // Generated outside the lock; when two threads race for a new value the first stored pseudonym wins,
+        // and the losing one gives its reservation back
+        for (int draw = 0; draw < MAX_DRAWS; draw++) {
+            String candidate = generator.mask(value);
+            byte[] bytes = encode(candidate);
+            if (reserve(namespace, candidate)) {
+                String stored = segment.putIfAbsent(high, low, candidate, bytes);
+                if (!stored.equals(candidate)) {
+                    release(namespace, candidate);
+                }
+                return stored;
+            }
+        }
+        throw new IllegalStateException("No unused pseudonym found in " + MAX_DRAWS + " draws");
+    }
+    
+    /**
+     * Claim a pseudonym for one value of a namespace
+     *
+     * @return false if another value already holds it
+     */
+    private boolean reserve(long namespace, String pseudonym) {
+        long[] fingerprint = hmacHasher.fingerprint(keyId, pseudonym);
+        long high = fingerprint[0] ^ namespace ^ RESERVATION_SPREAD;
+        long low = fingerprint[1];
+        return segments[(int) low & (segments.length - 1)].reserve(high, low);
+    }
+    
+    private void release(long namespace, String pseudonym) {
+        long[] fingerprint = hmacHasher.fingerprint(keyId, pseudonym);
+        long high = fingerprint[0] ^ namespace ^ RESERVATION_SPREAD;
+        long low = fingerprint[1];
+        segments[(int) low & (segments.length - 1)].release(high, low);
+    }
+    
+    private static byte[] encode(String pseudonym) {
+        byte[] bytes = pseudonym.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0 || bytes.length > MAX_PSEUDONYM_BYTES) {
+            throw new IllegalArgumentException("Pseudonym of " + bytes.length
+                + " bytes cannot be kept consistent, at most " + MAX_PSEUDONYM_BYTES + " bytes are supported");
+        }
+        return bytes;
+    }
+    
+    /**
+     * Number of values with a stored pseudonym
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+    
+    @Override
+    public void close() {
+        for (Segment segment : segments) {
+            segment.flush();
+        }
+    }
+    
+    /**
+     * One lock stripe: a power-of-two table of slots behind a header slot, probed linearly
+     */
+    private final class Segment {
+        
+        private final int index;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        
+        // Guarded by lock
+        private ByteBuffer table;
+        private int mask;
+        private int count;
+        private int reserved;
+        
+        private Segment(int index, ByteBuffer table) {
+            this.index = index;
+            use(table);
+        }
+        
+        private void use(ByteBuffer table) {
+            this.table = table;
+            this.mask = table.capacity() / SLOT_SIZE - 2;
+            this.count = (int) table.getLong(COUNT_OFFSET);
+            this.reserved = (int) table.getLong(RESERVED_OFFSET);
+        }
+        
+        private String get(long high, long low) {
+            lock.readLock().lock();
+            try {
+                int offset = find(high, low);
+                return table.get(offset + LENGTH_OFFSET) == 0 ? null : read(offset);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        private String putIfAbsent(long high, long low, String pseudonym, byte[] bytes) {
+            lock.writeLock().lock();
+            try {
+                int offset = find(high, low);
+                if (table.get(offset + LENGTH_OFFSET) != 0) {
+                    return read(offset);
+                }
+                insert(offset, high, low, bytes);
+                return pseudonym;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        private boolean reserve(long high, long low) {
+            lock.writeLock().lock();
+            try {
+                int offset = find(high, low);
+                if (table.get(offset + LENGTH_OFFSET) != 0) {
+                    return false;
+                }
+                insert(offset, high, low, RESERVATION);
+                table.putLong(RESERVED_OFFSET, ++reserved);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        /**
+         * Free the slot of a reservation, moving later entries of its probe run back so lookups still find them
+         */
+        private void release(long high, long low) {
+            lock.writeLock().lock();
+            try {
+                int offset = find(high, low);
+                if (table.get(offset + LENGTH_OFFSET) == 0) {
+                    return;
+                }
+                int free = offset / SLOT_SIZE - 1;
+                for (int slot = (free + 1) & mask; ; slot = (slot + 1) & mask) {
+                    int from = (slot + 1) * SLOT_SIZE;
+                    if (table.get(from + LENGTH_OFFSET) == 0) {
+                        break;
+                    }
+                    int home = (int) table.getLong(from) & mask;
+                    if (((free - home) & mask) < ((slot - home) & mask)) {
+                        table.put((free + 1) * SLOT_SIZE, table, from, SLOT_SIZE);
+                        free = slot;
+                    }
+                }
+                table.put((free + 1) * SLOT_SIZE, FREE_SLOT);
+                table.putLong(COUNT_OFFSET, --count);
+                table.putLong(RESERVED_OFFSET, --reserved);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        /**
+         * Fill the free slot found for a fingerprint, growing first if the segment is full; callers hold the write lock
+         */
+        private void insert(int offset, long high, long low, byte[] bytes) {
+            if (count + 1 > (mask + 1) / 4 * 3) {
+                grow();
+                offset = find(high, low);
+            }
+            table.putLong(offset, high);
+            table.putLong(offset + Long.BYTES, low);
+            table.put(offset + LENGTH_OFFSET, (byte) bytes.length);
+            table.put(offset + LENGTH_OFFSET + 1, bytes);
+            table.putLong(COUNT_OFFSET, ++count);
+        }
+        
+        /**
+         * Offset of the slot holding a fingerprint, or of the free slot where it belongs
+         */
+        private int find(long high, long low) {
+            int slot = (int) high & mask;
+            while (true) {
+                int offset = (slot + 1) * SLOT_SIZE;
+                if (table.get(offset + LENGTH_OFFSET) == 0
+                        || (table.getLong(offset) == high && table.getLong(offset + Long.BYTES) == low)) {
+                    return offset;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        
+        private String read(int offset) {
+            byte[] bytes = new byte[table.get(offset + LENGTH_OFFSET) & 0xFF];
+            table.get(offset + LENGTH_OFFSET + 1, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        /**
+         * Rehash into a table of twice the size; callers hold the write lock
+         */
+        private void grow() {
+            int slots = mask + 1;
+            if (slots >= MAX_SEGMENT_SLOTS) {
+                throw new IllegalStateException("Pseudonym dictionary segment " + index
+                    + " is full; configure more stripes");
+            }
+            ByteBuffer grown = storage.allocate(index, slots * 2);
+            int grownMask = slots * 2 - 1;
+            for (int slot = 0; slot < slots; slot++) {
+                int offset = (slot + 1) * SLOT_SIZE;
+                if (table.get(offset + LENGTH_OFFSET) != 0) {
+                    int target = (int) table.getLong(offset) & grownMask;
+                    while (grown.get((target + 1) * SLOT_SIZE + LENGTH_OFFSET) != 0) {
+                        target = (target + 1) & grownMask;
+                    }
+                    grown.put((target + 1) * SLOT_SIZE, table, offset, SLOT_SIZE);
+                }
+            }
+            grown.putLong(COUNT_OFFSET, count);
+            grown.putLong(RESERVED_OFFSET, reserved);
+            grown.put(KEY_ID_OFFSET, table, KEY_ID_OFFSET, SLOT_SIZE - KEY_ID_OFFSET);
+            storage.commit(index, grown);
+            use(grown);
+        }
+        
+        private String keyId() {
+            int length = table.get(KEY_ID_OFFSET) & 0xFF;
+            if (length == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            table.get(KEY_ID_OFFSET + 1, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        private void recordKeyId(byte[] bytes) {
+            table.put(KEY_ID_OFFSET, (byte) bytes.length);
+            table.put(KEY_ID_OFFSET + 1, bytes);
+        }
+        
+        private long size() {
+            lock.readLock().lock();
+            try {
+                return count - reserved;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        private void flush() {
+            lock.writeLock().lock();
+            try {
+                storage.flush(table);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * Where segment tables live
+     */
+    private interface Storage {
+        
+        /**
+         * Open the table of a segment, creating it with the given number of slots if it does not exist
+         */
+        ByteBuffer open(int segment, int slots) throws IOException;
+        
+        /**
+         * Allocate an empty table that replaces the segment's table once committed
+         */
+        ByteBuffer allocate(int segment, int slots);
+        
+        void commit(int segment, ByteBuffer table);
+        
+        void flush(ByteBuffer table);
+    }
+    
+    private static final class OffHeapStorage implements Storage {
+        
+        @Override
+        public ByteBuffer open(int segment, int slots) {
+            return allocate(segment, slots);
+        }
+        
+        @Override
+        public ByteBuffer allocate(int segment, int slots) {
+            // Direct buffers start zeroed, so every slot is free
+            ByteBuffer table = ByteBuffer.allocateDirect((slots + 1) * SLOT_SIZE);
+            table.putLong(0, MAGIC);
+            return table;
+        }
+        
+        @Override
+        public void commit(int segment, ByteBuffer table) {
+        }
+        
+        @Override
+        public void flush(ByteBuffer table) {
+        }
+    }
+    
+    private static final class MappedStorage implements Storage {
+        
+        private final Path directory;
+        
+        private MappedStorage(Path directory) {
+            this.directory = directory;
+        }
+        
+        @Override
+        public ByteBuffer open(int segment, int slots) throws IOException {
+            Path file = file(segment);
+            if (!Files.exists(file)) {
+                return create(file, slots);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                long existingSlots = size / SLOT_SIZE - 1;
+                if (size % SLOT_SIZE != 0 || existingSlots < MIN_SEGMENT_SLOTS || existingSlots > MAX_SEGMENT_SLOTS
+                        || Long.bitCount(existingSlots) != 1) {
+                    throw new IllegalStateException("Not a pseudonym dictionary segment: " + file);
+                }
+                MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                if (table.getLong(0) != MAGIC) {
+                    throw new IllegalStateException("Not a pseudonym dictionary segment: " + file);
+                }
+                return table;
+            }
+        }
+        
+        @Override
+        public ByteBuffer allocate(int segment, int slots) {
+            try {
+                return create(pending(segment), slots);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public void commit(int segment, ByteBuffer table) {
+            flush(table);
+            try {
+                // The old mapping stays readable until it is collected, the file name now points at the new table
+                Files.move(pending(segment), file(segment), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public void flush(ByteBuffer table) {
+            ((MappedByteBuffer) table).force();
+        }
+        
+        private static MappedByteBuffer create(Path file, int slots) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // Mapping past the end extends the file with zeros, so every slot is free
+                MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) (slots + 1) * SLOT_SIZE);
+                table.putLong(0, MAGIC);
+                return table;
+            }
+        }
+        
+        private Path file(int segment) {
+            return directory.resolve(String.format("segment-%03d.dat", segment));
+        }
+        
+        private Path pending(int segment) {
+            return directory.resolve(String.format("segment-%03d.tmp", segment));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.datamasking.tool.service;
+
+/**
+ * Source of random characters for the RANDOM masking strategy
+ * Subclasses only supply random 64-bit words; each word is spread over several characters
+ * and buffers are filled in place without intermediate strings
+ */
+public abstract class RandomValueGenerator {
+    
+    private static final char[] ALPHANUMERIC =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    
+    /**
+     * Fill the range with characters from [A-Za-z0-9]
+     */
+    public void fillAlphanumeric(char[] target, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            // Ten 6-bit draws per word, values 62 and 63 are rejected to keep the choice uniform
+            long bits = nextLong();
+            for (int k = 0; k < 10 && i < end; k++, bits >>>= 6) {
+                int index = (int) (bits & 0x3F);
+                if (index < ALPHANUMERIC.length) {
+                    target[i++] = ALPHANUMERIC[index];
+                }
+            }
+        }
+    }
+    
+    /**
+     * Fill the range with characters from [0-9]
+     */
+    public void fillNumeric(char[] target, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            // Six 10-bit draws per word, each below 1000 yields three digits
+            long bits = nextLong();
+            for (int k = 0; k < 6 && i < end; k++, bits >>>= 10) {
+                int value = (int) (bits & 0x3FF);
+                if (value < 1000) {
+                    target[i++] = (char) ('0' + value / 100);
+                    if (i < end) {
+                        target[i++] = (char) ('0' + value / 10 % 10);
+                    }
+                    if (i < end) {
+                        target[i++] = (char) ('0' + value % 10);
+                    }
+                }
+            }
+        }
+    }
+    
+    public String alphanumeric(int length) {
+        char[] value = new char[length];
+        fillAlphanumeric(value, 0, length);
+        return new String(value);
+    }
+    
+    public String numeric(int length) {
+        char[] value = new char[length];
+        fillNumeric(value, 0, length);
+        return new String(value);
+    }
+    
+    /**
+     * Next 64 uniformly distributed random bits
+     */
+    protected abstract long nextLong();
+}
@@ -0,0 +1,444 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.dto.ClassificationResponse;
+import com.datamasking.tool.dto.DiscoveryRequest;
+import com.datamasking.tool.dto.DiscoveryResponse;
+import com.datamasking.tool.model.ColumnMapping;
+import com.datamasking.tool.model.DiscoveryRun;
+import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.MaskingStrategy;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.ColumnMappingRepository;
+import com.datamasking.tool.repository.DiscoveryRunRepository;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service for discovering PII columns in database schemas
+ * Reads the column catalog once, samples a bounded number of rows per table concurrently and classifies
+ * every column with {@link PiiClassifier}. Detected columns are written as {@link ColumnMapping}s, and
+ * PII types without a rule get an inactive proposed rule to review. Runs submitted through the API are tracked
+ * as {@link DiscoveryRun}s and executed one at a time in the background
+ */
+@Service
+@Slf4j
+public class SchemaDiscoveryService {
+    
+    private static final String PROPOSED_RULE_DESCRIPTION = "Proposed by schema discovery";
+    
+    // Tables of the tool itself are never sampled
+    private static final Set<String> INTERNAL_TABLES = Set.of(
+        "masking_rules", "masking_jobs", "masking_job_partitions", "column_mappings",
+        "discovery_runs", "discovery_run_failed_tables");
+    private static final Set<String> SYSTEM_SCHEMAS = Set.of(
+        "information_schema", "pg_catalog", "mysql", "performance_schema", "sys");
+    
+    // Time past the discovery timeout after which a run still marked as running is considered abandoned
+    private static final Duration ABANDONED_GRACE = Duration.ofMinutes(5);
+    
+    // Rows read with TABLESAMPLE per row wanted, as page sampling returns uneven row counts
+    private static final int TABLESAMPLE_OVERSAMPLING = 4;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PiiClassifier piiClassifier;
+    private final MaskingRuleRepository maskingRuleRepository;
+    private final ColumnMappingRepository columnMappingRepository;
+    private final DiscoveryRunRepository discoveryRunRepository;
+    private final AuditLogger auditLogger;
+    private final ThreadPoolTaskExecutor discoveryExecutor;
+    private final ThreadPoolTaskExecutor discoveryRunExecutor;
+    private final int defaultSampleSize;
+    private final Duration queryTimeout;
+    private final Duration timeout;
+    
+    public SchemaDiscoveryService(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  PiiClassifier piiClassifier,
+                                  MaskingRuleRepository maskingRuleRepository,
+                                  ColumnMappingRepository columnMappingRepository,
+                                  DiscoveryRunRepository discoveryRunRepository,
+                                  AuditLogger auditLogger,
+                                  @Qualifier("discoveryExecutor") ThreadPoolTaskExecutor discoveryExecutor,
+                                  @Qualifier("discoveryRunExecutor") ThreadPoolTaskExecutor discoveryRunExecutor,
+                                  @Value("${masking.discovery.sample-size:100}") int defaultSampleSize,
+                                  @Value("${masking.discovery.query-timeout:30s}") Duration queryTimeout,
+                                  @Value("${masking.discovery.timeout:10m}") Duration timeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.piiClassifier = piiClassifier;
+        this.maskingRuleRepository = maskingRuleRepository;
+        this.columnMappingRepository = columnMappingRepository;
+        this.discoveryRunRepository = discoveryRunRepository;
+        this.auditLogger = auditLogger;
+        this.discoveryExecutor = discoveryExecutor;
+        this.discoveryRunExecutor = discoveryRunExecutor;
+        this.defaultSampleSize = defaultSampleSize;
+        this.queryTimeout = queryTimeout;
+        this.timeout = timeout;
+    }
+    
+    /**
+     * Create a discovery run and queue it for execution
+     */
+    public DiscoveryRun submit(DiscoveryRequest request, String createdBy) {
+        DiscoveryRun run = new DiscoveryRun();
+        run.setSchemaName(StringUtils.trimToNull(request.getSchema()));
+        run.setTablePattern(request.getTablePattern());
+        run.setSampleSize(request.getSampleSize() != null ? request.getSampleSize() : defaultSampleSize);
+        run.setCreatedBy(createdBy);
+        DiscoveryRun saved = discoveryRunRepository.save(run);
+        
+        try {
+            discoveryRunExecutor.execute(() -> execute(saved.getId(), request));
+            return saved;
+        } catch (RuntimeException e) {
+            saved.setStatus(DiscoveryRun.RunStatus.FAILED);
+            saved.setErrorMessage("Discovery queue is full");
+            return discoveryRunRepository.save(saved);
+        }
+    }
+    
+    /**
+     * Get a discovery run with its counters
+     * A run still marked as running well past the discovery timeout is reported as failed, as the node
+     * running it must have stopped
+     */
+    public Optional<DiscoveryRun> getRun(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        discoveryRunRepository.failAbandoned(id, now.minus(timeout).minus(ABANDONED_GRACE),
+            "Interrupted: the node running the discovery stopped", now);
+        return discoveryRunRepository.findById(id);
+    }
+    
+    private void execute(Long runId, DiscoveryRequest request) {
+        DiscoveryRun run = discoveryRunRepository.findById(runId).orElse(null);
+        if (run == null) {
+            return;
+        }
+        run.setStatus(DiscoveryRun.RunStatus.RUNNING);
+        run.setStartedAt(LocalDateTime.now());
+        run = discoveryRunRepository.save(run);
+        
+        try {
+            DiscoveryResponse response = discover(request);
+            run.setStatus(DiscoveryRun.RunStatus.COMPLETED);
+            run.setTablesSampled(response.getTablesSampled());
+            run.setColumnsSampled(response.getColumnsSampled());
+            run.setMappingsFound(response.getMappings().size());
+            run.setProposedRules(response.getProposedRules());
+            run.setFailedTables(new ArrayList<>(response.getFailedTables()));
+        } catch (Exception e) {
+            log.error("Schema discovery run {} failed: {}", runId, e.getMessage(), e);
+            run.setStatus(DiscoveryRun.RunStatus.FAILED);
+            run.setErrorMessage(e.getMessage());
+        }
+        run.setCompletedAt(LocalDateTime.now());
+        discoveryRunRepository.save(run);
+    }
+    
+    /**
+     * Sample the selected tables, classify their columns and store the detected column mappings
+     * Tables that do not finish within the query or overall timeout are reported and skipped
+     */
+    public DiscoveryResponse discover(DiscoveryRequest request) {
+        long start = System.nanoTime();
+        int sampleSize = request.getSampleSize() != null ? request.getSampleSize() : defaultSampleSize;
+        String schema = StringUtils.trimToNull(request.getSchema());
+        String tablePattern = StringUtils.defaultIfBlank(request.getTablePattern(), "%");
+        
+        List<SampledTable> tables = readCatalog(schema, tablePattern);
+        Map<String, Double> rowEstimates = estimateRows();
+        
+        List<Future<List<ColumnResult>>> futures = new ArrayList<>(tables.size());
+        for (SampledTable table : tables) {
+            Double estimate = rowEstimates.get(table.name().toLowerCase(Locale.ROOT));
+            futures.add(discoveryExecutor.submit(() -> sampleTable(table, sampleSize, estimate)));
+        }
+        
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<ColumnResult> results = new ArrayList<>();
+        List<String> failedTables = new ArrayList<>();
+        int columnsSampled = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<List<ColumnResult>> future = futures.get(i);
+            String table = tables.get(i).name();
+            try {
+                results.addAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                columnsSampled += tables.get(i).columns().size();
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failedTables.add(table);
+            } catch (ExecutionException e) {
+                log.warn("Could not sample table {}: {}", table, e.getCause().getMessage());
+                failedTables.add(table);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Schema discovery was interrupted", e);
+            }
+        }
+        
+        SavedMappings saved;
+        try {
+            saved = transactionTemplate.execute(status -> saveMappings(results));
+        } catch (DataIntegrityViolationException e) {
+            // Another node stored some of the same columns meanwhile; the retry updates its mappings instead
+            log.info("Schema discovery raced with another run, saving mappings again");
+            saved = transactionTemplate.execute(status -> saveMappings(results));
+        }
+        log.info("Schema discovery sampled {} tables: {} PII columns, {} rules proposed, {} tables failed",
+            tables.size() - failedTables.size(), saved.mappings().size(), saved.proposedRules(), failedTables.size());
+        auditLogger.discoveryFinished(schema, tables.size() - failedTables.size(), saved.mappings().size());
+        
+        return DiscoveryResponse.builder()
+            .tablesSampled(tables.size() - failedTables.size())
+            .columnsSampled(columnsSampled)
+            .proposedRules(saved.proposedRules())
+            .durationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+            .failedTables(failedTables)
+            .mappings(saved.mappings())
+            .build();
+    }
+    
+    /**
+     * Get the stored column mappings that do not belong to a job
+     */
+    public List<ColumnMapping> getMappings() {
+        return columnMappingRepository.findByJobIdIsNullOrderByTableNameAscColumnNameAsc();
+    }
+    
+    /**
+     * Read tables and their sampleable columns with two catalog queries, however many tables there are
+     */
+    private List<SampledTable> readCatalog(String schema, String tablePattern) {
+        return jdbcTemplate.execute((ConnectionCallback<List<SampledTable>>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            
+            Set<String> baseTables = new HashSet<>();
+            try (ResultSet rs = metaData.getTables(null, schema, tablePattern, null)) {
+                while (rs.next()) {
+                    String type = rs.getString("TABLE_TYPE");
+                    if ("TABLE".equalsIgnoreCase(type) || "BASE TABLE".equalsIgnoreCase(type)) {
+                        baseTables.add(qualify(rs.getString("TABLE_SCHEM"), rs.getString("TABLE_NAME")));
+                    }
+                }
+            }
+            
+            Map<String, List<String>> columns = new LinkedHashMap<>();
+            try (ResultSet rs = metaData.getColumns(null, schema, tablePattern, "%")) {
+                while (rs.next()) {
+                    String tableSchema = rs.getString("TABLE_SCHEM");
+                    String tableName = rs.getString("TABLE_NAME");
+                    String table = qualify(tableSchema, tableName);
+                    String column = rs.getString("COLUMN_NAME");
+                    if (baseTables.contains(table) && isSampled(tableSchema, tableName, column, rs.getInt("DATA_TYPE"))) {
+                        columns.computeIfAbsent(table, t -> new ArrayList<>()).add(column);
+                    }
+                }
+            }
+            
+            List<SampledTable> tables = new ArrayList<>(columns.size());
+            columns.forEach((table, names) -> tables.add(new SampledTable(table, names)));
+            return tables;
+        });
+    }
+    
+    private static boolean isSampled(String schema, String table, String column, int dataType) {
+        if (schema != null && SYSTEM_SCHEMAS.contains(schema.toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        if (INTERNAL_TABLES.contains(table.toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        // Names are put into SQL, so tables and columns that would need quoting are skipped
+        try {
+            SqlIdentifiers.requireTable(qualify(schema, table));
+            SqlIdentifiers.requireColumn(column);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return switch (dataType) {
+            case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR,
+                 Types.CLOB, Types.NCLOB, Types.BIGINT, Types.NUMERIC, Types.DECIMAL -> true;
+            default -> false;
+        };
+    }
+    
+    private static String qualify(String schema, String table) {
+        return schema != null ? schema + "." + table : table;
+    }
+    
+    /**
+     * Planner row estimates of PostgreSQL tables, used to size TABLESAMPLE; empty for other databases
+     */
+    private Map<String, Double> estimateRows() {
+        String product = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (product == null || !product.toLowerCase(Locale.ROOT).contains("postgresql")) {
+            return Map.of();
+        }
+        Map<String, Double> estimates = new HashMap<>();
+        jdbcTemplate.query("SELECT n.nspname, c.relname, c.reltuples FROM pg_class c "
+                + "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE c.relkind = 'r'",
+            rs -> {
+                estimates.put(qualify(rs.getString(1), rs.getString(2)).toLowerCase(Locale.ROOT), rs.getDouble(3));
+            });
+        return estimates;
+    }
+    
+    /**
+     * Read up to sampleSize rows of all sampled columns in one query and classify each column
+     * Large PostgreSQL tables are sampled by page with TABLESAMPLE, others read their first rows
+     */
+    private List<ColumnResult> sampleTable(SampledTable table, int sampleSize, Double rowEstimate) {
+        List<String> columns = table.columns();
+        StringBuilder sql = new StringBuilder("SELECT ")
+            .append(String.join(", ", columns))
+            .append(" FROM ")
+            .append(table.name());
+        if (rowEstimate != null && rowEstimate > (double) sampleSize * TABLESAMPLE_OVERSAMPLING * 5) {
+            double percent = 100.0 * sampleSize * TABLESAMPLE_OVERSAMPLING / rowEstimate;
+            sql.append(String.format(Locale.ROOT, " TABLESAMPLE SYSTEM (%.6f)", percent));
+        }
+        
+        List<List<String>> values = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            values.add(new ArrayList<>(sampleSize));
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString());
+            statement.setMaxRows(sampleSize);
+            statement.setFetchSize(sampleSize);
+            statement.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+            return statement;
+        }, rs -> {
+            for (int i = 0; i < columns.size(); i++) {
+                values.get(i).add(rs.getString(i + 1));
+            }
+        });
+        
+        List<ColumnResult> results = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnResult result = classifyColumn(table.name(), columns.get(i), values.get(i));
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Classify a column by its values, or as free text if the values only contain PII somewhere inside
+     */
+    private ColumnResult classifyColumn(String table, String column, List<String> values) {
+        ClassificationResponse classification = piiClassifier.classifySample(values);
+        if (classification.getSampled() == 0) {
+            return null;
+        }
+        if (classification.getPiiType() != null) {
+            return new ColumnResult(table, column, classification.getPiiType(),
+                classification.getConfidence(), classification.getSampled());
+        }
+        
+        int withPii = 0;
+        for (String value : values) {
+            if (StringUtils.isNotBlank(value) && !TextPiiScanner.scan(value).isEmpty()) {
+                withPii++;
+            }
+        }
+        if (withPii == 0) {
+            return null;
+        }
+        return new ColumnResult(table, column, PiiType.TEXT,
+            (double) withPii / classification.getSampled(), classification.getSampled());
+    }
+    
+    /**
+     * Upsert mappings for the detected columns, proposing an inactive rule for types that have none
+     */
+    private SavedMappings saveMappings(List<ColumnResult> results) {
+        Map<PiiType, MaskingRule> rules = new EnumMap<>(PiiType.class);
+        for (MaskingRule rule : maskingRuleRepository.findAll()) {
+            // Prefer the active rule when a type has several
+            rules.merge(rule.getPiiType(), rule, (a, b) -> Boolean.TRUE.equals(a.getIsActive()) ? a : b);
+        }
+        
+        int proposed = 0;
+        for (ColumnResult result : results) {
+            if (!rules.containsKey(result.piiType())) {
+                MaskingRule rule = new MaskingRule();
+                rule.setPiiType(result.piiType());
+                rule.setStrategy(MaskingStrategy.ASTERISK);
+                rule.setIsActive(false);
+                rule.setDescription(PROPOSED_RULE_DESCRIPTION);
+                rules.put(result.piiType(), maskingRuleRepository.save(rule));
+                proposed++;
+            }
+        }
+        
+        Map<String, ColumnMapping> existing = new HashMap<>();
+        for (ColumnMapping mapping : columnMappingRepository.findByJobIdIsNullOrderByTableNameAscColumnNameAsc()) {
+            existing.put(mappingKey(mapping.getTableName(), mapping.getColumnName()), mapping);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<ColumnMapping> mappings = new ArrayList<>(results.size());
+        for (ColumnResult result : results) {
+            ColumnMapping mapping = existing.getOrDefault(mappingKey(result.table(), result.column()), new ColumnMapping());
+            mapping.setTableName(result.table());
+            mapping.setColumnName(result.column());
+            mapping.setPiiType(result.piiType());
+            mapping.setRuleId(rules.get(result.piiType()).getId());
+            mapping.setConfidence(result.confidence());
+            mapping.setSampledRows(result.sampled());
+            mapping.setDiscoveredAt(now);
+            mappings.add(mapping);
+        }
+        return new SavedMappings(Collections.unmodifiableList(columnMappingRepository.saveAll(mappings)), proposed);
+    }
+    
+    private static String mappingKey(String table, String column) {
+        return (table + "." + column).toLowerCase(Locale.ROOT);
+    }
+    
+    private record SampledTable(String name, List<String> columns) {
+    }
+    
+    private record ColumnResult(String table, String column, PiiType piiType, double confidence, int sampled) {
+    }
+    
+    private record SavedMappings(List<ColumnMapping> mappings, int proposedRules) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.datamasking.tool.service;
+
+import java.security.SecureRandom;
+
+/**
+ * Cryptographically strong random values from a striped pool of SecureRandom instances
+ * Threads draw bytes in blocks into a private buffer, so a stripe is only locked once per block
+ */
+public class SecureRandomValueGenerator extends RandomValueGenerator {
+    
+    private static final int BLOCK_SIZE = 512;
+    
+    private final SecureRandom[] stripes;
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+    
+    public SecureRandomValueGenerator(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("At least one SecureRandom stripe is required");
+        }
+        this.stripes = new SecureRandom[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new SecureRandom();
+        }
+    }
+    
+    @Override
+    protected long nextLong() {
+        Block block = blocks.get();
+        if (block.position == BLOCK_SIZE) {
+            SecureRandom stripe = stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+            stripe.nextBytes(block.bytes);
+            block.position = 0;
+        }
+        
+        byte[] bytes = block.bytes;
+        int p = block.position;
+        long value = 0;
+        for (int k = 0; k < Long.BYTES; k++) {
+            value = (value << 8) | (bytes[p + k] & 0xFF);
+        }
+        block.position = p + Long.BYTES;
+        return value;
+    }
+    
+    private static final class Block {
+        
+        private final byte[] bytes = new byte[BLOCK_SIZE];
+        private int position = BLOCK_SIZE;
+    }
+}
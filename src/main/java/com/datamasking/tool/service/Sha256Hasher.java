@@ -0,0 +1,53 @@
+package com.datamasking.tool.service;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 hashing for the HASH strategy
+ * Keeps one digest and workspace per thread, so no provider lookup or buffer allocation happens per value
+ */
+public final class Sha256Hasher {
+    
+    private static final int DIGEST_LENGTH = 32;
+    
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+    
+    private Sha256Hasher() {
+    }
+    
+    /**
+     * Hash a value encoded as UTF-8 and return the digest as 64 lowercase hex characters
+     */
+    public static String hash(CharSequence value) {
+        State state = STATE.get();
+        DigestWorkspace workspace = state.workspace;
+        int length = workspace.encode(value);
+        
+        try {
+            state.digest.update(workspace.input(), 0, length);
+            state.digest.digest(workspace.digest(), 0, DIGEST_LENGTH);
+        } catch (DigestException e) {
+            state.digest.reset();
+            throw new IllegalStateException("SHA-256 digest failed", e);
+        } finally {
+            workspace.release();
+        }
+        return workspace.toHex(DIGEST_LENGTH);
+    }
+    
+    private static final class State {
+        
+        private final MessageDigest digest;
+        private final DigestWorkspace workspace = new DigestWorkspace();
+        
+        private State() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 algorithm not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.datamasking.tool.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * Validation of table and column names that are put into generated SQL
+ * Names cannot be bound as statement parameters, so anything but plain identifiers is rejected
+ */
+public final class SqlIdentifiers {
+    
+    private static final Pattern TABLE_PATTERN = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?$");
+    private static final Pattern COLUMN_PATTERN = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*$");
+    
+    private SqlIdentifiers() {
+    }
+    
+    /**
+     * Check a table name, optionally qualified with a schema
+     */
+    public static String requireTable(String name) {
+        if (name == null || !TABLE_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid table name: " + name);
+        }
+        return name;
+    }
+    
+    /**
+     * Check a column name
+     */
+    public static String requireColumn(String name) {
+        if (name == null || !COLUMN_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid column name: " + name);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,155 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.dto.MaskingRequest;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Service for bulk masking of value streams
+ * Reads NDJSON or a JSON array token by token and writes masked values as they are produced,
+ * so heap use does not depend on the size of the payload
+ */
+@Service
+@Slf4j
+public class StreamingMaskingService {
+    
+    // Number of elements written between explicit flushes of the output stream
+    private static final int FLUSH_INTERVAL = 1024;
+    
+    private final MaskingService maskingService;
+    private final JsonFactory jsonFactory;
+    
+    public StreamingMaskingService(MaskingService maskingService, ObjectMapper objectMapper) {
+        this.maskingService = maskingService;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+    
+    /**
+     * Mask every scalar value in the input stream with the given configuration
+     * A top-level JSON array is answered with a JSON array, anything else is treated as NDJSON
+     *
+     * @return number of values written to the output
+     * @throws IllegalArgumentException if the input is malformed or holds a non-scalar element; when masked values
+     *         have already been written, the output is first ended with an {@code {"error": ...}} element
+     */
+    public long maskStream(InputStream input, OutputStream output, MaskingRequest config) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(input);
+             JsonGenerator generator = jsonFactory.createGenerator(output)) {
+            
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            
+            JsonToken token = nextToken(parser);
+            if (token == null) {
+                return 0;
+            }
+            
+            // Resolve dispatch and options once for the whole stream
+            MaskingPlan plan = maskingService.getPlan(config);
+            
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = nextToken(parser);
+            }
+            
+            // The array is opened with its first masked value, so a stream rejected before it writes nothing
+            long count = 0;
+            try {
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    String masked = maskElement(parser, token, plan);
+                    if (array && count == 0) {
+                        generator.writeStartArray();
+                    }
+                    if (masked == null) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeString(masked);
+                    }
+                    if (!array) {
+                        generator.writeRaw('\n');
+                    }
+                    if (++count % FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                    token = nextToken(parser);
+                }
+            } catch (IllegalArgumentException e) {
+                if (count > 0) {
+                    writeError(generator, e.getMessage(), array);
+                }
+                throw e;
+            }
+            
+            if (array) {
+                if (count == 0) {
+                    generator.writeStartArray();
+                }
+                generator.writeEndArray();
+            }
+            generator.flush();
+            return count;
+        }
+    }
+    
+    private static JsonToken nextToken(JsonParser parser) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        }
+    }
+    
+    private static IllegalArgumentException malformed(JsonProcessingException e) {
+        return new IllegalArgumentException("Malformed JSON stream: " + e.getOriginalMessage(), e);
+    }
+    
+    /**
+     * End a stream that fails part way with an element telling the client it is incomplete
+     */
+    private static void writeError(JsonGenerator generator, String message, boolean array) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+        if (array) {
+            generator.writeEndArray();
+        } else {
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+    
+    private String maskElement(JsonParser parser, JsonToken token, MaskingPlan plan) throws IOException {
+        String value = switch (token) {
+            case VALUE_STRING, VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT, VALUE_TRUE, VALUE_FALSE -> text(parser);
+            case VALUE_NULL -> null;
+            default -> throw new IllegalArgumentException(
+                "Stream elements must be scalar JSON values, found " + token + " at " + parser.currentLocation());
+        };
+        
+        try {
+            return plan.mask(value);
+        } catch (RuntimeException e) {
+            log.debug("Error masking stream element: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    // Strings are decoded lazily, so an unterminated one only fails here
+    private static String text(JsonParser parser) throws IOException {
+        try {
+            return parser.getText();
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Realistic substitutes for names and addresses under the RANDOM strategy
+ * Turkish and English first names, last names, cities and streets are loaded once from the classpath into
+ * interned arrays, and every substitute is picked by indexing them with a keyed hash of the input. Selection is
+ * O(1) and deterministic: the same name always gets the same substitute, and name tokens are substituted one by
+ * one, so relatives keep a shared last name
+ */
+@Service
+@Slf4j
+public class SyntheticValueGenerator {
+    
+    private static final String RESOURCE_ROOT = "/synthetic/";
+    private static final String SEED_LABEL = "synthetic-values";
+    private static final String TURKISH_LETTERS = "çğıöşüÇĞİÖŞÜ";
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final int MAX_HOUSE_NUMBER = 199;
+    
+    private final Dictionary turkish;
+    private final Dictionary english;
+    private final Dictionary defaultDictionary;
+    
+    // Folded names and cities of both languages, for values without Turkish letters
+    private final Map<String, Dictionary> knownNames = new HashMap<>();
+    private final Map<String, Dictionary> knownCities = new HashMap<>();
+    
+    private final HmacHasher hmacHasher;
+    
+    // Derived on first use, so the application starts without an HMAC key until substitutes are needed
+    private volatile long seed;
+    private volatile boolean seeded;
+    
+    public SyntheticValueGenerator(HmacHasher hmacHasher,
+                                   @Value("${masking.synthetic.default-locale:tr}") String defaultLocale) {
+        this.turkish = Dictionary.load("tr", Locale.forLanguageTag("tr"), false);
+        this.english = Dictionary.load("en", Locale.ENGLISH, true);
+        this.defaultDictionary = switch (defaultLocale.trim().toLowerCase(Locale.ROOT)) {
+            case "tr" -> turkish;
+            case "en" -> english;
+            default -> throw new IllegalStateException("Unknown masking.synthetic.default-locale: " + defaultLocale);
+        };
+        
+        for (Dictionary dictionary : new Dictionary[] {turkish, english}) {
+            index(knownNames, dictionary.firstNames(), dictionary);
+            index(knownNames, dictionary.lastNames(), dictionary);
+            index(knownCities, dictionary.cities(), dictionary);
+        }
+        
+        this.hmacHasher = hmacHasher;
+        log.info("Loaded synthetic value dictionaries: {} Turkish and {} English names, default locale {}",
+            turkish.firstNames().length + turkish.lastNames().length,
+            english.firstNames().length + english.lastNames().length, defaultDictionary.locale());
+    }
+    
+    /**
+     * Substitute every whitespace separated token of a name
+     * Last names are drawn for LAST_NAME and for the final token of a FULL_NAME, first names otherwise
+     */
+    public String name(String value, PiiType piiType) {
+        int tokens = countTokens(value);
+        if (tokens == 0) {
+            return value;
+        }
+        Dictionary dictionary = nameDictionary(value);
+        StringBuilder out = new StringBuilder(value.length() + 8);
+        
+        int token = 0;
+        int pos = 0;
+        while (token < tokens) {
+            while (Character.isWhitespace(value.charAt(pos))) {
+                pos++;
+            }
+            int end = pos;
+            while (end < value.length() && !Character.isWhitespace(value.charAt(end))) {
+                end++;
+            }
+            boolean lastName = piiType == PiiType.LAST_NAME
+                || (piiType == PiiType.FULL_NAME && tokens > 1 && token == tokens - 1);
+            if (out.length() > 0) {
+                out.append(' ');
+            }
+            out.append(pick(lastName ? dictionary.lastNames() : dictionary.firstNames(), hash(value, pos, end)));
+            token++;
+            pos = end;
+        }
+        return isUpperCase(value) ? out.toString().toUpperCase(dictionary.locale()) : out.toString();
+    }
+    
+    /**
+     * Substitute an address with a street, house number and city in the local format
+     */
+    public String address(String value) {
+        Dictionary dictionary = addressDictionary(value);
+        long hash = hash(value, 0, value.length());
+        String street = pick(dictionary.streets(), hash);
+        int number = 1 + (int) Long.remainderUnsigned(mix(hash + 1), MAX_HOUSE_NUMBER);
+        String city = pick(dictionary.cities(), mix(hash + 2));
+        return dictionary.numberFirst()
+            ? number + " " + street + ", " + city
+            : street + " No:" + number + ", " + city;
+    }
+    
+    private Dictionary nameDictionary(String value) {
+        if (hasTurkishLetters(value)) {
+            return turkish;
+        }
+        int start = 0;
+        while (Character.isWhitespace(value.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < value.length() && !Character.isWhitespace(value.charAt(end))) {
+            end++;
+        }
+        return knownNames.getOrDefault(fold(value, start, end), defaultDictionary);
+    }
+    
+    private Dictionary addressDictionary(String value) {
+        if (hasTurkishLetters(value)) {
+            return turkish;
+        }
+        // The city usually ends an address: "10 Oak Street, London" or "Kadikoy/Istanbul"
+        int start = Math.max(value.lastIndexOf(','), value.lastIndexOf('/')) + 1;
+        return knownCities.getOrDefault(fold(value, start, value.length()).trim(), defaultDictionary);
+    }
+    
+    /**
+     * Hash the letters and digits of a range, case and Turkish letters folded, so spelling variants
+     * such as "AHMET YILMAZ" and "Ahmet Yilmaz" get the same substitute
+     */
+    private long hash(String value, int start, int end) {
+        long hash = seed();
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ fold(c)) * FNV_PRIME;
+            }
+        }
+        return mix(hash);
+    }
+    
+    /**
+     * Keyed by the HMAC secret, so substitutes cannot be recomputed from a guessed name without the key
+     *
+     * @throws IllegalStateException if no active HMAC key is configured
+     */
+    private long seed() {
+        if (!seeded) {
+            // Racing threads derive the same seed
+            seed = hmacHasher.fingerprint(SEED_LABEL)[0];
+            seeded = true;
+        }
+        return seed;
+    }
+    
+    private static String pick(String[] values, long hash) {
+        return values[(int) Long.remainderUnsigned(hash, values.length)];
+    }
+    
+    /**
+     * SplitMix64 finalizer, spreads every input bit over the whole word
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    private static int countTokens(String value) {
+        int tokens = 0;
+        boolean inToken = false;
+        for (int i = 0; i < value.length(); i++) {
+            boolean whitespace = Character.isWhitespace(value.charAt(i));
+            if (!whitespace && !inToken) {
+                tokens++;
+            }
+            inToken = !whitespace;
+        }
+        return tokens;
+    }
+    
+    private static boolean hasTurkishLetters(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (TURKISH_LETTERS.indexOf(value.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isUpperCase(String value) {
+        boolean letters = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLowerCase(c)) {
+                return false;
+            }
+            letters |= Character.isLetter(c);
+        }
+        return letters;
+    }
+    
+    private static String fold(String value, int start, int end) {
+        char[] folded = new char[end - start];
+        for (int i = start; i < end; i++) {
+            folded[i - start] = fold(value.charAt(i));
+        }
+        return new String(folded);
+    }
+    
+    private static char fold(char c) {
+        return switch (c) {
+            case 'ı', 'İ', 'I' -> 'i';
+            case 'ş', 'Ş' -> 's';
+            case 'ğ', 'Ğ' -> 'g';
+            case 'ç', 'Ç' -> 'c';
+            case 'ö', 'Ö' -> 'o';
+            case 'ü', 'Ü' -> 'u';
+            default -> Character.toLowerCase(c);
+        };
+    }
+    
+    private static void index(Map<String, Dictionary> index, String[] values, Dictionary dictionary) {
+        for (String value : values) {
+            index.putIfAbsent(fold(value, 0, value.length()), dictionary);
+        }
+    }
+    
+    /**
+     * Substitutes of one language; English addresses put the house number first
+     */
+    private record Dictionary(Locale locale, boolean numberFirst, String[] firstNames, String[] lastNames,
+                              String[] cities, String[] streets) {
+        
+        static Dictionary load(String language, Locale locale, boolean numberFirst) {
+            return new Dictionary(locale, numberFirst,
+                read(language, "first-names"), read(language, "last-names"),
+                read(language, "cities"), read(language, "streets"));
+        }
+        
+        private static String[] read(String language, String name) {
+            String resource = RESOURCE_ROOT + language + "/" + name + ".txt";
+            InputStream in = SyntheticValueGenerator.class.getResourceAsStream(resource);
+            if (in == null) {
+                throw new IllegalStateException("Missing synthetic value dictionary: " + resource);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String[] values = reader.lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(String::intern)
+                    .toArray(String[]::new);
+                if (values.length == 0) {
+                    throw new IllegalStateException("Empty synthetic value dictionary: " + resource);
+                }
+                return values;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
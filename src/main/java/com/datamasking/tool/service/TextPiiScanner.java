@@ -0,0 +1,576 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass detector of PII spans inside free text
+ * One left-to-right walk drives an Aho-Corasick automaton over secret labels ("şifre:", "password=")
+ * and hand-written state machines for emails, phone, TC Kimlik and card numbers, IBANs and IP addresses.
+ * Candidates are confirmed with {@link PiiValidators}, so order numbers and dates are left alone
+ */
+public final class TextPiiScanner {
+    
+    /**
+     * Types reported by the scanner; values following a secret label are reported as {@link PiiType#TEXT}
+     */
+    public static final List<PiiType> DETECTED_TYPES = List.of(
+        PiiType.EMAIL, PiiType.PHONE, PiiType.TC_KIMLIK_NO, PiiType.CREDIT_CARD,
+        PiiType.BANK_ACCOUNT, PiiType.IP_ADDRESS, PiiType.TEXT);
+    
+    private static final KeywordAutomaton SECRET_LABELS = new KeywordAutomaton(
+        "password", "passwd", "parola", "şifre", "sifre", "pin", "cvv", "cvc", "secret");
+    
+    private static final int MAX_SECRET_LENGTH = 128;
+    private static final int MAX_NUMBER_DIGITS = 19;
+    private static final int MAX_IBAN_LENGTH = 34;
+    private static final int MAX_IPV6_LENGTH = 45;
+    
+    // Character classes of ASCII, so the common case costs one table lookup per character
+    private static final int WORD = 1;
+    private static final int HEX = 2;
+    private static final int SPAN_START = 4;
+    private static final byte[] ASCII_FLAGS = new byte[0x80];
+    
+    static {
+        for (char c = 0; c < 0x80; c++) {
+            int flags = isAsciiLetterOrDigit(c) ? WORD : 0;
+            if (PiiValidators.isHex(c) || c == ':') {
+                flags |= HEX | SPAN_START;
+            }
+            if (isDigit(c) || isUpper(c) || c == '+' || c == '(') {
+                flags |= SPAN_START;
+            }
+            ASCII_FLAGS[c] = (byte) flags;
+        }
+    }
+    
+    private TextPiiScanner() {
+    }
+    
+    /**
+     * Detected PII span, end exclusive
+     */
+    public record Span(int start, int end, PiiType type) {
+    }
+    
+    @FunctionalInterface
+    interface SpanConsumer {
+        
+        void accept(int start, int end, PiiType type);
+    }
+    
+    /**
+     * Find every PII span in the text, in order and without overlaps
+     */
+    public static List<Span> scan(String text) {
+        List<Span> spans = new ArrayList<>();
+        scan(text, (start, end, type) -> spans.add(new Span(start, end, type)));
+        return spans;
+    }
+    
+    /**
+     * Replace every PII span with the output of the masker registered for its type, indexed by ordinal
+     * Text without PII is returned as the same instance
+     */
+    public static String mask(String text, Masker[] maskers) {
+        SpanReplacer replacer = new SpanReplacer(text, maskers);
+        scan(text, replacer);
+        return replacer.result();
+    }
+    
+    static void scan(String text, SpanConsumer consumer) {
+        new Cursor(text, consumer).run();
+    }
+    
+    /**
+     * Appends unchanged text between spans and masked spans, allocating only once a span is found
+     */
+    private static final class SpanReplacer implements SpanConsumer {
+        
+        private final String text;
+        private final Masker[] maskers;
+        private StringBuilder out;
+        private int copied;
+        
+        private SpanReplacer(String text, Masker[] maskers) {
+            this.text = text;
+            this.maskers = maskers;
+        }
+        
+        @Override
+        public void accept(int start, int end, PiiType type) {
+            Masker masker = maskers[type.ordinal()];
+            if (masker == null) {
+                return;
+            }
+            if (out == null) {
+                out = new StringBuilder(text.length() + 16);
+            }
+            out.append(text, copied, start);
+            String masked = masker.mask(text.substring(start, end));
+            if (masked != null) {
+                out.append(masked);
+            }
+            copied = end;
+        }
+        
+        private String result() {
+            if (out == null) {
+                return text;
+            }
+            return out.append(text, copied, text.length()).toString();
+        }
+    }
+    
+    /**
+     * Scan state over one text
+     */
+    private static final class Cursor {
+        
+        private final String text;
+        private final char[] chars;
+        private final int length;
+        private final SpanConsumer consumer;
+        private final char[] digits = new char[MAX_NUMBER_DIGITS + 1];
+        private final int[] groupEnds = new int[MAX_IBAN_LENGTH + 2];
+        
+        // End of the last reported span; later spans never start before it
+        private int emitted;
+        
+        private Cursor(String text, SpanConsumer consumer) {
+            this.text = text;
+            this.chars = text.toCharArray();
+            this.length = text.length();
+            this.consumer = consumer;
+        }
+        
+        private void run() {
+            int state = 0;
+            boolean inWord = false;
+            int i = 0;
+            while (i < length) {
+                char c = chars[i];
+                int flags = c < 0x80 ? ASCII_FLAGS[c] : Character.isLetterOrDigit(c) ? WORD : 0;
+                state = SECRET_LABELS.next(state, c);
+                
+                int next = -1;
+                if (state != 0 && SECRET_LABELS.matchLength(state) > 0) {
+                    next = secretValue(i + 1 - SECRET_LABELS.matchLength(state), i + 1);
+                } else if (c == '@') {
+                    next = email(i);
+                } else if ((flags & SPAN_START) != 0 && !inWord && i >= emitted) {
+                    if ((flags & HEX) != 0 && hasColonAhead(i)) {
+                        next = ipv6(i);
+                    }
+                    if (next < 0 && (isDigit(c) || ((c == '+' || c == '(') && isDigitAt(i + 1)))) {
+                        next = number(i);
+                    } else if (next < 0 && isUpper(c)) {
+                        next = iban(i);
+                    }
+                }
+                
+                if (next > i) {
+                    i = next;
+                    state = 0;
+                    inWord = Character.isLetterOrDigit(chars[i - 1]);
+                } else {
+                    inWord = (flags & WORD) != 0;
+                    i++;
+                }
+            }
+        }
+        
+        private void emit(int start, int end, PiiType type) {
+            consumer.accept(start, end, type);
+            emitted = end;
+        }
+        
+        /**
+         * Value after a secret label such as "şifre: 1234", up to the next whitespace
+         */
+        private int secretValue(int labelStart, int labelEnd) {
+            if (labelStart < emitted || (labelStart > 0 && Character.isLetterOrDigit(chars[labelStart - 1]))) {
+                return -1;
+            }
+            int i = skipSpaces(labelEnd);
+            if (i >= length || (chars[i] != ':' && chars[i] != '=')) {
+                return -1;
+            }
+            int start = skipSpaces(i + 1);
+            int end = start;
+            while (end < length && end - start < MAX_SECRET_LENGTH && !Character.isWhitespace(chars[end])) {
+                end++;
+            }
+            if (end == start) {
+                return -1;
+            }
+            emit(start, end, PiiType.TEXT);
+            return end;
+        }
+        
+        /**
+         * Email around an '@': local part of [A-Za-z0-9+_.-], domain of [A-Za-z0-9.-] with a letter TLD
+         */
+        private int email(int at) {
+            int start = at;
+            while (start > emitted && isLocalChar(chars[start - 1])) {
+                start--;
+            }
+            int end = at + 1;
+            int lastDot = -1;
+            while (end < length && (isAsciiLetterOrDigit(chars[end]) || chars[end] == '-'
+                || chars[end] == '.')) {
+                if (chars[end] == '.') {
+                    lastDot = end;
+                }
+                end++;
+            }
+            // A sentence may end right after the address
+            while (end > at + 1 && (chars[end - 1] == '.' || chars[end - 1] == '-')) {
+                end--;
+            }
+            if (lastDot >= end) {
+                lastDot = text.lastIndexOf('.', end - 1);
+            }
+            if (start == at || lastDot <= at + 1 || end - lastDot <= 2) {
+                return -1;
+            }
+            for (int i = lastDot + 1; i < end; i++) {
+                if (!isAsciiLetter(chars[i])) {
+                    return -1;
+                }
+            }
+            emit(start, end, PiiType.EMAIL);
+            return end;
+        }
+        
+        /**
+         * Digit groups joined by single spaces, dashes, dots or parentheses, optionally after a '+'
+         * The whole group is classified first, then its first run alone
+         *
+         * @return end of the detected span, or the end of the first digit run to resume after it
+         */
+        private int number(int start) {
+            int i = start;
+            boolean plus = chars[i] == '+';
+            if (plus) {
+                i++;
+            }
+            
+            int count = 0;
+            int runs = 0;
+            int firstRunEnd = -1;
+            int firstRunDigits = 0;
+            int end = i;
+            char separators = 0;
+            boolean mixedSeparators = false;
+            boolean tooLong = false;
+            
+            while (true) {
+                boolean paren = i < length && chars[i] == '(';
+                int runStart = paren ? i + 1 : i;
+                int j = runStart;
+                while (j < length && isDigit(chars[j])) {
+                    if (count < digits.length) {
+                        digits[count] = chars[j];
+                    }
+                    count++;
+                    j++;
+                }
+                if (j == runStart || (paren && (j >= length || chars[j] != ')'))) {
+                    break;
+                }
+                if (paren) {
+                    j++;
+                }
+                runs++;
+                end = j;
+                if (firstRunEnd < 0) {
+                    firstRunEnd = j;
+                    firstRunDigits = count;
+                }
+                tooLong |= count > MAX_NUMBER_DIGITS;
+                
+                if (j + 1 >= length || !isNumberSeparator(chars[j])
+                    || !(isDigit(chars[j + 1]) || chars[j + 1] == '(')) {
+                    break;
+                }
+                char separator = chars[j];
+                if (separators == 0) {
+                    separators = separator;
+                } else if (separators != separator) {
+                    mixedSeparators = true;
+                }
+                i = j + 1;
+            }
+            
+            if (!tooLong && isNumberEnd(end)) {
+                PiiType type = classify(start, end, count, runs, plus, separators, mixedSeparators);
+                if (type != null) {
+                    emit(start, end, type);
+                    return end;
+                }
+            }
+            if (runs > 1 && !plus && firstRunDigits <= MAX_NUMBER_DIGITS && isNumberEnd(firstRunEnd)) {
+                PiiType type = classify(start, firstRunEnd, firstRunDigits, 1, false, (char) 0, false);
+                if (type != null) {
+                    emit(start, firstRunEnd, type);
+                    return firstRunEnd;
+                }
+            }
+            return Math.max(firstRunEnd, start + 1);
+        }
+        
+        private PiiType classify(int start, int end, int count, int runs, boolean plus,
+                                 char separators, boolean mixedSeparators) {
+            if (!plus && runs == 4 && separators == '.' && !mixedSeparators
+                && PiiValidators.isIpv4(text, start, end)) {
+                return PiiType.IP_ADDRESS;
+            }
+            if (separators == '.' && runs > 1 && count < 10) {
+                return null;
+            }
+            if (!plus && count == 11 && PiiValidators.isTcKimlikNo(digits, count)) {
+                return PiiType.TC_KIMLIK_NO;
+            }
+            if (!plus && count >= 13 && separators != '.' && PiiValidators.isLuhn(digits, count)) {
+                return PiiType.CREDIT_CARD;
+            }
+            return PiiValidators.isPhoneNumber(digits, count, plus, runs > 1) ? PiiType.PHONE : null;
+        }
+        
+        /**
+         * IBAN: two uppercase letters, two check digits, then uppercase alphanumerics in groups split by
+         * single spaces. Trailing groups are dropped until the country length and mod-97 check pass
+         */
+        private int iban(int start) {
+            if (start + 4 > length || !isUpper(chars[start + 1])
+                || !isDigit(chars[start + 2]) || !isDigit(chars[start + 3])) {
+                return -1;
+            }
+            int groups = 0;
+            int count = 0;
+            int i = start;
+            while (i < length && count <= MAX_IBAN_LENGTH) {
+                char c = chars[i];
+                if (isDigit(c) || isUpper(c)) {
+                    count++;
+                    i++;
+                    continue;
+                }
+                groupEnds[groups++] = i;
+                if (c != ' ' || i + 1 >= length || !(isDigit(chars[i + 1]) || isUpper(chars[i + 1]))) {
+                    break;
+                }
+                i++;
+            }
+            if (i == length && count <= MAX_IBAN_LENGTH) {
+                groupEnds[groups++] = i;
+            }
+            
+            for (int g = groups - 1; g >= 0; g--) {
+                int end = groupEnds[g];
+                if (isNumberEnd(end) && PiiValidators.isIban(text, start, end)) {
+                    emit(start, end, PiiType.BANK_ACCOUNT);
+                    return end;
+                }
+            }
+            return -1;
+        }
+        
+        /**
+         * Run of hex digits, colons and dots parsed as an IPv6 address
+         */
+        private int ipv6(int start) {
+            int end = start;
+            while (end < length && end - start < MAX_IPV6_LENGTH) {
+                char c = chars[end];
+                if (!PiiValidators.isHex(c) && c != ':' && c != '.') {
+                    break;
+                }
+                end++;
+            }
+            // Trailing punctuation belongs to the sentence, unless the address ends in "::"
+            while (end > start && chars[end - 1] == '.'
+                || end - start > 2 && chars[end - 1] == ':' && chars[end - 2] != ':') {
+                end--;
+            }
+            if (end < length && isAsciiLetterOrDigit(chars[end])) {
+                return -1;
+            }
+            if (!PiiValidators.isIpv6(text, start, end)) {
+                return -1;
+            }
+            emit(start, end, PiiType.IP_ADDRESS);
+            return end;
+        }
+        
+        private boolean hasColonAhead(int i) {
+            int limit = Math.min(length, i + 6);
+            for (int j = i; j < limit; j++) {
+                char c = chars[j];
+                if (c == ':') {
+                    return true;
+                }
+                if (!PiiValidators.isHex(c)) {
+                    return false;
+                }
+            }
+            return false;
+        }
+        
+        private int skipSpaces(int i) {
+            while (i < length && (chars[i] == ' ' || chars[i] == '\t')) {
+                i++;
+            }
+            return i;
+        }
+        
+        /**
+         * Whether a numeric span may end at i: not followed by a word character or an email domain
+         */
+        private boolean isNumberEnd(int i) {
+            if (i >= length) {
+                return true;
+            }
+            char c = chars[i];
+            return !Character.isLetterOrDigit(c) && c != '@'
+                && !((c == '.' || c == '-') && i + 1 < length && Character.isLetterOrDigit(chars[i + 1]));
+        }
+        
+        private boolean isDigitAt(int i) {
+            return i < length && isDigit(chars[i]);
+        }
+    }
+    
+    /**
+     * Aho-Corasick automaton over lowercase keywords, with failure links folded into a dense transition table
+     */
+    static final class KeywordAutomaton {
+        
+        private final char[] alphabet;
+        private final int[] classOf;
+        private final int[][] transitions;
+        private final int[] matchLength;
+        
+        KeywordAutomaton(String... keywords) {
+            StringBuilder symbols = new StringBuilder();
+            for (String keyword : keywords) {
+                for (char c : keyword.toCharArray()) {
+                    if (symbols.indexOf(String.valueOf(c)) < 0) {
+                        symbols.append(c);
+                    }
+                }
+            }
+            this.alphabet = symbols.toString().toCharArray();
+            int maxChar = 0;
+            for (char c : alphabet) {
+                maxChar = Math.max(maxChar, c);
+            }
+            this.classOf = new int[maxChar + 1];
+            for (int k = 0; k < alphabet.length; k++) {
+                classOf[alphabet[k]] = k + 1;
+            }
+            
+            // Trie
+            List<Map<Integer, Integer>> children = new ArrayList<>();
+            List<Integer> depths = new ArrayList<>();
+            children.add(new HashMap<>());
+            depths.add(0);
+            List<Integer> terminal = new ArrayList<>();
+            terminal.add(0);
+            for (String keyword : keywords) {
+                int node = 0;
+                for (char c : keyword.toCharArray()) {
+                    int symbol = classOf[c];
+                    Integer child = children.get(node).get(symbol);
+                    if (child == null) {
+                        child = children.size();
+                        children.add(new HashMap<>());
+                        depths.add(depths.get(node) + 1);
+                        terminal.add(0);
+                        children.get(node).put(symbol, child);
+                    }
+                    node = child;
+                }
+                terminal.set(node, keyword.length());
+            }
+            
+            // Breadth-first failure links, folded into the transition table
+            int states = children.size();
+            int width = alphabet.length + 1;
+            this.transitions = new int[states][width];
+            this.matchLength = new int[states];
+            int[] failure = new int[states];
+            int[] queue = new int[states];
+            int head = 0;
+            int tail = 0;
+            for (int symbol = 1; symbol < width; symbol++) {
+                Integer child = children.get(0).get(symbol);
+                if (child != null) {
+                    transitions[0][symbol] = child;
+                    queue[tail++] = child;
+                }
+            }
+            while (head < tail) {
+                int node = queue[head++];
+                matchLength[node] = terminal.get(node) > 0 ? terminal.get(node) : matchLength[failure[node]];
+                for (int symbol = 1; symbol < width; symbol++) {
+                    Integer child = children.get(node).get(symbol);
+                    if (child != null) {
+                        failure[child] = transitions[failure[node]][symbol];
+                        transitions[node][symbol] = child;
+                        queue[tail++] = child;
+                    } else {
+                        transitions[node][symbol] = transitions[failure[node]][symbol];
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Advance on a character, compared case-insensitively; characters outside the keywords reset the match
+         */
+        int next(int state, char c) {
+            char lower = c < 0x80 ? (c >= 'A' && c <= 'Z' ? (char) (c + 32) : c) : Character.toLowerCase(c);
+            int symbol = lower < classOf.length ? classOf[lower] : 0;
+            return symbol == 0 ? 0 : transitions[state][symbol];
+        }
+        
+        /**
+         * Length of the longest keyword ending in the state, or 0
+         */
+        int matchLength(int state) {
+            return matchLength[state];
+        }
+    }
+    
+    private static boolean isNumberSeparator(char c) {
+        return c == ' ' || c == '-' || c == '.';
+    }
+    
+    private static boolean isLocalChar(char c) {
+        return isAsciiLetterOrDigit(c) || c == '.' || c == '_' || c == '+' || c == '-';
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+    
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+    
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || isDigit(c);
+    }
+}
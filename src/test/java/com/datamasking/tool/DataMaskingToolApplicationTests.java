@@ -1,13 +1,35 @@
 package com.datamasking.tool;
 
+import com.datamasking.tool.service.MaskingJobScheduler;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 class DataMaskingToolApplicationTests {
 
+	@Autowired
+	private ApplicationContext applicationContext;
+
 	@Test
 	void contextLoads() {
+		assertNotNull(applicationContext.getBean(MaskingJobScheduler.class));
+	}
+
+	@Test
+	void commandLineContextLeavesJobsAlone() {
+		// mask-csv and mask-columnar run without a web server against a possibly shared database
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DataMaskingToolApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:cli")) {
+			assertTrue(context.getBeansOfType(MaskingJobScheduler.class).isEmpty());
+		}
 	}
 
 }
@@ -1,11 +1,17 @@
 package com.datamasking.tool.controller;
 
+import com.datamasking.tool.dto.ClassificationRequest;
+import com.datamasking.tool.dto.ClassificationResponse;
 import com.datamasking.tool.dto.MaskingRequest;
 import com.datamasking.tool.dto.MaskingResponse;
 import com.datamasking.tool.model.MaskingRule;
 import com.datamasking.tool.model.MaskingStrategy;
 import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.service.AuditLogger;
+import com.datamasking.tool.service.MaskingRuleCache;
 import com.datamasking.tool.service.MaskingService;
+import com.datamasking.tool.service.PiiClassifier;
+import com.datamasking.tool.service.StreamingMaskingService;
 import com.datamasking.tool.repository.MaskingRuleRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -16,10 +22,15 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,9 +48,21 @@ class MaskingControllerTest {
     @MockBean
     private MaskingService maskingService;
     
+    @MockBean
+    private StreamingMaskingService streamingMaskingService;
+    
     @MockBean
     private MaskingRuleRepository maskingRuleRepository;
     
+    @MockBean
+    private MaskingRuleCache maskingRuleCache;
+    
+    @MockBean
+    private AuditLogger auditLogger;
+    
+    @MockBean
+    private PiiClassifier piiClassifier;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -74,6 +97,82 @@ class MaskingControllerTest {
                 .andExpect(jsonPath("$.maskedData").value("j***e@example.com"));
     }
     
+    @Test
+    @WithMockUser
+    void testMaskDataCompactProfile() throws Exception {
+        // Given
+        MaskingRequest request = MaskingRequest.builder()
+            .data("john.doe@example.com")
+            .piiType(PiiType.EMAIL)
+            .strategy(MaskingStrategy.ASTERISK)
+            .build();
+        
+        when(maskingService.maskData(argThat(r -> Boolean.TRUE.equals(r.getCompact()))))
+            .thenReturn(MaskingResponse.builder().maskedData("j***e@example.com").build());
+        
+        // When & Then
+        mockMvc.perform(post("/api/v1/masking/mask")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept("application/json;profile=compact")
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maskedData").value("j***e@example.com"))
+                .andExpect(jsonPath("$.originalData").doesNotExist())
+                .andExpect(jsonPath("$.success").doesNotExist());
+    }
+    
+    @Test
+    @WithMockUser
+    void testClassify() throws Exception {
+        // Given
+        List<String> values = List.of("10000000146", "");
+        when(piiClassifier.classifySample(values)).thenReturn(ClassificationResponse.builder()
+            .piiType(PiiType.TC_KIMLIK_NO)
+            .confidence(1.0)
+            .sampled(1)
+            .matches(Map.of(PiiType.TC_KIMLIK_NO, 1))
+            .build());
+        
+        // When & Then
+        mockMvc.perform(post("/api/v1/masking/classify")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ClassificationRequest(values))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.piiType").value("TC_KIMLIK_NO"))
+                .andExpect(jsonPath("$.matches.TC_KIMLIK_NO").value(1));
+        
+        mockMvc.perform(post("/api/v1/masking/classify")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ClassificationRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @WithMockUser
+    void testMaskStream() throws Exception {
+        // Given
+        when(streamingMaskingService.maskStream(any(), any(), any(MaskingRequest.class))).thenAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write("[\"***\",\"***\"]".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+        
+        // When & Then
+        mockMvc.perform(post("/api/v1/masking/mask/stream")
+                .with(csrf())
+                .param("piiType", "PHONE")
+                .param("strategy", "ASTERISK")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"5551234567\",\"5559876543\"]"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0]").value("***"))
+                .andExpect(jsonPath("$[1]").value("***"));
+    }
+    
     @Test
     void testGetPiiTypes() throws Exception {
         // When & Then
@@ -155,6 +254,9 @@ class MaskingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.piiType").value("EMAIL"));
+        
+        verify(maskingRuleCache).refresh();
+        verify(auditLogger).ruleCreated(any(MaskingRule.class));
     }
     
     @Test
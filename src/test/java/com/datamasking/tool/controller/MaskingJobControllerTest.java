@@ -0,0 +1,89 @@
+package com.datamasking.tool.controller;
+
+import com.datamasking.tool.dto.MaskingJobRequest;
+import com.datamasking.tool.model.MaskingJob;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.service.MaskingJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for MaskingJobController
+ */
+@WebMvcTest(MaskingJobController.class)
+class MaskingJobControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private MaskingJobService maskingJobService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    @WithMockUser
+    void testSubmitJob() throws Exception {
+        // Given
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("customers")
+            .sourceTable("customers")
+            .targetTable("customers_masked")
+            .columns(Map.of("email", PiiType.EMAIL))
+            .build();
+        
+        MaskingJob job = new MaskingJob();
+        job.setId(1L);
+        job.setJobName("customers");
+        
+        when(maskingJobService.submit(any(MaskingJobRequest.class), eq("user"))).thenReturn(job);
+        
+        // When & Then
+        mockMvc.perform(post("/api/v1/masking/jobs")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+    
+    @Test
+    @WithMockUser
+    void testCancelFinishedJob() throws Exception {
+        // Given
+        when(maskingJobService.cancel(1L)).thenThrow(new IllegalStateException("Job 1 is already COMPLETED"));
+        
+        // When & Then
+        mockMvc.perform(post("/api/v1/masking/jobs/1/cancel").with(csrf()))
+                .andExpect(status().isConflict());
+    }
+    
+    @Test
+    @WithMockUser
+    void testGetUnknownJob() throws Exception {
+        // Given
+        when(maskingJobService.getJob(1L)).thenReturn(Optional.empty());
+        
+        // When & Then
+        mockMvc.perform(get("/api/v1/masking/jobs/1"))
+                .andExpect(status().isNotFound());
+    }
+}
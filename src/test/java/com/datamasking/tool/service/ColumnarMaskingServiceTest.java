@@ -0,0 +1,155 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for ColumnarMaskingService
+ */
+@ExtendWith(MockitoExtension.class)
+class ColumnarMaskingServiceTest {
+    
+    private static final List<String> COLUMNS = List.of("id", "email", "city", "tc");
+    
+    @Mock
+    private MaskingRuleRepository maskingRuleRepository;
+    
+    private ColumnarMaskingService columnarMaskingService;
+    
+    @TempDir
+    private Path dir;
+    
+    private Path input;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(maskingRuleRepository.findAllActive()).thenReturn(List.of(
+            MaskingServiceFixtures.rule(PiiType.EMAIL), MaskingServiceFixtures.rule(PiiType.TC_KIMLIK_NO)));
+        MaskingService maskingService = MaskingServiceFixtures.maskingService(maskingRuleRepository);
+        columnarMaskingService = new ColumnarMaskingService(maskingService);
+        
+        input = dir.resolve("customers.dmc");
+        try (ColumnarFile.Writer writer = new ColumnarFile.Writer(input, COLUMNS, 3)) {
+            for (int i = 1; i <= 7; i++) {
+                writer.writeRow(String.valueOf(i), i == 4 ? null : "user" + i + "@example.com", "Izmir", "12345678901");
+            }
+        }
+    }
+    
+    @Test
+    void testMaskOnlyMappedColumns() throws Exception {
+        // Given
+        Path output = dir.resolve("customers-masked.dmc");
+        
+        // When
+        ColumnarMaskingService.Result result = columnarMaskingService.maskFile(input, output,
+            Map.of("EMAIL", PiiType.EMAIL, "tc", PiiType.TC_KIMLIK_NO));
+        
+        // Then
+        assertEquals(7, result.rows());
+        assertEquals(3, result.rowGroups());
+        assertEquals(13, result.maskedValues());
+        assertEquals("u***1@example.com", readColumn(output, "email").get(0));
+        assertNull(readColumn(output, "email").get(3));
+        assertEquals(List.of("123****8901"), readColumn(output, "tc").stream().distinct().toList());
+        assertEquals(readColumn(input, "city"), readColumn(output, "city"));
+        
+        // Unmapped chunks are copied byte for byte
+        try (FileChannel in = FileChannel.open(input); FileChannel out = FileChannel.open(output)) {
+            ColumnarFile.Footer before = ColumnarFile.readFooter(in);
+            ColumnarFile.Footer after = ColumnarFile.readFooter(out);
+            long unmapped = 0;
+            for (int g = 0; g < before.rowGroups().size(); g++) {
+                for (int c : new int[] {0, 2}) {
+                    assertArrayEquals(chunk(in, before.rowGroups().get(g), c), chunk(out, after.rowGroups().get(g), c));
+                    unmapped += before.rowGroups().get(g).lengths()[c];
+                }
+            }
+            assertEquals(unmapped, result.copiedBytes());
+        }
+    }
+    
+    @Test
+    void testRejectUnknownColumn() {
+        Path output = dir.resolve("unknown.dmc");
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> columnarMaskingService.maskFile(input, output, Map.of("phone", PiiType.PHONE)));
+    }
+    
+    @Test
+    void testRejectCorruptFooter() throws Exception {
+        Path output = dir.resolve("corrupt.dmc");
+        Map<String, PiiType> columns = Map.of("email", PiiType.EMAIL);
+        
+        // A column count beyond the footer and a column name running past its end
+        for (int corruption : new int[] {Integer.MAX_VALUE, 0x0001FFFF}) {
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer tail = ByteBuffer.allocate(Integer.BYTES);
+                channel.read(tail, channel.size() - 8);
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, corruption),
+                    channel.size() - 8 - tail.getInt(0));
+            }
+            
+            assertThrows(IllegalArgumentException.class, () -> columnarMaskingService.maskFile(input, output, columns));
+        }
+    }
+    
+    @Test
+    void testRejectMaskingIntoInput() throws Exception {
+        byte[] original = Files.readAllBytes(input);
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> columnarMaskingService.maskFile(input, dir.resolve(".").resolve(input.getFileName()),
+                Map.of("email", PiiType.EMAIL)));
+        assertArrayEquals(original, Files.readAllBytes(input));
+    }
+    
+    private static List<String> readColumn(Path file, String column) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ColumnarFile.Footer footer = ColumnarFile.readFooter(channel);
+            int index = footer.columns().indexOf(column);
+            List<String> values = new ArrayList<>();
+            for (ColumnarFile.RowGroup group : footer.rowGroups()) {
+                ByteBuffer chunk = ByteBuffer.wrap(chunk(channel, group, index));
+                for (int r = 0; r < group.rows(); r++) {
+                    int length = chunk.getInt();
+                    if (length < 0) {
+                        values.add(null);
+                    } else {
+                        byte[] bytes = new byte[length];
+                        chunk.get(bytes);
+                        values.add(new String(bytes, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            return values;
+        }
+    }
+    
+    private static byte[] chunk(FileChannel channel, ColumnarFile.RowGroup group, int column) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate((int) group.lengths()[column]);
+        channel.read(buffer, group.offsets()[column]);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+}
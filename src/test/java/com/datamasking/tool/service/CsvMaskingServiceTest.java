@@ -0,0 +1,130 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for CsvMaskingService
+ */
+@ExtendWith(MockitoExtension.class)
+class CsvMaskingServiceTest {
+    
+    @Mock
+    private MaskingRuleRepository maskingRuleRepository;
+    
+    private ThreadPoolTaskExecutor executor;
+    
+    private CsvMaskingService csvMaskingService;
+    
+    private final Map<String, PiiType> columns = new LinkedHashMap<>(Map.of("email", PiiType.EMAIL, "tc", PiiType.TC_KIMLIK_NO));
+    
+    @BeforeEach
+    void setUp() {
+        lenient().when(maskingRuleRepository.findAllActive()).thenReturn(List.of(
+            MaskingServiceFixtures.rule(PiiType.EMAIL), MaskingServiceFixtures.rule(PiiType.TC_KIMLIK_NO)));
+        MaskingService maskingService = MaskingServiceFixtures.maskingService(maskingRuleRepository);
+        
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+        
+        // Chunks far smaller than a record exercise carry-over and chunk growth
+        csvMaskingService = new CsvMaskingService(maskingService, executor, DataSize.ofBytes(16), 2);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+    
+    @Test
+    void testMaskOnlyMappedColumns() throws Exception {
+        // Given
+        String input = "id,Email,note,tc\r\n"
+            + "1,user1@example.com,\"hello, world\",12345678901\r\n"
+            + "2,\"user2@example.com\",\"multi\nline \"\"quoted\"\"\",98765432109\r\n"
+            + "3,,plain,\r\n"
+            + "4,user4@example.com,last,12345678901";
+        
+        // When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CsvMaskingService.Result result = csvMaskingService.mask(
+            Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))),
+            Channels.newChannel(output), columns, ',');
+        
+        // Then
+        assertEquals("id,Email,note,tc\r\n"
+            + "1,u***1@example.com,\"hello, world\",123****8901\r\n"
+            + "2,\"u***2@example.com\",\"multi\nline \"\"quoted\"\"\",987****2109\r\n"
+            + "3,,plain,\r\n"
+            + "4,u***4@example.com,last,123****8901", output.toString(StandardCharsets.UTF_8));
+        assertEquals(new CsvMaskingService.Result(4, 6, 0), result);
+    }
+    
+    @Test
+    void testMaskFileWithDelimiter(@TempDir Path dir) throws Exception {
+        // Given
+        Path input = dir.resolve("customers.csv");
+        Path output = dir.resolve("customers-masked.csv");
+        StringBuilder csv = new StringBuilder("tc;email\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append("12345678901;user").append(i).append("@example.com\n");
+        }
+        Files.writeString(input, csv);
+        
+        // When
+        CsvMaskingService.Result result = csvMaskingService.maskFile(input, output, columns, ';');
+        
+        // Then
+        assertEquals(1000, result.rows());
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(1001, lines.size());
+        assertEquals("123****8901;u***0@example.com", lines.get(1));
+        assertEquals("123****8901;u*****9@example.com", lines.get(1000));
+    }
+    
+    @Test
+    void testRejectMaskingIntoInput(@TempDir Path dir) throws Exception {
+        Path input = dir.resolve("customers.csv");
+        Files.writeString(input, "tc,email\n12345678901,user@example.com\n");
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> csvMaskingService.maskFile(input, dir.resolve(".").resolve("customers.csv"), columns, ','));
+        assertEquals("tc,email\n12345678901,user@example.com\n", Files.readString(input));
+    }
+    
+    @Test
+    void testRejectUnknownColumn() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> csvMaskingService.mask(
+            Channels.newChannel(new ByteArrayInputStream("id,mail\n1,a@b.com\n".getBytes(StandardCharsets.UTF_8))),
+            Channels.newChannel(output), columns, ','));
+        
+        assertTrue(e.getMessage().contains("email"));
+        assertEquals(0, output.size());
+    }
+}
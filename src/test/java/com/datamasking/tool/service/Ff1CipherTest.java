@@ -0,0 +1,146 @@
+package com.datamasking.tool.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Ff1Cipher against the NIST SP 800-38G sample vectors
+ */
+class Ff1CipherTest {
+    
+    private static final byte[] AES_128 = HexFormat.of().parseHex("2B7E151628AED2A6ABF7158809CF4F3C");
+    private static final byte[] AES_256 = HexFormat.of().parseHex(
+        "2B7E151628AED2A6ABF7158809CF4F3CEF4359D8D580AA4F7F036D6F04FC6A94");
+    
+    private static final byte[] NO_TWEAK = new byte[0];
+    private static final byte[] TWEAK = HexFormat.of().parseHex("39383736353433323130");
+    private static final byte[] RADIX_36_TWEAK = HexFormat.of().parseHex("3737373770717273373737");
+    
+    @Test
+    void testNistSamples() {
+        assertRoundTrip(new Ff1Cipher(AES_128, 10), NO_TWEAK, "0123456789", "2433477484");
+        assertRoundTrip(new Ff1Cipher(AES_128, 10), TWEAK, "0123456789", "6124200773");
+        assertRoundTrip(new Ff1Cipher(AES_128, 36), RADIX_36_TWEAK, "0123456789abcdefghi", "a9tv40mll9kdu509eum");
+        assertRoundTrip(new Ff1Cipher(AES_256, 10), NO_TWEAK, "0123456789", "6657667009");
+        assertRoundTrip(new Ff1Cipher(AES_256, 36), RADIX_36_TWEAK, "0123456789abcdefghi", "xs8a0azh2avyalyzuwd");
+    }
+    
+    @Test
+    void testBigIntegerPathMatchesNistSamples() {
+        assertRoundTrip(new Ff1Cipher(AES_128, 10, 0), TWEAK, "0123456789", "6124200773");
+        assertRoundTrip(new Ff1Cipher(AES_128, 36, 0), RADIX_36_TWEAK, "0123456789abcdefghi", "a9tv40mll9kdu509eum");
+    }
+    
+    @Test
+    void testLongInputsMatchAcrossPaths() {
+        Ff1Cipher fast = new Ff1Cipher(AES_128, 10);
+        Ff1Cipher big = new Ff1Cipher(AES_128, 10, 0);
+        
+        for (String value : new String[] {"000000", "4111111111111111", "12345678901234567890123456789012345678901234"}) {
+            char[] expected = value.toCharArray();
+            big.encrypt(expected, expected.length, TWEAK);
+            assertRoundTrip(fast, TWEAK, value, new String(expected));
+        }
+    }
+    
+    @Test
+    void testNumeralsSpanningTwoBlocksMatchReference() throws Exception {
+        // From 74 decimal or 48 alphanumeric numerals the round number and numeral no longer fit one block of Q
+        for (int radix : new int[] {10, 36}) {
+            for (int length : new int[] {72, 74, 80, 120}) {
+                StringBuilder value = new StringBuilder();
+                for (int i = 0; i < length; i++) {
+                    value.append(Ff1Cipher.ALPHABET.charAt((i * 7 + 3) % radix));
+                }
+                for (byte[] tweak : new byte[][] {NO_TWEAK, TWEAK}) {
+                    String expected = referenceEncrypt(AES_128, radix, tweak, value.toString());
+                    assertRoundTrip(new Ff1Cipher(AES_128, radix), tweak, value.toString(), expected);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void testRejectsInvalidInput() {
+        Ff1Cipher cipher = new Ff1Cipher(AES_128, 10);
+        assertEquals(6, cipher.minLength());
+        assertEquals(4, new Ff1Cipher(AES_128, 36).minLength());
+        assertThrows(IllegalArgumentException.class, () -> cipher.encrypt("12345".toCharArray(), 5, TWEAK));
+        assertThrows(IllegalArgumentException.class, () -> cipher.encrypt("12345a".toCharArray(), 6, TWEAK));
+    }
+    
+    /**
+     * FF1 encryption written directly from the specification, recomputing the whole CBC-MAC every round
+     */
+    private static String referenceEncrypt(byte[] key, int radix, byte[] tweak, String x) throws Exception {
+        Cipher aes = Cipher.getInstance("AES/ECB/NoPadding");
+        aes.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"));
+        int n = x.length();
+        int u = n / 2;
+        int v = n - u;
+        BigInteger base = BigInteger.valueOf(radix);
+        int b = (base.pow(v).subtract(BigInteger.ONE).bitLength() + 7) / 8;
+        int d = 4 * ((b + 3) / 4) + 4;
+        
+        ByteBuffer p = ByteBuffer.allocate(16)
+            .put(new byte[] {1, 2, 1, (byte) (radix >>> 16), (byte) (radix >>> 8), (byte) radix, 10, (byte) u})
+            .putInt(n)
+            .putInt(tweak.length);
+        int pad = Math.floorMod(-tweak.length - b - 1, 16);
+        
+        BigInteger a = new BigInteger(x.substring(0, u), radix);
+        BigInteger c = new BigInteger(x.substring(u), radix);
+        for (int i = 0; i < 10; i++) {
+            ByteBuffer message = ByteBuffer.allocate(16 + tweak.length + pad + 1 + b)
+                .put(p.array())
+                .put(tweak)
+                .put(new byte[pad])
+                .put((byte) i);
+            byte[] numeral = c.toByteArray();
+            int copy = Math.min(numeral.length, b);
+            message.put(new byte[b - copy]).put(numeral, numeral.length - copy, copy);
+            
+            byte[] y = new byte[16];
+            for (int offset = 0; offset < message.capacity(); offset += 16) {
+                for (int k = 0; k < 16; k++) {
+                    y[k] ^= message.get(offset + k);
+                }
+                y = aes.doFinal(y);
+            }
+            ByteBuffer s = ByteBuffer.allocate((d + 15) / 16 * 16).put(y);
+            for (int j = 1; j * 16 < d; j++) {
+                byte[] block = y.clone();
+                for (int k = 0; k < 4; k++) {
+                    block[12 + k] ^= (byte) (j >>> (24 - 8 * k));
+                }
+                s.put(aes.doFinal(block));
+            }
+            
+            BigInteger modulus = base.pow(i % 2 == 0 ? u : v);
+            BigInteger next = a.add(new BigInteger(1, s.array(), 0, d)).mod(modulus);
+            a = c;
+            c = next;
+        }
+        return pad(a.toString(radix), u) + pad(c.toString(radix), v);
+    }
+    
+    private static String pad(String digits, int length) {
+        return "0".repeat(length - digits.length()) + digits;
+    }
+    
+    private static void assertRoundTrip(Ff1Cipher cipher, byte[] tweak, String plaintext, String ciphertext) {
+        char[] value = plaintext.toCharArray();
+        cipher.encrypt(value, value.length, tweak);
+        assertEquals(ciphertext, new String(value));
+        
+        cipher.decrypt(value, value.length, tweak);
+        assertEquals(plaintext, new String(value));
+    }
+}
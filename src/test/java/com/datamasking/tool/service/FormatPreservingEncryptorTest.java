@@ -0,0 +1,62 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FormatPreservingEncryptor
+ */
+class FormatPreservingEncryptorTest {
+    
+    @Test
+    void testKeepsFormatAndDecrypts() {
+        FormatPreservingEncryptor encryptor = MaskingServiceFixtures.formatPreservingEncryptor();
+        
+        assertFormatKept(encryptor, PiiType.CREDIT_CARD, "4111-1111-1111-1111", "\\d{4}-\\d{4}-\\d{4}-\\d{4}");
+        assertFormatKept(encryptor, PiiType.TC_KIMLIK_NO, "12345678901", "\\d{11}");
+        assertFormatKept(encryptor, PiiType.PHONE, "+90 555 123 4567", "\\+\\d{2} \\d{3} \\d{3} \\d{4}");
+        assertFormatKept(encryptor, PiiType.BANK_ACCOUNT, "TR33 0006 1005 1978 6457 8413 26",
+            "TR33 \\d{4} \\d{4} \\d{4} \\d{4} \\d{4} \\d{2}");
+        assertFormatKept(encryptor, PiiType.BANK_ACCOUNT, "GB82WEST12345698765432", "GB82[0-9A-Z]{18}");
+    }
+    
+    @Test
+    void testDeterministicPerType() {
+        FormatPreservingEncryptor encryptor = MaskingServiceFixtures.formatPreservingEncryptor();
+        
+        assertEquals(encryptor.encrypt(PiiType.TC_KIMLIK_NO, "12345678901"),
+            MaskingServiceFixtures.formatPreservingEncryptor().encrypt(PiiType.TC_KIMLIK_NO, "12345678901"));
+        assertNotEquals(encryptor.encrypt(PiiType.TC_KIMLIK_NO, "12345678901"), encryptor.encrypt(PiiType.PHONE, "12345678901"));
+    }
+    
+    @Test
+    void testShortValuesUseFallback() {
+        FormatPreservingEncryptor encryptor = MaskingServiceFixtures.formatPreservingEncryptor();
+        Masker masker = encryptor.masker(PiiType.PHONE, data -> "fallback");
+        
+        assertEquals("fallback", masker.mask("112"));
+        assertThrows(IllegalArgumentException.class, () -> encryptor.encrypt(PiiType.PHONE, "112"));
+        assertThrows(IllegalArgumentException.class, () -> encryptor.masker(PiiType.EMAIL, data -> data));
+    }
+    
+    @Test
+    void testRequiresKey() {
+        FormatPreservingEncryptor unconfigured = new FormatPreservingEncryptor("");
+        
+        assertTrue(unconfigured.supports(PiiType.PHONE));
+        assertThrows(IllegalStateException.class, unconfigured::requireKey);
+        assertThrows(IllegalStateException.class, () -> unconfigured.masker(PiiType.PHONE, data -> data));
+        assertThrows(IllegalStateException.class, () -> unconfigured.encrypt(PiiType.PHONE, "+90 555 123 4567"));
+        assertThrows(IllegalStateException.class, () -> new FormatPreservingEncryptor("not base64!"));
+    }
+    
+    private static void assertFormatKept(FormatPreservingEncryptor encryptor, PiiType piiType, String value, String format) {
+        String encrypted = encryptor.encrypt(piiType, value);
+        
+        assertNotEquals(value, encrypted);
+        assertTrue(encrypted.matches(format), encrypted);
+        assertEquals(value, encryptor.decrypt(piiType, encrypted));
+    }
+}
@@ -0,0 +1,68 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.config.HmacProperties;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HmacHasher
+ */
+class HmacHasherTest {
+    
+    @Test
+    void testMatchesJdkMac() throws Exception {
+        HmacHasher hasher = MaskingServiceFixtures.hmacHasher();
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(MaskingServiceFixtures.HMAC_KEY_V1, "HmacSHA256"));
+        
+        for (String value : new String[] {"12345678901", "Ahmet Yılmaz", "x".repeat(5_000)}) {
+            String expected = HexFormat.of().formatHex(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(expected, hasher.hash("v1", value), value);
+        }
+    }
+    
+    @Test
+    void testActiveKeyAndRotation() {
+        HmacHasher hasher = MaskingServiceFixtures.hmacHasher();
+        
+        assertEquals(hasher.hash("v2", "12345678901"), hasher.hash(null, "12345678901"));
+        assertEquals(hasher.hash("v2", "12345678901"), hasher.masker("").mask("12345678901"));
+        assertNotEquals(hasher.hash("v1", "12345678901"), hasher.hash("v2", "12345678901"));
+    }
+    
+    @Test
+    void testInvalidKeys() {
+        HmacHasher hasher = MaskingServiceFixtures.hmacHasher();
+        assertThrows(IllegalArgumentException.class, () -> hasher.masker("missing"));
+        
+        HmacProperties shortKey = new HmacProperties();
+        shortKey.getKeys().put("weak", Base64.getEncoder().encodeToString(new byte[8]));
+        shortKey.setActiveKeyId("weak");
+        assertThrows(IllegalStateException.class, () -> new HmacHasher(shortKey));
+        
+        HmacProperties unknownActive = new HmacProperties();
+        unknownActive.setActiveKeyId("v9");
+        assertThrows(IllegalStateException.class, () -> new HmacHasher(unknownActive));
+        
+    }
+    
+    @Test
+    void testNoActiveKeyFailsOnFirstUse() {
+        HmacProperties none = new HmacProperties();
+        none.getKeys().put("v1", Base64.getEncoder().encodeToString(MaskingServiceFixtures.HMAC_KEY_V1));
+        HmacHasher hasher = new HmacHasher(none);
+        
+        // Named keys still work, anything that needs the active key never masks with nothing secret
+        assertEquals(MaskingServiceFixtures.hmacHasher().hash("v1", "12345678901"), hasher.hash("v1", "12345678901"));
+        assertThrows(IllegalStateException.class, () -> hasher.masker(null));
+        assertThrows(IllegalStateException.class, () -> hasher.fingerprint("12345678901"));
+        assertThrows(IllegalStateException.class, () -> hasher.requireKey(""));
+    }
+}
@@ -0,0 +1,92 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for JsonDocumentMaskingService
+ */
+@ExtendWith(MockitoExtension.class)
+class JsonDocumentMaskingServiceTest {
+    
+    @Mock
+    private MaskingRuleRepository maskingRuleRepository;
+    
+    private JsonDocumentMaskingService jsonDocumentMaskingService;
+    
+    @BeforeEach
+    void setUp() {
+        lenient().when(maskingRuleRepository.findAllActive()).thenReturn(List.of(
+            MaskingServiceFixtures.rule(PiiType.EMAIL), MaskingServiceFixtures.rule(PiiType.TC_KIMLIK_NO)));
+        MaskingService maskingService = MaskingServiceFixtures.maskingService(maskingRuleRepository);
+        jsonDocumentMaskingService = new JsonDocumentMaskingService(maskingService, new ObjectMapper());
+    }
+    
+    @Test
+    void testMaskNdjsonPaths() throws Exception {
+        // Given
+        Map<String, PiiType> paths = new LinkedHashMap<>();
+        paths.put("$.customer.email", PiiType.EMAIL);
+        paths.put("$.ids[*]", PiiType.TC_KIMLIK_NO);
+        paths.put("$.contacts[1]['e-mail']", PiiType.EMAIL);
+        String input = "{\"id\":1,\"customer\":{\"email\":\"user1@example.com\",\"name\":\"Ali\"},"
+            + "\"ids\":[12345678901,\"98765432109\",null],"
+            + "\"contacts\":[{\"e-mail\":\"user2@example.com\"},{\"e-mail\":\"user3@example.com\"}]}\n"
+            + "{\"id\":2,\"other\":{\"email\":\"user4@example.com\"}}\n";
+        
+        // When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonDocumentMaskingService.Result result = jsonDocumentMaskingService.maskDocuments(
+            new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, paths);
+        
+        // Then
+        assertEquals("{\"id\":1,\"customer\":{\"email\":\"u***1@example.com\",\"name\":\"Ali\"},"
+            + "\"ids\":[\"123****8901\",\"987****2109\",null],"
+            + "\"contacts\":[{\"e-mail\":\"user2@example.com\"},{\"e-mail\":\"u***3@example.com\"}]}\n"
+            + "{\"id\":2,\"other\":{\"email\":\"user4@example.com\"}}\n", output.toString(StandardCharsets.UTF_8));
+        assertEquals(new JsonDocumentMaskingService.Result(2, 4, 0), result);
+    }
+    
+    @Test
+    void testMaskArrayWithWildcardAndSubtree() throws Exception {
+        // Given
+        Map<String, PiiType> paths = Map.of("$.*.email", PiiType.EMAIL, "$.national", PiiType.TC_KIMLIK_NO);
+        String input = "[{\"home\":{\"email\":\"user1@example.com\"},\"work\":{\"email\":\"user2@example.com\"},"
+            + "\"national\":{\"current\":\"12345678901\",\"previous\":[\"98765432109\"]}}]";
+        
+        // When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        jsonDocumentMaskingService.maskDocuments(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, paths);
+        
+        // Then
+        assertEquals("[{\"home\":{\"email\":\"u***1@example.com\"},\"work\":{\"email\":\"u***2@example.com\"},"
+            + "\"national\":{\"current\":\"123****8901\",\"previous\":[\"987****2109\"]}}]",
+            output.toString(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void testRejectUnsupportedPath() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        assertThrows(IllegalArgumentException.class, () -> jsonDocumentMaskingService.maskDocuments(
+            new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)), output, Map.of("$..email", PiiType.EMAIL)));
+        assertThrows(IllegalArgumentException.class, () -> jsonDocumentMaskingService.maskDocuments(
+            new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)), output, Map.of("customer.email", PiiType.EMAIL)));
+    }
+}
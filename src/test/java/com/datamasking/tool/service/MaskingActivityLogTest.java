@@ -0,0 +1,29 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MaskingActivityLog
+ */
+class MaskingActivityLogTest {
+    
+    @Test
+    void testSummarizesAndResets() {
+        // Given
+        MaskingActivityLog activityLog = new MaskingActivityLog();
+        activityLog.recordSuccess(PiiType.EMAIL);
+        activityLog.recordSuccess(PiiType.EMAIL);
+        activityLog.recordSuccess(PiiType.PHONE);
+        activityLog.recordFailure(PiiType.PHONE, "boom");
+        
+        // When
+        String summary = activityLog.summarize();
+        
+        // Then
+        assertEquals("Masked 3 values, 1 failed [EMAIL=2, PHONE=1/1 failed]", summary);
+        assertNull(activityLog.summarize());
+    }
+}
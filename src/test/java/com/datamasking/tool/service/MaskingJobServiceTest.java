@@ -0,0 +1,372 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.dto.MaskingJobRequest;
+import com.datamasking.tool.model.ColumnMapping;
+import com.datamasking.tool.model.MaskingJob;
+import com.datamasking.tool.model.MaskingJobPartition;
+import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.MaskingStrategy;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.ColumnMappingRepository;
+import com.datamasking.tool.repository.MaskingJobPartitionRepository;
+import com.datamasking.tool.repository.MaskingJobRepository;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for MaskingJobService against the embedded database
+ */
+@SpringBootTest
+class MaskingJobServiceTest {
+    
+    private static final int ROWS = 2500;
+    
+    @Autowired
+    private MaskingJobService maskingJobService;
+    
+    @Autowired
+    private MaskingRuleRepository maskingRuleRepository;
+    
+    @Autowired
+    private MaskingJobRepository maskingJobRepository;
+    
+    @Autowired
+    private ColumnMappingRepository columnMappingRepository;
+    
+    @Autowired
+    private MaskingJobPartitionRepository maskingJobPartitionRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MaskingJobRunner maskingJobRunner;
+    
+    @Autowired
+    @Qualifier("maskingJobExecutor")
+    private ThreadPoolTaskExecutor maskingJobExecutor;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private AuditLogger auditLogger;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customers_src");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customers_masked");
+        jdbcTemplate.execute("CREATE TABLE customers_src (id BIGINT PRIMARY KEY, email VARCHAR(100), phone VARCHAR(30), city VARCHAR(50))");
+        jdbcTemplate.execute("CREATE TABLE customers_masked (id BIGINT PRIMARY KEY, email VARCHAR(100), phone VARCHAR(30), city VARCHAR(50))");
+        
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            rows.add(new Object[] {(long) i * 3, "user" + i + "@example.com", "+90 555 123 " + (1000 + i), "Istanbul"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customers_src VALUES (?, ?, ?, ?)", rows);
+    }
+    
+    @Test
+    void testJobMasksConfiguredColumns() throws Exception {
+        // Given
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("customers")
+            .sourceTable("customers_src")
+            .targetTable("customers_masked")
+            .columns(Map.of("email", PiiType.EMAIL, "phone", PiiType.PHONE))
+            .chunkSize(1000)
+            .build();
+        
+        // When
+        MaskingJob job = awaitCompletion(maskingJobService.submit(request, "tester").getId());
+        
+        // Then
+        assertEquals(MaskingJob.JobStatus.COMPLETED, job.getStatus());
+        assertEquals(ROWS, job.getTotalRecords());
+        assertEquals(ROWS, job.getProcessedRecords());
+        assertEquals(0, job.getFailedRecords());
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers_masked", Integer.class));
+        
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM customers_masked WHERE id = 3");
+        assertEquals("u***1@example.com", row.get("EMAIL"));
+        assertEquals("+** *** *** ****", row.get("PHONE"));
+        assertEquals("Istanbul", row.get("CITY"));
+    }
+    
+    @Test
+    void testParallelJobCoversEveryRowOnce() throws Exception {
+        // Given
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("customers-parallel")
+            .sourceTable("customers_src")
+            .targetTable("customers_masked")
+            .columns(Map.of("email", PiiType.EMAIL))
+            .chunkSize(100)
+            .parallelism(3)
+            .build();
+        
+        // When
+        MaskingJob job = awaitCompletion(maskingJobService.submit(request, "tester").getId());
+        
+        // Then
+        assertEquals(MaskingJob.JobStatus.COMPLETED, job.getStatus());
+        assertEquals(3, job.getParallelism());
+        assertEquals(ROWS, job.getProcessedRecords());
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM customers_masked", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM customers_masked WHERE email NOT LIKE '%*%'", Integer.class));
+    }
+    
+    @Test
+    void testResumeFailedJobFromCheckpoints() throws Exception {
+        // Given a target row that makes the job fail half way through
+        jdbcTemplate.update("INSERT INTO customers_masked VALUES (4500, 'x', 'x', 'x')");
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("customers-resume")
+            .sourceTable("customers_src")
+            .targetTable("customers_masked")
+            .columns(Map.of("email", PiiType.EMAIL))
+            .chunkSize(100)
+            .build();
+        
+        MaskingJob failed = awaitCompletion(maskingJobService.submit(request, "tester").getId());
+        assertEquals(MaskingJob.JobStatus.FAILED, failed.getStatus());
+        assertTrue(failed.getProcessedRecords() > 0);
+        assertTrue(failed.getProcessedRecords() < ROWS);
+        
+        // When
+        jdbcTemplate.update("DELETE FROM customers_masked WHERE id = 4500");
+        maskingJobService.resume(failed.getId());
+        MaskingJob resumed = awaitCompletion(failed.getId());
+        
+        // Then
+        assertEquals(MaskingJob.JobStatus.COMPLETED, resumed.getStatus());
+        assertEquals(ROWS, resumed.getProcessedRecords());
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers_masked", Integer.class));
+        assertTrue(maskingJobService.getPartitions(failed.getId()).stream()
+            .allMatch(partition -> partition.getStatus() == MaskingJobPartition.PartitionStatus.COMPLETED));
+        assertThrows(IllegalStateException.class, () -> maskingJobService.resume(failed.getId()));
+    }
+    
+    @Test
+    void testJobMasksColumnsWithTheirOwnRules() throws Exception {
+        // Given a rule that is not the active one for its type
+        MaskingRule nullify = new MaskingRule();
+        nullify.setPiiType(PiiType.ADDRESS);
+        nullify.setStrategy(MaskingStrategy.NULLIFY);
+        nullify.setIsActive(false);
+        Long ruleId = maskingRuleRepository.save(nullify).getId();
+        
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("customers-mapped")
+            .sourceTable("customers_src")
+            .targetTable("customers_masked")
+            .columns(Map.of("email", PiiType.EMAIL))
+            .columnRules(Map.of("city", ruleId))
+            .build();
+        
+        // When
+        MaskingJob job = awaitCompletion(maskingJobService.submit(request, "tester").getId());
+        
+        // Then
+        assertEquals(MaskingJob.JobStatus.COMPLETED, job.getStatus());
+        List<ColumnMapping> columns = maskingJobService.getColumns(job.getId());
+        assertEquals(2, columns.size());
+        assertTrue(columns.stream().allMatch(mapping -> job.getId().equals(mapping.getJobId())));
+        
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM customers_masked WHERE id = 3");
+        assertEquals("u***1@example.com", row.get("EMAIL"));
+        assertEquals("+90 555 123 1001", row.get("PHONE"));
+        assertNull(row.get("CITY"));
+    }
+    
+    @Test
+    void testDiscoveredMappingsOfOtherSchemasAreIgnored() throws Exception {
+        // Given mappings discovered for the table and for a namesake in another schema
+        List<ColumnMapping> discovered = columnMappingRepository.saveAll(List.of(
+            discoveredMapping("PUBLIC.CUSTOMERS_SRC", "EMAIL", PiiType.EMAIL),
+            discoveredMapping("ARCHIVE.CUSTOMERS_SRC", "PHONE", PiiType.PHONE)));
+        
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("customers-discovered")
+            .sourceTable("customers_src")
+            .targetTable("customers_masked")
+            .useDiscoveredMappings(true)
+            .build();
+        
+        // When
+        MaskingJob job = awaitCompletion(maskingJobService.submit(request, "tester").getId());
+        
+        // Then
+        assertEquals(MaskingJob.JobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, maskingJobService.getColumns(job.getId()).size());
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM customers_masked WHERE id = 3");
+        assertEquals("u***1@example.com", row.get("EMAIL"));
+        assertEquals("+90 555 123 1001", row.get("PHONE"));
+        
+        columnMappingRepository.deleteAll(discovered);
+    }
+    
+    @Test
+    void testRejectDuplicateOrMissingColumns() {
+        Long ruleId = maskingRuleRepository.findAll().get(0).getId();
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("empty")
+            .sourceTable("customers_src")
+            .targetTable("customers_masked")
+            .columns(Map.of("email", PiiType.EMAIL))
+            .columnRules(Map.of("EMAIL", ruleId))
+            .build();
+        
+        assertThrows(IllegalArgumentException.class, () -> maskingJobService.submit(request, "tester"));
+        request.setColumns(null);
+        request.setColumnRules(null);
+        assertThrows(IllegalArgumentException.class, () -> maskingJobService.submit(request, "tester"));
+    }
+    
+    @Test
+    void testRejectInvalidIdentifiers() {
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("injection")
+            .sourceTable("customers_src; DROP TABLE customers_src")
+            .targetTable("customers_masked")
+            .columns(Map.of("email", PiiType.EMAIL))
+            .build();
+        
+        assertThrows(IllegalArgumentException.class, () -> maskingJobService.submit(request, "tester"));
+    }
+    
+    @Test
+    void testRecoverOnlyJobsWithStaleHeartbeat() {
+        // Given
+        MaskingJob live = maskingJobRepository.save(runningJob("live", LocalDateTime.now()));
+        MaskingJob stale = maskingJobRepository.save(runningJob("stale", LocalDateTime.now().minusMinutes(10)));
+        
+        // When
+        maskingJobService.recoverInterruptedJobs();
+        
+        // Then
+        assertEquals(MaskingJob.JobStatus.RUNNING, maskingJobService.getJob(live.getId()).orElseThrow().getStatus());
+        MaskingJob recovered = maskingJobService.getJob(stale.getId()).orElseThrow();
+        assertEquals(MaskingJob.JobStatus.FAILED, recovered.getStatus());
+        assertNotEquals("other-node", recovered.getOwnerNode());
+        
+        maskingJobRepository.deleteAll(List.of(live, recovered));
+    }
+    
+    @Test
+    void testJobCopiesReservedWordColumnsAndTheLowestKey() throws Exception {
+        // Given
+        jdbcTemplate.execute("DROP TABLE IF EXISTS orders_src");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS orders_masked");
+        String columns = " (id BIGINT PRIMARY KEY, \"ORDER\" VARCHAR(20), \"USER\" VARCHAR(100))";
+        jdbcTemplate.execute("CREATE TABLE orders_src" + columns);
+        jdbcTemplate.execute("CREATE TABLE orders_masked" + columns);
+        jdbcTemplate.update("INSERT INTO orders_src VALUES (?, 'A-1', 'first@example.com')", Long.MIN_VALUE);
+        jdbcTemplate.update("INSERT INTO orders_src VALUES (1, 'A-2', 'second@example.com')");
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("orders")
+            .sourceTable("orders_src")
+            .targetTable("orders_masked")
+            .columns(Map.of("user", PiiType.EMAIL))
+            .parallelism(2)
+            .build();
+        
+        // When
+        MaskingJob job = awaitCompletion(maskingJobService.submit(request, "tester").getId());
+        
+        // Then
+        assertEquals(MaskingJob.JobStatus.COMPLETED, job.getStatus());
+        assertEquals(2, job.getProcessedRecords());
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM orders_masked WHERE id = ?", Long.MIN_VALUE);
+        assertEquals("A-1", row.get("ORDER"));
+        assertEquals("f***t@example.com", row.get("USER"));
+    }
+    
+    @Test
+    void testCancelFromAnotherNodeStopsTheRunningJob() throws Exception {
+        // Given a job running on this node, with one row per chunk so it runs long enough to be cancelled
+        MaskingJobService otherNode = new MaskingJobService(maskingJobRepository, maskingJobPartitionRepository,
+            columnMappingRepository, maskingRuleRepository, jdbcTemplate, transactionTemplate, maskingJobRunner,
+            maskingJobExecutor, objectMapper, auditLogger, false, "node-b", Duration.ofSeconds(60));
+        MaskingJobRequest request = MaskingJobRequest.builder()
+            .jobName("customers-cancel")
+            .sourceTable("customers_src")
+            .targetTable("customers_masked")
+            .columns(Map.of("email", PiiType.EMAIL))
+            .chunkSize(1)
+            .build();
+        Long jobId = maskingJobService.submit(request, "tester").getId();
+        awaitStatus(jobId, MaskingJob.JobStatus.RUNNING);
+        
+        // When the other node cancels it and this node sends its next heartbeat
+        otherNode.cancel(jobId);
+        maskingJobService.heartbeat();
+        
+        // Then
+        MaskingJob job = awaitCompletion(jobId);
+        assertEquals(MaskingJob.JobStatus.CANCELLED, job.getStatus());
+        assertTrue(job.getProcessedRecords() < ROWS);
+        assertThrows(IllegalStateException.class, () -> otherNode.cancel(jobId));
+    }
+    
+    private static ColumnMapping discoveredMapping(String table, String column, PiiType piiType) {
+        ColumnMapping mapping = new ColumnMapping();
+        mapping.setTableName(table);
+        mapping.setColumnName(column);
+        mapping.setPiiType(piiType);
+        return mapping;
+    }
+    
+    private static MaskingJob runningJob(String name, LocalDateTime heartbeatAt) {
+        MaskingJob job = new MaskingJob();
+        job.setJobName(name);
+        job.setSourceTable("customers_src");
+        job.setTargetTable("customers_masked");
+        job.setStatus(MaskingJob.JobStatus.RUNNING);
+        job.setOwnerNode("other-node");
+        job.setHeartbeatAt(heartbeatAt);
+        return job;
+    }
+    
+    private void awaitStatus(Long jobId, MaskingJob.JobStatus status) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            if (maskingJobService.getJob(jobId).orElseThrow().getStatus() == status) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Job " + jobId + " did not reach " + status + " in time");
+    }
+    
+    private MaskingJob awaitCompletion(Long jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            MaskingJob job = maskingJobService.getJob(jobId).orElseThrow();
+            if (job.getCompletedAt() != null && job.getStatus() != MaskingJob.JobStatus.PENDING) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        fail("Job " + jobId + " did not finish in time");
+        return null;
+    }
+}
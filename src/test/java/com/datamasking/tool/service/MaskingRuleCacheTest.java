@@ -0,0 +1,77 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.MaskingStrategy;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for MaskingRuleCache
+ */
+@ExtendWith(MockitoExtension.class)
+class MaskingRuleCacheTest {
+    
+    @Mock
+    private MaskingRuleRepository maskingRuleRepository;
+    
+    private MaskingRuleCache maskingRuleCache;
+    
+    @BeforeEach
+    void setUp() {
+        maskingRuleCache = new MaskingRuleCache(maskingRuleRepository);
+    }
+    
+    @Test
+    void testLookupsAreServedFromSnapshot() {
+        // Given
+        when(maskingRuleRepository.findAllActive()).thenReturn(List.of(rule(PiiType.EMAIL, MaskingStrategy.ASTERISK)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        maskingRuleCache.bindTo(registry);
+        
+        // When
+        assertTrue(maskingRuleCache.get(PiiType.EMAIL).isPresent());
+        assertTrue(maskingRuleCache.get(PiiType.EMAIL).isPresent());
+        assertTrue(maskingRuleCache.get(PiiType.PHONE).isEmpty());
+        
+        // Then
+        verify(maskingRuleRepository, times(1)).findAllActive();
+        assertEquals(2.0, registry.get("masking.rule.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("masking.rule.cache.requests").tag("result", "miss").functionCounter().count());
+    }
+    
+    @Test
+    void testRefreshSwapsSnapshot() {
+        // Given
+        when(maskingRuleRepository.findAllActive())
+            .thenReturn(List.of(rule(PiiType.EMAIL, MaskingStrategy.ASTERISK)))
+            .thenReturn(List.of(rule(PiiType.EMAIL, MaskingStrategy.HASH)));
+        maskingRuleCache.refresh();
+        
+        // When
+        maskingRuleCache.refresh();
+        
+        // Then
+        assertEquals(MaskingStrategy.HASH, maskingRuleCache.get(PiiType.EMAIL).orElseThrow().getStrategy());
+    }
+    
+    private MaskingRule rule(PiiType piiType, MaskingStrategy strategy) {
+        MaskingRule rule = new MaskingRule();
+        rule.setPiiType(piiType);
+        rule.setStrategy(strategy);
+        rule.setIsActive(true);
+        return rule;
+    }
+}
@@ -0,0 +1,77 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.config.HmacProperties;
+import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.MaskingStrategy;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * MaskingService and its keyed collaborators wired with throwaway test keys, for the tests of the services built on it
+ */
+final class MaskingServiceFixtures {
+    
+    static final byte[] HMAC_KEY_V1 = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] HMAC_KEY_V2 = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII);
+    
+    private static final String FPE_KEY = "K34VFiiu0qar9xWICc9PPA==";
+    
+    private MaskingServiceFixtures() {
+    }
+    
+    /**
+     * Service without consistent pseudonyms, reading rules from the given repository
+     */
+    static MaskingService maskingService(MaskingRuleRepository maskingRuleRepository) {
+        return maskingService(maskingRuleRepository, PseudonymDictionary.disabled(), new SimpleMeterRegistry());
+    }
+    
+    static MaskingService maskingService(MaskingRuleRepository maskingRuleRepository,
+                                         PseudonymDictionary pseudonymDictionary,
+                                         MeterRegistry meterRegistry) {
+        return new MaskingService(
+            new MaskingRuleCache(maskingRuleRepository),
+            hmacHasher(),
+            formatPreservingEncryptor(),
+            new FastRandomValueGenerator(),
+            pseudonymDictionary,
+            syntheticValueGenerator(),
+            new MaskingMetrics(meterRegistry),
+            new MaskingActivityLog()
+        );
+    }
+    
+    /**
+     * Hasher with keys v1 and v2, v2 active
+     */
+    static HmacHasher hmacHasher() {
+        HmacProperties properties = new HmacProperties();
+        properties.getKeys().put("v1", Base64.getEncoder().encodeToString(HMAC_KEY_V1));
+        properties.getKeys().put("v2", Base64.getEncoder().encodeToString(HMAC_KEY_V2));
+        properties.setActiveKeyId("v2");
+        return new HmacHasher(properties);
+    }
+    
+    static FormatPreservingEncryptor formatPreservingEncryptor() {
+        return new FormatPreservingEncryptor(FPE_KEY);
+    }
+    
+    static SyntheticValueGenerator syntheticValueGenerator() {
+        return new SyntheticValueGenerator(hmacHasher(), "tr");
+    }
+    
+    /**
+     * ASTERISK rule for a PII type, as returned by the rule repository
+     */
+    static MaskingRule rule(PiiType piiType) {
+        MaskingRule rule = new MaskingRule();
+        rule.setPiiType(piiType);
+        rule.setStrategy(MaskingStrategy.ASTERISK);
+        return rule;
+    }
+}
@@ -2,15 +2,19 @@ package com.datamasking.tool.service;
 
 import com.datamasking.tool.dto.MaskingRequest;
 import com.datamasking.tool.dto.MaskingResponse;
+import com.datamasking.tool.model.MaskingRule;
 import com.datamasking.tool.model.MaskingStrategy;
 import com.datamasking.tool.model.PiiType;
 import com.datamasking.tool.repository.MaskingRuleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -26,9 +30,13 @@ class MaskingServiceTest {
     
     private MaskingService maskingService;
     
+    private SimpleMeterRegistry meterRegistry;
+    
     @BeforeEach
     void setUp() {
-        maskingService = new MaskingService(maskingRuleRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        maskingService = MaskingServiceFixtures.maskingService(maskingRuleRepository, PseudonymDictionary.disabled(),
+            meterRegistry);
     }
     
     @Test
@@ -70,6 +78,62 @@ class MaskingServiceTest {
         assertTrue(response.getMaskedData().contains("*"));
     }
     
+    @Test
+    void testMaskEmailAddressesWithoutRegex() {
+        // Given
+        String[][] cases = {
+            {"john.doe@example.com", "j******e@example.com", "***@example.com"},
+            {"ab@mail.co.uk", "**@mail.co.uk", "***@mail.co.uk"},
+            {"a+tag_1@sub-domain.io", "a*****1@sub-domain.io", "***@sub-domain.io"},
+            {"not-an-email", "************", "************"},
+            {"two@@signs.com", "**************", "**************"},
+            {"x@y.c", "*****", "*****"},
+            {"x@.com", "******", "******"},
+            {"x@host.c0m", "**********", "**********"},
+            {"şule@example.com", "****************", "****************"}
+        };
+        
+        for (String[] c : cases) {
+            // When
+            String preserved = maskingService.applyMaskingStrategy(c[0], PiiType.EMAIL, MaskingStrategy.ASTERISK, null, null, true, true);
+            String fixed = maskingService.applyMaskingStrategy(c[0], PiiType.EMAIL, MaskingStrategy.ASTERISK, null, null, true, false);
+            
+            // Then
+            assertEquals(c[1], preserved, c[0]);
+            assertEquals(c[2], fixed, c[0]);
+        }
+        
+        String random = maskingService.applyMaskingStrategy("john.doe@example.com", PiiType.EMAIL, MaskingStrategy.RANDOM, null, null, true, true);
+        assertTrue(random.matches("[A-Za-z0-9]{8}@example\\.com"), random);
+    }
+    
+    @Test
+    void testMaskPhoneAndCardWithoutRegex() {
+        // When
+        String phone = maskingService.applyMaskingStrategy("+90 (555) 123-4567", PiiType.PHONE, MaskingStrategy.RANDOM, null, null, true, true);
+        String card = maskingService.applyMaskingStrategy("4111-1111 1111-1234", PiiType.CREDIT_CARD, MaskingStrategy.ASTERISK, null, null, true, true);
+        String randomCard = maskingService.applyMaskingStrategy("4111-1111 1111-1234", PiiType.CREDIT_CARD, MaskingStrategy.RANDOM, null, null, true, true);
+        String shortCard = maskingService.applyMaskingStrategy("1-2", PiiType.CREDIT_CARD, MaskingStrategy.ASTERISK, null, null, true, true);
+        
+        // Then
+        assertEquals("+XX (XXX) XXX-XXXX", phone);
+        assertEquals("************1234", card);
+        assertTrue(randomCard.matches("\\d{12}1234"), randomCard);
+        assertEquals("***", shortCard);
+    }
+    
+    @Test
+    void testMaskTextMasksOnlyDetectedSpans() {
+        // Given
+        String ticket = "Merhaba, mailim ali@example.com, telefonum 0532 123 45 67, TCKN 10000000146. Şifre: gizli123";
+        
+        // When
+        String masked = maskingService.applyMaskingStrategy(ticket, PiiType.TEXT, MaskingStrategy.ASTERISK, null, null, true, true);
+        
+        // Then
+        assertEquals("Merhaba, mailim a*i@example.com, telefonum **** *** ** **, TCKN 100****0146. Şifre: ********", masked);
+    }
+    
     @Test
     void testMaskTcWithAsterisks() {
         // Given
@@ -197,4 +261,187 @@ class MaskingServiceTest {
         assertTrue(response.getSuccess());
         assertNull(response.getMaskedData());
     }
+    
+    @Test
+    void testPlanIsCompiledOncePerConfiguration() {
+        // When
+        MaskingPlan first = maskingService.getPlan(PiiType.PHONE, MaskingStrategy.ASTERISK, null, true, true, null);
+        MaskingPlan second = maskingService.getPlan(PiiType.PHONE, MaskingStrategy.ASTERISK, null, null, null, null);
+        
+        // Then
+        assertSame(first, second);
+        assertEquals("+** *** *** ****", first.mask("+90 555 123 4567"));
+        assertEquals("", first.mask(""));
+        assertNull(first.mask(null));
+    }
+    
+    @Test
+    void testPlanFromRule() {
+        // Given
+        MaskingRule rule = new MaskingRule();
+        rule.setPiiType(PiiType.ADDRESS);
+        rule.setStrategy(MaskingStrategy.PLACEHOLDER);
+        rule.setReplacementValue("[ADDRESS_MASKED]");
+        
+        // When
+        MaskingPlan plan = maskingService.getPlan(rule);
+        
+        // Then
+        assertEquals(PiiType.ADDRESS, plan.getPiiType());
+        assertEquals("[ADDRESS_MASKED]", plan.mask("123 Main St, Istanbul"));
+    }
+    
+    @Test
+    void testMaskWithHmac() {
+        // Given
+        MaskingRequest request = MaskingRequest.builder()
+            .data("12345678901")
+            .piiType(PiiType.TC_KIMLIK_NO)
+            .strategy(MaskingStrategy.HMAC)
+            .keyId("v1")
+            .build();
+        
+        // When
+        MaskingResponse first = maskingService.maskData(request);
+        MaskingResponse second = maskingService.maskData(request);
+        request.setKeyId(null);
+        MaskingResponse activeKey = maskingService.maskData(request);
+        
+        // Then
+        assertTrue(first.getSuccess());
+        assertEquals(64, first.getMaskedData().length());
+        assertEquals(first.getMaskedData(), second.getMaskedData());
+        assertNotEquals(first.getMaskedData(), activeKey.getMaskedData());
+        assertNotEquals(Sha256Hasher.hash("12345678901"), first.getMaskedData());
+    }
+    
+    @Test
+    void testMaskWithFormatPreservingEncryption() {
+        // Given
+        MaskingRequest request = MaskingRequest.builder()
+            .data("4111 1111 1111 1111")
+            .piiType(PiiType.CREDIT_CARD)
+            .strategy(MaskingStrategy.FORMAT_PRESERVING)
+            .build();
+        
+        // When
+        MaskingResponse first = maskingService.maskData(request);
+        MaskingResponse second = maskingService.maskData(request);
+        
+        // Then
+        assertTrue(first.getSuccess());
+        assertTrue(first.getMaskedData().matches("\\d{4} \\d{4} \\d{4} \\d{4}"));
+        assertNotEquals("4111 1111 1111 1111", first.getMaskedData());
+        assertEquals(first.getMaskedData(), second.getMaskedData());
+    }
+    
+    @Test
+    void testMaskWithActiveRule() {
+        // Given
+        MaskingRule rule = new MaskingRule();
+        rule.setPiiType(PiiType.TC_KIMLIK_NO);
+        rule.setStrategy(MaskingStrategy.ASTERISK);
+        when(maskingRuleRepository.findAllActive()).thenReturn(List.of(rule));
+        
+        MaskingRequest request = MaskingRequest.builder()
+            .data("12345678901")
+            .piiType(PiiType.TC_KIMLIK_NO)
+            .build();
+        
+        // When
+        MaskingResponse response = maskingService.maskData(request);
+        
+        // Then
+        assertTrue(response.getSuccess());
+        assertEquals("123****8901", response.getMaskedData());
+        assertEquals("ASTERISK", response.getStrategy());
+        assertSame(maskingService.getRulePlan(PiiType.TC_KIMLIK_NO), maskingService.getRulePlan(PiiType.TC_KIMLIK_NO));
+    }
+    
+    @Test
+    void testMaskWithoutActiveRule() {
+        // Given
+        when(maskingRuleRepository.findAllActive()).thenReturn(List.of());
+        
+        MaskingRequest request = MaskingRequest.builder()
+            .data("12345678901")
+            .piiType(PiiType.TC_KIMLIK_NO)
+            .build();
+        
+        // When
+        MaskingResponse response = maskingService.maskData(request);
+        
+        // Then
+        assertFalse(response.getSuccess());
+        assertNull(response.getMaskedData());
+        assertNull(response.getStrategy());
+        assertEquals(1, meterRegistry.get("masking.requests.failed")
+            .tags("piiType", "TC_KIMLIK_NO", "strategy", "none").counter().count());
+    }
+    
+    @Test
+    void testCompactResponse() {
+        // Given
+        MaskingRequest request = MaskingRequest.builder()
+            .data("12345678901")
+            .piiType(PiiType.TC_KIMLIK_NO)
+            .strategy(MaskingStrategy.ASTERISK)
+            .compact(true)
+            .build();
+        
+        // When
+        MaskingResponse response = maskingService.maskData(request);
+        
+        // Then
+        assertEquals("123****8901", response.getMaskedData());
+        assertNull(response.getOriginalData());
+        assertNull(response.getProcessedAt());
+        assertNull(response.getSuccess());
+    }
+    
+    @Test
+    void testMaskingIsMetered() {
+        // Given
+        MaskingRequest request = MaskingRequest.builder()
+            .data("+90 555 123 4567")
+            .piiType(PiiType.PHONE)
+            .strategy(MaskingStrategy.ASTERISK)
+            .build();
+        
+        // When
+        maskingService.maskData(request);
+        maskingService.maskData(request);
+        
+        // Then
+        assertEquals(2, meterRegistry.get("masking.operations")
+            .tags("piiType", "PHONE", "strategy", "ASTERISK", "outcome", "success").timer().count());
+        assertEquals(32, meterRegistry.get("masking.input.size")
+            .tags("piiType", "PHONE", "strategy", "ASTERISK").summary().totalAmount());
+        assertEquals(0, meterRegistry.get("masking.operations")
+            .tags("piiType", "PHONE", "strategy", "ASTERISK", "outcome", "error").timer().count());
+    }
+    
+    @Test
+    void testConsistentRandomMasking() {
+        // Given
+        PseudonymDictionary dictionary = PseudonymDictionary.offHeap(MaskingServiceFixtures.hmacHasher(), 4, 0);
+        MaskingService consistentService = MaskingServiceFixtures.maskingService(maskingRuleRepository,
+            dictionary, meterRegistry);
+        MaskingPlan names = consistentService.getPlan(PiiType.FULL_NAME, MaskingStrategy.RANDOM, null, true, true, null);
+        MaskingPlan emails = consistentService.getPlan(PiiType.EMAIL, MaskingStrategy.RANDOM, null, true, false, null);
+        
+        // When
+        String name = names.mask("Ahmet Yılmaz");
+        String email = emails.mask("ahmet@example.com");
+        
+        // Then
+        assertEquals(name, names.mask("Ahmet Yılmaz"));
+        String relative = names.mask("Ayşe Yılmaz");
+        assertEquals(name.substring(name.lastIndexOf(' ')), relative.substring(relative.lastIndexOf(' ')));
+        assertEquals(email, emails.mask("ahmet@example.com"));
+        assertTrue(email.endsWith("@example.com"));
+        
+        // Only emails need the dictionary, substitute names are consistent on their own
+        assertEquals(1, dictionary.size());
+    }
 }
@@ -0,0 +1,65 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.dto.ClassificationResponse;
+import com.datamasking.tool.model.PiiType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PiiClassifier
+ */
+class PiiClassifierTest {
+    
+    private final PiiClassifier classifier = new PiiClassifier(0.8);
+    
+    @Test
+    void testClassifyValidatedValues() {
+        // Given
+        Object[][] cases = {
+            {"ali.veli@example.com", PiiType.EMAIL},
+            {" 10000000146 ", PiiType.TC_KIMLIK_NO},
+            {"4111 1111 1111 1111", PiiType.CREDIT_CARD},
+            {"0532 123 45 67", PiiType.PHONE},
+            {"+90 (532) 123-4567", PiiType.PHONE},
+            {"5321234567", PiiType.PHONE},
+            {"TR33 0006 1005 1978 6457 8413 26", PiiType.BANK_ACCOUNT},
+            {"192.168.1.10", PiiType.IP_ADDRESS},
+            {"2001:db8::8a2e:370:7334", PiiType.IP_ADDRESS}
+        };
+        
+        for (Object[] c : cases) {
+            // When / Then
+            assertEquals(Optional.of(c[1]), classifier.classify((String) c[0]), (String) c[0]);
+        }
+    }
+    
+    @Test
+    void testRejectValuesFailingChecksums() {
+        for (String value : new String[] {
+                "12345678901", "4111 1111 1111 1112", "TR34 0006 1005 1978 6457 8413 26", "256.1.1.1",
+                "12:30", "1234567", "john@localhost", "Ahmet Yılmaz", "", null}) {
+            assertEquals(Optional.empty(), classifier.classify(value), value);
+        }
+    }
+    
+    @Test
+    void testClassifySampleAppliesConfidenceThreshold() {
+        // When
+        ClassificationResponse column = classifier.classifySample(
+            Arrays.asList("10000000146", "10000000146", "10000000146", "10000000146", "unknown", " ", null));
+        ClassificationResponse mixed = classifier.classifySample(
+            List.of("10000000146", "ali@example.com", "0532 123 45 67"));
+        
+        // Then
+        assertEquals(PiiType.TC_KIMLIK_NO, column.getPiiType());
+        assertEquals(5, column.getSampled());
+        assertEquals(0.8, column.getConfidence(), 1e-9);
+        assertNull(mixed.getPiiType());
+        assertEquals(3, mixed.getMatches().size());
+    }
+}
@@ -0,0 +1,204 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.config.HmacProperties;
+import com.datamasking.tool.model.PiiType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PseudonymDictionary
+ */
+class PseudonymDictionaryTest {
+    
+    private final RandomValueGenerator random = new FastRandomValueGenerator();
+    
+    private final Masker generator = value -> random.alphanumeric(value.length());
+    
+    @Test
+    void testValuesKeepTheirFirstPseudonym() {
+        // Given: a tiny initial capacity forces every segment to grow several times
+        PseudonymDictionary dictionary = PseudonymDictionary.offHeap(MaskingServiceFixtures.hmacHasher(), 4, 0);
+        Masker names = dictionary.masker(PiiType.FULL_NAME, false, generator);
+        
+        // When
+        List<String> first = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            first.add(names.mask("Customer " + i));
+        }
+        
+        // Then
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first.get(i), names.mask("Customer " + i));
+        }
+        assertEquals(1000, dictionary.size());
+        
+        // Other types keep their own pseudonyms for equal values
+        dictionary.masker(PiiType.LAST_NAME, false, generator).mask("Customer 0");
+        assertEquals(1001, dictionary.size());
+    }
+    
+    @Test
+    void testConcurrentLookupsAgree() throws Exception {
+        // Given
+        PseudonymDictionary dictionary = PseudonymDictionary.offHeap(MaskingServiceFixtures.hmacHasher(), 2, 0);
+        Masker names = dictionary.masker(PiiType.FIRST_NAME, false, generator);
+        Map<String, String> seen = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        
+        // When
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String value = "Name" + (i % 500);
+                        String pseudonym = names.mask(value);
+                        String previous = seen.putIfAbsent(value, pseudonym);
+                        assertTrue(previous == null || previous.equals(pseudonym), value);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        // Then
+        assertEquals(500, dictionary.size());
+    }
+    
+    @Test
+    void testMappedDictionarySurvivesReopen(@TempDir Path dir) throws Exception {
+        // Given
+        String pseudonym;
+        try (PseudonymDictionary dictionary = PseudonymDictionary.mapped(MaskingServiceFixtures.hmacHasher(), dir, 2, 0)) {
+            Masker emails = dictionary.masker(PiiType.EMAIL, true, generator);
+            for (int i = 0; i < 100; i++) {
+                emails.mask("user" + i + "@example.com");
+            }
+            pseudonym = emails.mask("user7@example.com");
+        }
+        
+        // When
+        try (PseudonymDictionary reopened = PseudonymDictionary.mapped(MaskingServiceFixtures.hmacHasher(), dir, 2, 0)) {
+            
+            // Then
+            assertEquals(100, reopened.size());
+            assertEquals(pseudonym, reopened.masker(PiiType.EMAIL, true, generator).mask("user7@example.com"));
+        }
+        assertThrows(IllegalStateException.class, () -> PseudonymDictionary.mapped(MaskingServiceFixtures.hmacHasher(), dir, 4, 0));
+    }
+    
+    @Test
+    void testValuesNeverSharePseudonyms() {
+        // Given: every other draw repeats a pseudonym that is already taken
+        PseudonymDictionary dictionary = PseudonymDictionary.offHeap(MaskingServiceFixtures.hmacHasher(), 2, 0);
+        AtomicInteger draws = new AtomicInteger();
+        Masker emails = dictionary.masker(PiiType.EMAIL, false,
+            value -> draws.getAndIncrement() % 2 == 0 ? "taken@example.com" : "user" + draws.get() + "@example.com");
+        
+        // When
+        Set<String> pseudonyms = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            pseudonyms.add(emails.mask("customer" + i + "@example.com"));
+        }
+        
+        // Then
+        assertEquals(50, pseudonyms.size());
+        assertEquals(50, dictionary.size());
+        
+        // Another namespace may reuse the pseudonym
+        assertEquals("same", dictionary.masker(PiiType.EMAIL, true, value -> "same").mask("a@example.com"));
+        Masker constant = dictionary.masker(PiiType.FULL_NAME, false, value -> "same");
+        assertEquals("same", constant.mask("Ahmet"));
+        assertThrows(IllegalStateException.class, () -> constant.mask("Mehmet"));
+    }
+    
+    @Test
+    void testLostRacesReleaseTheirReservations() {
+        // Given: while a value draws its pseudonym, a nested lookup of the same value stores another one first
+        PseudonymDictionary dictionary = PseudonymDictionary.offHeap(MaskingServiceFixtures.hmacHasher(), 1, 0);
+        AtomicReference<Masker> emails = new AtomicReference<>();
+        Set<String> racing = new HashSet<>();
+        emails.set(dictionary.masker(PiiType.EMAIL, false, value -> {
+            if (racing.add(value)) {
+                emails.get().mask(value);
+                return "lost-" + value;
+            }
+            return "won-" + value;
+        }));
+        
+        // When
+        for (int i = 0; i < 200; i++) {
+            assertEquals("won-" + i, emails.get().mask(String.valueOf(i)));
+        }
+        
+        // Then the losing pseudonyms are free for other values, and every stored value is still found
+        for (int i = 0; i < 200; i++) {
+            String lost = "lost-" + i;
+            assertEquals(lost, dictionary.masker(PiiType.EMAIL, false, value -> lost).mask("other" + i));
+        }
+        for (int i = 0; i < 200; i++) {
+            assertEquals("won-" + i, emails.get().mask(String.valueOf(i)));
+        }
+        assertEquals(400, dictionary.size());
+    }
+    
+    @Test
+    void testMappedDictionaryKeepsItsHmacKey(@TempDir Path dir) throws Exception {
+        // Given a dictionary built under key v2
+        String pseudonym;
+        try (PseudonymDictionary dictionary = PseudonymDictionary.mapped(MaskingServiceFixtures.hmacHasher(), dir, 2, 0)) {
+            pseudonym = dictionary.masker(PiiType.EMAIL, true, generator).mask("user@example.com");
+        }
+        
+        // When the active key is rotated to v1, the dictionary still finds its entries
+        try (PseudonymDictionary rotated = PseudonymDictionary.mapped(hasher(true), dir, 2, 0)) {
+            assertEquals(pseudonym, rotated.masker(PiiType.EMAIL, true, generator).mask("user@example.com"));
+        }
+        
+        // Then it refuses to open once its key is removed
+        assertThrows(IllegalStateException.class, () -> PseudonymDictionary.mapped(hasher(false), dir, 2, 0));
+    }
+    
+    @Test
+    void testRejectPseudonymsTooLongToKeep() {
+        PseudonymDictionary dictionary = PseudonymDictionary.offHeap(MaskingServiceFixtures.hmacHasher(), 1, 0);
+        Masker names = dictionary.masker(PiiType.FULL_NAME, false, generator);
+        
+        assertThrows(IllegalArgumentException.class, () -> names.mask("x".repeat(PseudonymDictionary.MAX_PSEUDONYM_BYTES + 1)));
+        assertFalse(PseudonymDictionary.disabled().isEnabled());
+    }
+    
+    /**
+     * Hasher with key v1 active, optionally keeping key v2
+     */
+    private static HmacHasher hasher(boolean withV2) {
+        HmacProperties properties = new HmacProperties();
+        properties.getKeys().put("v1", Base64.getEncoder().encodeToString(MaskingServiceFixtures.HMAC_KEY_V1));
+        if (withV2) {
+            properties.getKeys().put("v2", Base64.getEncoder().encodeToString(MaskingServiceFixtures.HMAC_KEY_V2));
+        }
+        properties.setActiveKeyId("v1");
+        return new HmacHasher(properties);
+    }
+}
@@ -0,0 +1,49 @@
+package com.datamasking.tool.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RandomValueGenerator implementations
+ */
+class RandomValueGeneratorTest {
+    
+    @Test
+    void testCharacterClasses() {
+        for (RandomValueGenerator generator : new RandomValueGenerator[] {
+                new FastRandomValueGenerator(), new SecureRandomValueGenerator(2)}) {
+            assertTrue(generator.alphanumeric(1000).matches("[A-Za-z0-9]{1000}"));
+            assertTrue(generator.numeric(1000).matches("[0-9]{1000}"));
+            assertEquals("", generator.numeric(0));
+        }
+    }
+    
+    @Test
+    void testFillsOnlyRequestedRange() {
+        char[] value = "123-4567-890".toCharArray();
+        
+        new FastRandomValueGenerator().fillNumeric(value, 4, 4);
+        
+        assertTrue(new String(value).matches("123-\\d{4}-890"));
+    }
+    
+    @Test
+    void testDigitsAreUniform() {
+        for (RandomValueGenerator generator : new RandomValueGenerator[] {
+                new FastRandomValueGenerator(), new SecureRandomValueGenerator(1)}) {
+            // Given
+            int[] counts = new int[10];
+            
+            // When
+            for (char c : generator.numeric(100_000).toCharArray()) {
+                counts[c - '0']++;
+            }
+            
+            // Then
+            for (int count : counts) {
+                assertTrue(count > 9_400 && count < 10_600, "digit count " + count);
+            }
+        }
+    }
+}
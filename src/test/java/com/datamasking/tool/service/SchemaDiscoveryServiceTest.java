@@ -0,0 +1,180 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.dto.DiscoveryRequest;
+import com.datamasking.tool.dto.DiscoveryResponse;
+import com.datamasking.tool.model.ColumnMapping;
+import com.datamasking.tool.model.DiscoveryRun;
+import com.datamasking.tool.model.MaskingRule;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for SchemaDiscoveryService against the embedded database
+ */
+@SpringBootTest
+class SchemaDiscoveryServiceTest {
+    
+    private static final int ROWS = 300;
+    
+    @Autowired
+    private SchemaDiscoveryService schemaDiscoveryService;
+    
+    @Autowired
+    private MaskingRuleRepository maskingRuleRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS discovery_customers");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS discovery_orders");
+        jdbcTemplate.execute("CREATE TABLE discovery_customers (id BIGINT PRIMARY KEY, email VARCHAR(100), "
+            + "national_id BIGINT, notes VARCHAR(200), city VARCHAR(50))");
+        jdbcTemplate.execute("CREATE TABLE discovery_orders (id BIGINT PRIMARY KEY, card VARCHAR(30), amount DECIMAL(10, 2))");
+        
+        List<Object[]> customers = new ArrayList<>();
+        List<Object[]> orders = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            String notes = i % 3 == 0 ? "Aranacak: 0532 123 45 67" : "Teslimat sorunsuz";
+            customers.add(new Object[] {i, "user" + i + "@example.com", tcKimlikNo(100_000_000 + i), notes, "Ankara"});
+            orders.add(new Object[] {i, i % 2 == 0 ? "4111 1111 1111 1111" : "5555555555554444", i * 10});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO discovery_customers VALUES (?, ?, ?, ?, ?)", customers);
+        jdbcTemplate.batchUpdate("INSERT INTO discovery_orders VALUES (?, ?, ?)", orders);
+    }
+    
+    @Test
+    void testDiscoverClassifiesSampledColumns() {
+        // When
+        DiscoveryResponse response = schemaDiscoveryService.discover(
+            DiscoveryRequest.builder().tablePattern("DISCOVERY%").sampleSize(50).build());
+        
+        // Then
+        assertEquals(2, response.getTablesSampled());
+        assertTrue(response.getFailedTables().isEmpty());
+        Map<String, PiiType> types = response.getMappings().stream()
+            .collect(Collectors.toMap(m -> m.getColumnName().toLowerCase(), ColumnMapping::getPiiType));
+        assertEquals(Map.of(
+            "email", PiiType.EMAIL,
+            "national_id", PiiType.TC_KIMLIK_NO,
+            "notes", PiiType.TEXT,
+            "card", PiiType.CREDIT_CARD), types);
+        
+        for (ColumnMapping mapping : response.getMappings()) {
+            assertEquals(50, mapping.getSampledRows());
+            MaskingRule rule = maskingRuleRepository.findById(mapping.getRuleId()).orElseThrow();
+            assertEquals(mapping.getPiiType(), rule.getPiiType());
+        }
+        // No rule is seeded for free text, so one is proposed for review
+        MaskingRule textRule = maskingRuleRepository.findByPiiType(PiiType.TEXT).orElseThrow();
+        assertFalse(textRule.getIsActive());
+    }
+    
+    @Test
+    void testRediscoveryUpdatesMappings() {
+        // Given
+        DiscoveryRequest request = DiscoveryRequest.builder().tablePattern("DISCOVERY%").build();
+        List<ColumnMapping> first = schemaDiscoveryService.discover(request).getMappings();
+        
+        // When
+        DiscoveryResponse second = schemaDiscoveryService.discover(request);
+        
+        // Then
+        assertEquals(0, second.getProposedRules());
+        assertEquals(first.stream().map(ColumnMapping::getId).sorted().toList(),
+            second.getMappings().stream().map(ColumnMapping::getId).sorted().toList());
+    }
+    
+    @Test
+    void testSubmittedRunCompletesInBackground() throws Exception {
+        // When
+        DiscoveryRun run = schemaDiscoveryService.submit(
+            DiscoveryRequest.builder().tablePattern("DISCOVERY%").sampleSize(50).build(), "tester");
+        DiscoveryRun finished = awaitRun(run.getId());
+        
+        // Then
+        assertEquals(DiscoveryRun.RunStatus.COMPLETED, finished.getStatus());
+        assertEquals(2, finished.getTablesSampled());
+        assertEquals(4, finished.getMappingsFound());
+        assertTrue(finished.getFailedTables().isEmpty());
+        assertEquals("tester", finished.getCreatedBy());
+        assertTrue(schemaDiscoveryService.getRun(Long.MAX_VALUE).isEmpty());
+    }
+    
+    @Test
+    void testConcurrentDiscoveriesKeepOneMappingPerColumn() throws Exception {
+        // Given
+        DiscoveryRequest request = DiscoveryRequest.builder().tablePattern("DISCOVERY%").build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        
+        // When
+        try {
+            List<Future<DiscoveryResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> schemaDiscoveryService.discover(request)));
+            }
+            for (Future<DiscoveryResponse> future : futures) {
+                assertEquals(4, future.get().getMappings().size());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        // Then
+        List<String> columns = schemaDiscoveryService.getMappings().stream()
+            .filter(m -> m.getTableName().toLowerCase().contains("discovery_"))
+            .map(m -> m.getTableName() + "." + m.getColumnName())
+            .toList();
+        assertEquals(4, columns.size(), columns.toString());
+    }
+    
+    private DiscoveryRun awaitRun(Long runId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            DiscoveryRun run = schemaDiscoveryService.getRun(runId).orElseThrow();
+            if (run.getCompletedAt() != null) {
+                return run;
+            }
+            Thread.sleep(50);
+        }
+        fail("Discovery run " + runId + " did not finish in time");
+        return null;
+    }
+    
+    private static long tcKimlikNo(int nineDigits) {
+        int[] d = new int[11];
+        String prefix = Integer.toString(nineDigits);
+        int odd = 0;
+        int even = 0;
+        for (int i = 0; i < 9; i++) {
+            d[i] = prefix.charAt(i) - '0';
+            if (i % 2 == 0) {
+                odd += d[i];
+            } else {
+                even += d[i];
+            }
+        }
+        d[9] = Math.floorMod(odd * 7 - even, 10);
+        d[10] = (odd + even + d[9]) % 10;
+        long value = 0;
+        for (int digit : d) {
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,51 @@
+package com.datamasking.tool.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Sha256Hasher
+ */
+class Sha256HasherTest {
+    
+    @Test
+    void testKnownDigest() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", Sha256Hasher.hash("abc"));
+    }
+    
+    @Test
+    void testMatchesUtf8Digest() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (String value : new String[] {"192.168.1.1", "Ahmet Yılmaz", "Şişli, İstanbul", "emoji 😀", "lone \uD800 surrogate"}) {
+            String expected = HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(expected, Sha256Hasher.hash(value), value);
+        }
+    }
+    
+    @Test
+    void testLongValueGrowsBuffer() throws Exception {
+        String value = "x".repeat(10_000);
+        String expected = HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected, Sha256Hasher.hash(value));
+        assertEquals(Sha256Hasher.hash("abc"), Sha256Hasher.hash(new StringBuilder("abc")));
+    }
+    
+    @Test
+    void testOversizedValueDoesNotStayBuffered() throws Exception {
+        String value = "ş".repeat(100_000);
+        String expected = HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected, Sha256Hasher.hash(value));
+        
+        DigestWorkspace workspace = new DigestWorkspace();
+        assertEquals(200_000, workspace.encode(value));
+        workspace.release();
+        assertTrue(workspace.input().length < 200_000);
+    }
+}
@@ -0,0 +1,101 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.dto.MaskingRequest;
+import com.datamasking.tool.model.MaskingStrategy;
+import com.datamasking.tool.model.PiiType;
+import com.datamasking.tool.repository.MaskingRuleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StreamingMaskingService
+ */
+@ExtendWith(MockitoExtension.class)
+class StreamingMaskingServiceTest {
+    
+    @Mock
+    private MaskingRuleRepository maskingRuleRepository;
+    
+    private StreamingMaskingService streamingMaskingService;
+    
+    private final MaskingRequest tcConfig = MaskingRequest.builder()
+        .piiType(PiiType.TC_KIMLIK_NO)
+        .strategy(MaskingStrategy.ASTERISK)
+        .preserveLength(true)
+        .preserveFormat(true)
+        .build();
+    
+    @BeforeEach
+    void setUp() {
+        MaskingService maskingService = MaskingServiceFixtures.maskingService(maskingRuleRepository);
+        streamingMaskingService = new StreamingMaskingService(maskingService, new ObjectMapper());
+    }
+    
+    @Test
+    void testMaskJsonArray() throws Exception {
+        // When
+        String output = mask("[\"12345678901\", 98765432109, null]");
+        
+        // Then
+        assertEquals("[\"123****8901\",\"987****2109\",null]", output);
+    }
+    
+    @Test
+    void testMaskNdjson() throws Exception {
+        // When
+        String output = mask("\"12345678901\"\n\"98765432109\"\n");
+        
+        // Then
+        assertEquals("\"123****8901\"\n\"987****2109\"\n", output);
+    }
+    
+    @Test
+    void testMaskEmptyStream() throws Exception {
+        assertEquals("", mask(""));
+        assertEquals("[]", mask("[]"));
+    }
+    
+    @Test
+    void testRejectNestedElementsBeforeWritingAnything() {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> mask("[{\"data\":\"12345678901\"}]", output));
+        assertEquals("", output.toString(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void testEndStreamWithErrorElementWhenLaterElementIsInvalid() {
+        // Given
+        ByteArrayOutputStream array = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> mask("[\"12345678901\", [1]]", array));
+        assertTrue(array.toString(StandardCharsets.UTF_8).matches("\\[\"123\\*{4}8901\",\\{\"error\":\".+\"}]"));
+        assertThrows(IllegalArgumentException.class, () -> mask("\"12345678901\"\n\"9876", ndjson));
+        assertTrue(ndjson.toString(StandardCharsets.UTF_8).matches("\"123\\*{4}8901\"\n\\{\"error\":\".+\"}\n"));
+    }
+    
+    private String mask(String input) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mask(input, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+    
+    private void mask(String input, ByteArrayOutputStream output) throws Exception {
+        streamingMaskingService.maskStream(
+            new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, tcConfig);
+    }
+}
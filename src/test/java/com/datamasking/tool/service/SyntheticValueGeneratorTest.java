@@ -0,0 +1,109 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.config.HmacProperties;
+import com.datamasking.tool.model.PiiType;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SyntheticValueGenerator
+ */
+class SyntheticValueGeneratorTest {
+    
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+    
+    private final SyntheticValueGenerator generator = MaskingServiceFixtures.syntheticValueGenerator();
+    
+    @Test
+    void testNamesAreDrawnFromTheDictionaries() {
+        // When
+        String fullName = generator.name("Ahmet Can Yılmaz", PiiType.FULL_NAME);
+        String english = generator.name("John Smith", PiiType.FULL_NAME);
+        
+        // Then
+        String[] tokens = fullName.split(" ");
+        assertEquals(3, tokens.length);
+        assertTrue(dictionary("tr", "first-names").contains(tokens[0]), fullName);
+        assertTrue(dictionary("tr", "first-names").contains(tokens[1]), fullName);
+        assertTrue(dictionary("tr", "last-names").contains(tokens[2]), fullName);
+        
+        String[] englishTokens = english.split(" ");
+        assertTrue(dictionary("en", "first-names").contains(englishTokens[0]), english);
+        assertTrue(dictionary("en", "last-names").contains(englishTokens[1]), english);
+        assertTrue(dictionary("tr", "last-names").contains(generator.name("Kaya", PiiType.LAST_NAME)));
+    }
+    
+    @Test
+    void testSubstitutesAreDeterministic() {
+        // Given
+        String name = generator.name("Ahmet Yılmaz", PiiType.FULL_NAME);
+        
+        // Then
+        assertEquals(name, generator.name("Ahmet Yılmaz", PiiType.FULL_NAME));
+        assertEquals(name, MaskingServiceFixtures.syntheticValueGenerator().name("Ahmet  Yilmaz", PiiType.FULL_NAME));
+        assertEquals(name.toUpperCase(TURKISH), generator.name("AHMET YILMAZ", PiiType.FULL_NAME));
+        assertEquals(name.substring(0, name.indexOf(' ')), generator.name("Ahmet", PiiType.FIRST_NAME));
+        assertEquals(generator.address("Atatürk Cad. No:5, İzmir"), generator.address("Atatürk Cad. No:5, İzmir"));
+        
+        // Another HMAC key gives other substitutes for the same input
+        HmacProperties properties = new HmacProperties();
+        properties.getKeys().put("other", "b3RoZXItdGVzdC1rZXktMDEyMzQ1Njc4OWFiY2RlZg==");
+        properties.setActiveKeyId("other");
+        SyntheticValueGenerator other = new SyntheticValueGenerator(new HmacHasher(properties), "tr");
+        StringBuilder mine = new StringBuilder();
+        StringBuilder theirs = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            mine.append(generator.name("Name" + i, PiiType.FIRST_NAME));
+            theirs.append(other.name("Name" + i, PiiType.FIRST_NAME));
+        }
+        assertNotEquals(mine.toString(), theirs.toString());
+    }
+    
+    @Test
+    void testAddressesUseTheLocalFormat() {
+        // When
+        String turkish = generator.address("Cumhuriyet Mah. Gül Sok. No:12 Kadıköy/İstanbul");
+        String english = generator.address("10 Downing Street, London");
+        
+        // Then
+        assertTrue(turkish.matches(".+ No:\\d+, .+"), turkish);
+        assertTrue(dictionary("tr", "cities").contains(turkish.substring(turkish.lastIndexOf(", ") + 2)), turkish);
+        assertTrue(english.matches("\\d+ .+, .+"), english);
+        assertTrue(dictionary("en", "cities").contains(english.substring(english.lastIndexOf(", ") + 2)), english);
+    }
+    
+    @Test
+    void testDefaultLocale() {
+        SyntheticValueGenerator english = new SyntheticValueGenerator(MaskingServiceFixtures.hmacHasher(), "en");
+        
+        assertTrue(dictionary("en", "first-names").contains(english.name("Xqz", PiiType.FIRST_NAME)));
+        assertTrue(dictionary("tr", "first-names").contains(generator.name("Xqz", PiiType.FIRST_NAME)));
+        assertThrows(IllegalStateException.class,
+            () -> new SyntheticValueGenerator(MaskingServiceFixtures.hmacHasher(), "de"));
+    }
+    
+    @Test
+    void testKeyIsOnlyNeededOnFirstUse() {
+        SyntheticValueGenerator keyless = new SyntheticValueGenerator(new HmacHasher(new HmacProperties()), "tr");
+        
+        assertThrows(IllegalStateException.class, () -> keyless.name("Ahmet", PiiType.FIRST_NAME));
+    }
+    
+    private static Set<String> dictionary(String language, String name) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                SyntheticValueGeneratorTest.class.getResourceAsStream("/synthetic/" + language + "/" + name + ".txt"),
+                StandardCharsets.UTF_8))) {
+            return reader.lines().filter(line -> !line.isBlank() && !line.startsWith("#")).collect(Collectors.toSet());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
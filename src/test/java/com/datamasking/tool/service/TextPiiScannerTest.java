@@ -0,0 +1,91 @@
+package com.datamasking.tool.service;
+
+import com.datamasking.tool.model.PiiType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TextPiiScanner and PiiValidators
+ */
+class TextPiiScannerTest {
+    
+    @Test
+    void testDetectsEveryTypeInOnePass() {
+        // Given
+        String text = "Müşteri ali.veli@example.com, tel +90 532 123 45 67, TCKN 10000000146, "
+            + "kart 4111 1111 1111 1111, IBAN TR33 0006 1005 1978 6457 8413 26 ve IP 192.168.1.10 / fe80::1.";
+        
+        // When
+        List<TextPiiScanner.Span> spans = TextPiiScanner.scan(text);
+        
+        // Then
+        assertEquals(List.of(PiiType.EMAIL, PiiType.PHONE, PiiType.TC_KIMLIK_NO, PiiType.CREDIT_CARD,
+            PiiType.BANK_ACCOUNT, PiiType.IP_ADDRESS, PiiType.IP_ADDRESS), spans.stream().map(TextPiiScanner.Span::type).toList());
+        assertEquals(List.of("ali.veli@example.com", "+90 532 123 45 67", "10000000146", "4111 1111 1111 1111",
+                "TR33 0006 1005 1978 6457 8413 26", "192.168.1.10", "fe80::1"),
+            spans.stream().map(span -> text.substring(span.start(), span.end())).toList());
+    }
+    
+    @Test
+    void testIgnoresNumbersFailingValidation() {
+        // Given
+        String text = "Sipariş 12345678901 tutarı 1.234,50 TL, tarih 12.03.2024 saat 12:30, kart 4111 1111 1111 1112, "
+            + "sürüm 1.2.300.4, IBAN TR34 0006 1005 1978 6457 8413 26";
+        
+        // When / Then
+        assertTrue(TextPiiScanner.scan(text).isEmpty());
+    }
+    
+    @Test
+    void testSecretLabelsMaskTheFollowingValue() {
+        // Given
+        String text = "Şifre: hunter2 ve PIN=4321, spin: ok";
+        
+        // When
+        List<TextPiiScanner.Span> spans = TextPiiScanner.scan(text);
+        
+        // Then
+        assertEquals(2, spans.size());
+        assertEquals("hunter2", text.substring(spans.get(0).start(), spans.get(0).end()));
+        assertEquals("4321,", text.substring(spans.get(1).start(), spans.get(1).end()));
+        assertTrue(spans.stream().allMatch(span -> span.type() == PiiType.TEXT));
+    }
+    
+    @Test
+    void testMaskReturnsCleanTextUnchanged() {
+        // Given
+        String text = "Kargo 3 gün içinde teslim edilecektir.";
+        Masker[] maskers = new Masker[PiiType.values().length];
+        
+        // When / Then
+        assertSame(text, TextPiiScanner.mask(text, maskers));
+    }
+    
+    @Test
+    void testValidators() {
+        assertTrue(PiiValidators.isTcKimlikNo("10000000146".toCharArray(), 11));
+        assertFalse(PiiValidators.isTcKimlikNo("10000000147".toCharArray(), 11));
+        assertFalse(PiiValidators.isTcKimlikNo("01234567890".toCharArray(), 11));
+        
+        assertTrue(PiiValidators.isLuhn("4111111111111111".toCharArray(), 16));
+        assertFalse(PiiValidators.isLuhn("4111111111111112".toCharArray(), 16));
+        
+        String iban = "GB82 WEST 1234 5698 7654 32";
+        assertTrue(PiiValidators.isIban(iban, 0, iban.length()));
+        assertFalse(PiiValidators.isIban("GB82WEST12345698765433", 0, 22));
+        
+        assertTrue(PiiValidators.isIpv4("255.0.10.1", 0, 10));
+        assertFalse(PiiValidators.isIpv4("256.0.10.1", 0, 10));
+        assertFalse(PiiValidators.isIpv4("01.0.10.1", 0, 9));
+        
+        for (String address : new String[] {"2001:db8::8a2e:370:7334", "::1", "::", "1:2:3:4:5:6:7:8", "::ffff:10.0.0.1"}) {
+            assertTrue(PiiValidators.isIpv6(address, 0, address.length()), address);
+        }
+        for (String address : new String[] {"1:2:3:4:5:6:7", "1::2::3", "12:30", "1:2:3:4:5:6:7:8:9", "fe80:::1"}) {
+            assertFalse(PiiValidators.isIpv6(address, 0, address.length()), address);
+        }
+    }
+}